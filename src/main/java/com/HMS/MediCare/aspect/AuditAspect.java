@@ -1,6 +1,7 @@
 package com.HMS.MediCare.aspect;
 
 import com.HMS.MediCare.enums.AuditAction;
+import com.HMS.MediCare.enums.AuditMode;
 import com.HMS.MediCare.service.AuditLogService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +15,7 @@ import org.springframework.stereotype.Component;
 /**
  * Audit Aspect for automatic logging of service operations
  * Uses AOP to intercept service methods and log audit events
+ * How each call is recorded (always, sampled, coalesced or off) comes from AuditPolicy
  */
 @Aspect
 @Component
@@ -22,6 +24,8 @@ import org.springframework.stereotype.Component;
 public class AuditAspect {
 
     private final AuditLogService auditLogService;
+    private final AuditPolicy auditPolicy;
+    private final AuditMetadataRegistry auditMetadataRegistry;
 
     /**
      * Pointcut for all service methods
@@ -38,12 +42,19 @@ public class AuditAspect {
     public void createOperationPointcut() {}
 
     /**
-     * Pointcut for read operations (get, find)
+     * Pointcut for read operations (get, find) on domain services (*Service);
+     * lookups in caches and indexes such as SlotOccupancyIndex are not PHI access
      */
-    @Pointcut("execution(* com.HMS.MediCare.service.*.get*(..)) || " +
-              "execution(* com.HMS.MediCare.service.*.find*(..))")
+    @Pointcut("execution(* com.HMS.MediCare.service.*Service.get*(..)) || " +
+              "execution(* com.HMS.MediCare.service.*Service.find*(..))")
     public void readOperationPointcut() {}
 
+    /**
+     * Pointcut for bulk exports (export*) on domain services; each streams whole tables of PHI
+     */
+    @Pointcut("execution(* com.HMS.MediCare.service.*Service.export*(..))")
+    public void exportOperationPointcut() {}
+
     /**
      * Pointcut for update operations
      */
@@ -84,11 +95,32 @@ public class AuditAspect {
      */
     @AfterReturning(pointcut = "deleteOperationPointcut()")
     public void logDeleteOperation(JoinPoint joinPoint) {
-        String entityType = extractEntityType(joinPoint);
-        String entityId = extractEntityId(joinPoint);
-        String method = joinPoint.getSignature().toShortString();
-        
-        auditLogService.log(AuditAction.DELETE, entityType, entityId, method);
+        JoinPointMetadata metadata = auditMetadataRegistry.metadata(joinPoint);
+        audit(auditPolicy.modeFor(metadata, AuditPolicy.Category.WRITE), AuditAction.DELETE,
+                metadata.entityType(), extractEntityId(joinPoint), metadata, null, "SUCCESS");
+    }
+
+    /**
+     * Log successful READ operations (PHI access); coalesced by default
+     */
+    @AfterReturning(pointcut = "readOperationPointcut()")
+    public void logReadOperation(JoinPoint joinPoint) {
+        JoinPointMetadata metadata = auditMetadataRegistry.metadata(joinPoint);
+        audit(auditPolicy.modeFor(metadata, AuditPolicy.Category.READ), AuditAction.READ,
+                metadata.entityType(), extractEntityId(joinPoint), metadata, null, "SUCCESS");
+    }
+
+    /**
+     * Log successful EXPORT operations with the row count and format; never coalesced by default
+     */
+    @AfterReturning(pointcut = "exportOperationPointcut()", returning = "result")
+    public void logExportOperation(JoinPoint joinPoint, Object result) {
+        JoinPointMetadata metadata = auditMetadataRegistry.metadata(joinPoint);
+        Object[] args = joinPoint.getArgs();
+        String details = "Exported " + result + " records"
+                + (args.length > 0 && args[0] != null ? " as " + args[0] : "");
+        audit(auditPolicy.modeFor(metadata, AuditPolicy.Category.EXPORT), AuditAction.EXPORT,
+                metadata.entityType(), null, metadata, details, "SUCCESS");
     }
 
     /**
@@ -96,40 +128,50 @@ public class AuditAspect {
      */
     @AfterReturning(pointcut = "loginOperationPointcut()", returning = "result")
     public void logLoginOperation(JoinPoint joinPoint, Object result) {
-        String method = joinPoint.getSignature().toShortString();
-        auditLogService.log(AuditAction.LOGIN, "Session", null, method);
+        JoinPointMetadata metadata = auditMetadataRegistry.metadata(joinPoint);
+        audit(auditPolicy.modeFor(metadata, AuditPolicy.Category.WRITE), AuditAction.LOGIN,
+                "Session", null, metadata, null, "SUCCESS");
     }
 
     /**
-     * Log failed operations
+     * Log failed operations; expected client errors (not found, bad request) are coalesced by default
      */
     @AfterThrowing(pointcut = "serviceMethodPointcut()", throwing = "exception")
     public void logFailedOperation(JoinPoint joinPoint, Throwable exception) {
-        String entityType = extractEntityType(joinPoint);
-        String method = joinPoint.getSignature().toShortString();
-        String details = exception.getMessage();
-        
-        AuditAction action = determineAction(joinPoint);
-        auditLogService.logFailure(action, entityType, method, details);
+        JoinPointMetadata metadata = auditMetadataRegistry.metadata(joinPoint);
+        audit(auditPolicy.modeForFailure(metadata, exception), metadata.failureAction(),
+                metadata.entityType(), extractEntityId(joinPoint), metadata, exception.getMessage(), "FAILURE");
     }
 
     /**
      * Helper method to log operations
      */
     private void logOperation(JoinPoint joinPoint, Object result, AuditAction action) {
-        String entityType = extractEntityType(joinPoint);
-        String entityId = extractEntityIdFromResult(result);
-        String method = joinPoint.getSignature().toShortString();
-        
-        auditLogService.log(action, entityType, entityId, method);
+        JoinPointMetadata metadata = auditMetadataRegistry.metadata(joinPoint);
+        audit(auditPolicy.modeFor(metadata, AuditPolicy.Category.WRITE), action,
+                metadata.entityType(), auditMetadataRegistry.extractId(result), metadata, null, "SUCCESS");
     }
 
     /**
-     * Extract entity type from join point (service class name)
-     */
-    private String extractEntityType(JoinPoint joinPoint) {
-        String className = joinPoint.getTarget().getClass().getSimpleName();
-        return className.replace("Service", "");
+     * Record an event according to its audit mode
+     */
+    private void audit(AuditMode mode, AuditAction action, String entityType, String entityId,
+                       JoinPointMetadata metadata, String details, String outcome) {
+        switch (mode) {
+            case OFF -> {
+            }
+            case COALESCED -> auditLogService.recordCoalesced(action, entityType, entityId,
+                    metadata.method(), details, outcome);
+            case SAMPLED -> {
+                if (auditPolicy.sample()) {
+                    String sampled = "Sampled at rate " + auditPolicy.getSampleRate();
+                    auditLogService.record(action, entityType, entityId, metadata.method(),
+                            details != null ? sampled + "; " + details : sampled, outcome);
+                }
+            }
+            case ALWAYS -> auditLogService.record(action, entityType, entityId,
+                    metadata.method(), details, outcome);
+        }
     }
 
     /**
@@ -142,41 +184,4 @@ public class AuditAspect {
         }
         return null;
     }
-
-    /**
-     * Extract entity ID from result object
-     */
-    private String extractEntityIdFromResult(Object result) {
-        if (result == null) {
-            return null;
-        }
-        try {
-            // Try to get ID using reflection
-            var method = result.getClass().getMethod("getId");
-            Object id = method.invoke(result);
-            return id != null ? String.valueOf(id) : null;
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    /**
-     * Determine action type from method name
-     */
-    private AuditAction determineAction(JoinPoint joinPoint) {
-        String methodName = joinPoint.getSignature().getName().toLowerCase();
-        
-        if (methodName.contains("create") || methodName.contains("add") || methodName.contains("register")) {
-            return AuditAction.CREATE;
-        } else if (methodName.contains("update")) {
-            return AuditAction.UPDATE;
-        } else if (methodName.contains("delete")) {
-            return AuditAction.DELETE;
-        } else if (methodName.contains("login") || methodName.contains("authenticate")) {
-            return AuditAction.LOGIN;
-        } else if (methodName.contains("get") || methodName.contains("find")) {
-            return AuditAction.READ;
-        }
-        return AuditAction.READ;
-    }
 }
@@ -0,0 +1,104 @@
+package com.HMS.MediCare.aspect;
+
+import com.HMS.MediCare.enums.AuditAction;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cached metadata for AuditAspect
+ * - Join point metadata (entity type, signature, failure action, policy rule)
+ *   per target class and method
+ * - A getId() method handle per result class, so the audited hot path does
+ *   no reflective lookups and no string building
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditMetadataRegistry {
+
+    private static final MethodType ID_ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    // Returned for classes without an accessible getId(); always yields null
+    private static final MethodHandle NO_ID = MethodHandles.dropArguments(
+            MethodHandles.constant(Object.class, null), 0, Object.class);
+
+    private final AuditPolicy auditPolicy;
+
+    private final ClassValue<MethodHandle> idAccessors = new ClassValue<>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            return findIdAccessor(type);
+        }
+    };
+
+    private final ClassValue<ConcurrentHashMap<Method, JoinPointMetadata>> joinPoints = new ClassValue<>() {
+        @Override
+        protected ConcurrentHashMap<Method, JoinPointMetadata> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    public JoinPointMetadata metadata(JoinPoint joinPoint) {
+        Class<?> targetClass = joinPoint.getTarget().getClass();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return joinPoints.get(targetClass).computeIfAbsent(method, m -> create(targetClass, m, joinPoint));
+    }
+
+    /**
+     * The result's id as a string, or null when it has none
+     */
+    public String extractId(Object result) {
+        if (result == null) {
+            return null;
+        }
+        try {
+            Object id = (Object) idAccessors.get(result.getClass()).invokeExact(result);
+            return id != null ? String.valueOf(id) : null;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    private JoinPointMetadata create(Class<?> targetClass, Method method, JoinPoint joinPoint) {
+        String service = targetClass.getSimpleName();
+        return new JoinPointMetadata(
+                service.replace("Service", ""),
+                joinPoint.getSignature().toShortString(),
+                determineAction(method.getName()),
+                auditPolicy.ruleFor(service, method.getName()));
+    }
+
+    private static MethodHandle findIdAccessor(Class<?> type) {
+        try {
+            Method getter = type.getMethod("getId");
+            return MethodHandles.publicLookup().unreflect(getter).asType(ID_ACCESSOR_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return NO_ID;
+        }
+    }
+
+    /**
+     * Determine action type from method name
+     */
+    private static AuditAction determineAction(String name) {
+        String methodName = name.toLowerCase();
+
+        if (methodName.contains("create") || methodName.contains("add") || methodName.contains("register")) {
+            return AuditAction.CREATE;
+        } else if (methodName.contains("update")) {
+            return AuditAction.UPDATE;
+        } else if (methodName.contains("delete")) {
+            return AuditAction.DELETE;
+        } else if (methodName.contains("login") || methodName.contains("authenticate")) {
+            return AuditAction.LOGIN;
+        }
+        return AuditAction.READ;
+    }
+}
@@ -0,0 +1,71 @@
+package com.HMS.MediCare.aspect;
+
+import com.HMS.MediCare.config.AuditPolicyProperties;
+import com.HMS.MediCare.enums.AuditMode;
+import com.HMS.MediCare.exception.BadRequestException;
+import com.HMS.MediCare.exception.ResourceNotFoundException;
+import com.HMS.MediCare.exception.TooManyRequestsException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Resolves the audit mode for a join point from AuditPolicyProperties
+ * Explicit rules are cached in JoinPointMetadata; sampling is decided per call.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditPolicy {
+
+    public enum Category {
+        READ, WRITE, EXPORT, FAILURE
+    }
+
+    private final AuditPolicyProperties properties;
+
+    public AuditMode modeFor(JoinPointMetadata metadata, Category category) {
+        if (metadata.rule().isPresent()) {
+            return metadata.rule().get();
+        }
+        return switch (category) {
+            case READ -> properties.getReads();
+            case WRITE -> properties.getWrites();
+            case EXPORT -> properties.getExports();
+            case FAILURE -> properties.getFailures();
+        };
+    }
+
+    public AuditMode modeForFailure(JoinPointMetadata metadata, Throwable exception) {
+        if (isExpected(exception)) {
+            return metadata.rule().orElse(properties.getExpectedFailures());
+        }
+        return modeFor(metadata, Category.FAILURE);
+    }
+
+    /**
+     * Whether a SAMPLED call should be recorded
+     */
+    public boolean sample() {
+        return ThreadLocalRandom.current().nextDouble() < properties.getSampleRate();
+    }
+
+    public double getSampleRate() {
+        return properties.getSampleRate();
+    }
+
+    /**
+     * Explicit rule for a service method: method rule first, then service rule
+     */
+    Optional<AuditMode> ruleFor(String service, String method) {
+        AuditMode methodRule = properties.getRules().get(service + "." + method);
+        return Optional.ofNullable(methodRule != null ? methodRule : properties.getRules().get(service));
+    }
+
+    // Client mistakes rather than system faults
+    private static boolean isExpected(Throwable exception) {
+        return exception instanceof ResourceNotFoundException || exception instanceof BadRequestException
+                || exception instanceof TooManyRequestsException;
+    }
+}
@@ -0,0 +1,22 @@
+package com.HMS.MediCare.aspect;
+
+import com.HMS.MediCare.enums.AuditAction;
+import com.HMS.MediCare.enums.AuditMode;
+
+import java.util.Optional;
+
+/**
+ * Everything AuditAspect derives from a (target class, method) pair, computed once
+ *
+ * @param entityType    service class name without "Service"
+ * @param method        short signature written to the audit row
+ * @param failureAction action recorded when the method throws
+ * @param rule          explicit audit.policy rule for this method or service, if any
+ */
+public record JoinPointMetadata(
+        String entityType,
+        String method,
+        AuditAction failureAction,
+        Optional<AuditMode> rule
+) {
+}
@@ -0,0 +1,38 @@
+package com.HMS.MediCare.config;
+
+import com.HMS.MediCare.enums.AuditMode;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Audit policy for AuditAspect (audit.policy.*)
+ * Rules are keyed by service class ("PatientService") or service method
+ * ("[PatientService.getPatientById]", brackets keep the dot in the key);
+ * a method rule beats a class rule, which beats the category default.
+ */
+@Component
+@ConfigurationProperties(prefix = "audit.policy")
+@Getter
+@Setter
+public class AuditPolicyProperties {
+
+    private AuditMode reads = AuditMode.COALESCED;
+    private AuditMode writes = AuditMode.ALWAYS;
+    // Bulk exports of patient and appointment records
+    private AuditMode exports = AuditMode.ALWAYS;
+    private AuditMode failures = AuditMode.ALWAYS;
+
+    // ResourceNotFoundException and friends, mostly from polling clients
+    private AuditMode expectedFailures = AuditMode.COALESCED;
+
+    private double sampleRate = 0.1;
+    private int coalesceWindowSeconds = 60;
+    private int coalesceMaxKeys = 100_000;
+
+    private Map<String, AuditMode> rules = new HashMap<>();
+}
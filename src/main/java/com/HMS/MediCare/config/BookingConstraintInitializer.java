@@ -0,0 +1,68 @@
+package com.HMS.MediCare.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+
+/**
+ * Creates the partial unique index that prevents double-booking across nodes.
+ * JPA cannot declare partial indexes, so this runs after Hibernate schema update.
+ * Only PostgreSQL supports the WHERE clause; other databases rely on the
+ * in-process booking locks alone. The tests run on H2, so the PostgreSQL path
+ * below is only exercised against a real database.
+ * Startup fails if the index cannot be created: without it, nodes can double-book
+ * each other's slots, and existing double-bookings are listed so they can be resolved.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingConstraintInitializer implements ApplicationRunner {
+
+    private static final String ACTIVE_SLOT_INDEX_SQL =
+            "CREATE UNIQUE INDEX IF NOT EXISTS uk_appointment_active_slot " +
+            "ON appointments (doctor_id, appointment_date, time_slot) " +
+            "WHERE status <> 'CANCELLED'";
+
+    private static final String DOUBLE_BOOKINGS_SQL =
+            "SELECT doctor_id, appointment_date, time_slot, COUNT(*) AS bookings FROM appointments " +
+            "WHERE status <> 'CANCELLED' GROUP BY doctor_id, appointment_date, time_slot " +
+            "HAVING COUNT(*) > 1 ORDER BY appointment_date, doctor_id, time_slot LIMIT 20";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String product;
+        try {
+            product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Could not determine the database for the active slot unique index", e);
+        }
+        if (!"PostgreSQL".equalsIgnoreCase(product)) {
+            log.info("Skipping active slot unique index on {} (partial indexes unsupported)", product);
+            return;
+        }
+        try {
+            jdbcTemplate.execute(ACTIVE_SLOT_INDEX_SQL);
+            log.info("Active appointment slot unique index is in place");
+        } catch (DataAccessException e) {
+            List<String> conflicts = jdbcTemplate.query(DOUBLE_BOOKINGS_SQL, (rs, rowNum) ->
+                    "doctor " + rs.getLong("doctor_id") + " on " + rs.getDate("appointment_date") +
+                    " at " + rs.getTime("time_slot") + " (" + rs.getInt("bookings") + " bookings)");
+            log.error("Could not create active slot unique index; active double-bookings: {}", conflicts);
+            throw new IllegalStateException("Active slot unique index could not be created" +
+                    (conflicts.isEmpty() ? "" : "; cancel or move these double-bookings first: " + conflicts), e);
+        }
+    }
+}
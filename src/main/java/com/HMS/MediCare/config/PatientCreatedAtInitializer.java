@@ -0,0 +1,52 @@
+package com.HMS.MediCare.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Backfills patients.created_at and makes it NOT NULL.
+ * Keyset paging seeks on (created_at, id), so rows without a creation time would be skipped.
+ * Hibernate schema update never tightens an existing column, so this runs after it.
+ * Legacy rows get the epoch and sort after every dated patient.
+ * Once the column is NOT NULL there is nothing to do, so later startups only read the catalog.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PatientCreatedAtInitializer implements ApplicationRunner {
+
+    private static final String IS_NULLABLE_SQL =
+            "SELECT is_nullable FROM information_schema.columns WHERE LOWER(table_schema) = LOWER(CURRENT_SCHEMA) " +
+            "AND LOWER(table_name) = 'patients' AND LOWER(column_name) = 'created_at'";
+    private static final String BACKFILL_SQL =
+            "UPDATE patients SET created_at = TIMESTAMP '1970-01-01 00:00:00' WHERE created_at IS NULL";
+    private static final String NOT_NULL_SQL =
+            "ALTER TABLE patients ALTER COLUMN created_at SET NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            List<String> nullable = jdbcTemplate.queryForList(IS_NULLABLE_SQL, String.class);
+            if (nullable.isEmpty() || !"YES".equalsIgnoreCase(nullable.get(0))) {
+                return;
+            }
+            int backfilled = jdbcTemplate.update(BACKFILL_SQL);
+            if (backfilled > 0) {
+                log.info("Backfilled created_at for {} patients", backfilled);
+            }
+            jdbcTemplate.execute(NOT_NULL_SQL);
+            log.info("patients.created_at is now NOT NULL");
+        } catch (DataAccessException e) {
+            log.warn("Could not make patients.created_at NOT NULL: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.HMS.MediCare.config;
+
+import com.HMS.MediCare.service.RollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds the metric rollups from existing appointments and payments on first start.
+ * After that they are maintained incrementally by the services.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RollupInitializer implements ApplicationRunner {
+
+    private final RollupService rollupService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            rollupService.rebuildIfEmpty();
+        } catch (DataAccessException e) {
+            log.warn("Could not seed metric rollups: {}", e.getMessage());
+        }
+    }
+}
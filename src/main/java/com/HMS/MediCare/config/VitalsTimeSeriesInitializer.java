@@ -0,0 +1,31 @@
+package com.HMS.MediCare.config;
+
+import com.HMS.MediCare.service.VitalsTimeSeriesService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds the vitals time series from existing patient_vitals rows until the backfill
+ * has completed once; an interrupted backfill resumes on the next start.
+ * After that readings are appended by the services that record them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VitalsTimeSeriesInitializer implements ApplicationRunner {
+
+    private final VitalsTimeSeriesService timeSeriesService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            timeSeriesService.backfillIfIncomplete();
+        } catch (DataAccessException | IllegalStateException e) {
+            log.warn("Could not seed vitals time series: {}", e.getMessage());
+        }
+    }
+}
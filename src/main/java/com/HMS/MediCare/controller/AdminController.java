@@ -2,9 +2,14 @@ package com.HMS.MediCare.controller;
 
 import com.HMS.MediCare.dto.request.LoginRequest;
 import com.HMS.MediCare.dto.response.*;
+import com.HMS.MediCare.enums.ExportFormat;
+import com.HMS.MediCare.enums.RevenueGranularity;
 import com.HMS.MediCare.service.AppointmentService;
 import com.HMS.MediCare.service.DashboardService;
+import com.HMS.MediCare.service.ExportService;
 import com.HMS.MediCare.service.PatientService;
+import com.HMS.MediCare.service.RollupService;
+import com.HMS.MediCare.service.VitalsTimeSeriesService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -14,9 +19,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -31,6 +39,9 @@ public class AdminController {
     private final DashboardService dashboardService;
     private final PatientService patientService;
     private final AppointmentService appointmentService;
+    private final ExportService exportService;
+    private final RollupService rollupService;
+    private final VitalsTimeSeriesService vitalsTimeSeriesService;
 
     @Value("${ADMIN_EMAIL:admin@medicare.com}")
     private String adminEmail;
@@ -80,8 +91,24 @@ public class AdminController {
     @Operation(summary = "Get revenue report")
     public ResponseEntity<ApiResponse<RevenueReportResponse>> getRevenueReport(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        RevenueReportResponse response = dashboardService.getRevenueReport(startDate, endDate);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "DAY") RevenueGranularity granularity) {
+        RevenueReportResponse response = dashboardService.getRevenueReport(startDate, endDate, granularity);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @PostMapping("/rollups/rebuild")
+    @Operation(summary = "Rebuild dashboard rollups from raw data and report drift")
+    public ResponseEntity<ApiResponse<RollupRebuildResponse>> rebuildRollups() {
+        RollupRebuildResponse response = rollupService.rebuild();
+        dashboardService.evictDashboardStats();
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @PostMapping("/vitals/{patientId}/rollups/rebuild")
+    @Operation(summary = "Rebuild a patient's vitals rollups from their readings and report drift")
+    public ResponseEntity<ApiResponse<RollupRebuildResponse>> rebuildVitalsRollups(@PathVariable Long patientId) {
+        RollupRebuildResponse response = vitalsTimeSeriesService.rebuildRollups(patientId);
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
@@ -102,6 +129,22 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/patients/cursor")
+    @Operation(summary = "Get all patients (keyset pagination, no total count)")
+    public ResponseEntity<ApiResponse<CursorPage<PatientResponse>>> getAllPatientsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<PatientResponse> response = patientService.getAllPatientsByCursor(cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping("/patients/export")
+    @Operation(summary = "Export all patients as NDJSON or CSV (streamed)")
+    public ResponseEntity<StreamingResponseBody> exportPatients(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return exportResponse("patients", format, out -> exportService.exportPatients(format, out));
+    }
+
     @GetMapping("/appointments")
     @Operation(summary = "Get all appointments")
     public ResponseEntity<ApiResponse<List<AppointmentResponse>>> getAllAppointments() {
@@ -119,6 +162,22 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/appointments/cursor")
+    @Operation(summary = "Get all appointments (keyset pagination, no total count)")
+    public ResponseEntity<ApiResponse<CursorPage<AppointmentResponse>>> getAllAppointmentsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<AppointmentResponse> response = appointmentService.getAllAppointmentsByCursor(cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping("/appointments/export")
+    @Operation(summary = "Export all appointments as NDJSON or CSV (streamed)")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return exportResponse("appointments", format, out -> exportService.exportAppointments(format, out));
+    }
+
     @GetMapping("/patients/quick-search")
     @Operation(summary = "Quick search patients for auto-suggestions")
     public ResponseEntity<ApiResponse<List<PatientResponse>>> quickSearchPatients(
@@ -169,5 +228,15 @@ public class AdminController {
                 searchRequest, PageRequest.of(page, size, sort));
         return ResponseEntity.ok(ApiResponse.success(response));
     }
-}
 
+    // Rows are written to the response as they are read; nothing is buffered in a List
+    private ResponseEntity<StreamingResponseBody> exportResponse(String name, ExportFormat format,
+                                                                 StreamingResponseBody body) {
+        boolean csv = format == ExportFormat.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + (csv ? ".csv" : ".ndjson") + "\"")
+                .body(body);
+    }
+}
@@ -1,8 +1,14 @@
 package com.HMS.MediCare.controller;
 
 import com.HMS.MediCare.dto.ApiResponse;
+import com.HMS.MediCare.dto.response.AuditVerificationProgress;
+import com.HMS.MediCare.dto.response.AuditVerificationResponse;
+import com.HMS.MediCare.dto.response.CursorPage;
+import com.HMS.MediCare.entity.AuditArchiveSegment;
 import com.HMS.MediCare.entity.AuditLog;
 import com.HMS.MediCare.enums.AuditAction;
+import com.HMS.MediCare.service.AuditArchiveService;
+import com.HMS.MediCare.service.AuditChainVerifier;
 import com.HMS.MediCare.service.AuditLogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -32,6 +38,8 @@ import java.util.Map;
 public class AuditLogController {
 
     private final AuditLogService auditLogService;
+    private final AuditChainVerifier auditChainVerifier;
+    private final AuditArchiveService auditArchiveService;
 
     @GetMapping
     @Operation(summary = "Search audit logs", description = "Query audit logs with optional filters")
@@ -49,6 +57,16 @@ public class AuditLogController {
         return ResponseEntity.ok(ApiResponse.success("Audit logs retrieved", logs));
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "List audit logs by cursor", description = "Keyset pagination, newest first, without a total count")
+    public ResponseEntity<ApiResponse<CursorPage<AuditLog>>> getAuditLogsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        CursorPage<AuditLog> logs = auditLogService.getAuditLogsByCursor(cursor, size);
+        return ResponseEntity.ok(ApiResponse.success("Audit logs retrieved", logs));
+    }
+
     @GetMapping("/entity/{entityType}/{entityId}")
     @Operation(summary = "Get entity audit trail", description = "Get complete audit history for a specific entity")
     public ResponseEntity<ApiResponse<List<AuditLog>>> getEntityAuditTrail(
@@ -60,14 +78,19 @@ public class AuditLogController {
     }
 
     @GetMapping("/verify")
-    @Operation(summary = "Verify hash chain", description = "Verify integrity of audit log hash chain for tamper detection")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> verifyHashChain() {
-        boolean isValid = auditLogService.verifyHashChain();
+    @Operation(summary = "Verify hash chain", description = "Verify integrity of audit log hash chain for tamper detection. " +
+            "Resumes from the last signed checkpoint unless full=true")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> verifyHashChain(
+            @RequestParam(defaultValue = "false") boolean full
+    ) {
+        AuditVerificationResponse verification = auditChainVerifier.verify(full);
+        boolean isValid = verification.isValid();
         
         Map<String, Object> result = new HashMap<>();
         result.put("chainValid", isValid);
-        result.put("verifiedAt", LocalDateTime.now());
+        result.put("verifiedAt", verification.getVerifiedAt());
         result.put("status", isValid ? "INTACT" : "TAMPERED");
+        result.put("details", verification);
         
         String message = isValid 
                 ? "Audit log hash chain integrity verified. No tampering detected."
@@ -76,6 +99,39 @@ public class AuditLogController {
         return ResponseEntity.ok(ApiResponse.success(message, result));
     }
 
+    @GetMapping("/verify/progress")
+    @Operation(summary = "Hash chain verification progress", description = "Progress of the running (or last) verification")
+    public ResponseEntity<ApiResponse<AuditVerificationProgress>> getVerificationProgress() {
+        return ResponseEntity.ok(ApiResponse.success("Verification progress", auditChainVerifier.getProgress()));
+    }
+
+    @GetMapping("/archive")
+    @Operation(summary = "List archive segments", description = "Compressed segment files holding months moved out of the hot table")
+    public ResponseEntity<ApiResponse<List<AuditArchiveSegment>>> getArchiveSegments() {
+        return ResponseEntity.ok(ApiResponse.success("Archive segments retrieved", auditArchiveService.getSegments()));
+    }
+
+    @PostMapping("/archive/run")
+    @Operation(summary = "Archive cold months", description = "Move months older than the hot window into segment files now")
+    public ResponseEntity<ApiResponse<List<AuditArchiveSegment>>> archiveColdMonths() {
+        List<AuditArchiveSegment> created = auditArchiveService.archiveColdMonths();
+        return ResponseEntity.ok(ApiResponse.success(created.size() + " segment(s) archived", created));
+    }
+
+    @GetMapping("/archive/search")
+    @Operation(summary = "Search archived audit logs", description = "Scan archived segments overlapping the date range, newest first")
+    public ResponseEntity<ApiResponse<List<AuditLog>>> searchArchive(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) AuditAction action,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        List<AuditLog> logs = auditArchiveService.searchArchive(startDate, endDate, userId, entityType, action, limit);
+        return ResponseEntity.ok(ApiResponse.success("Archived audit logs retrieved", logs));
+    }
+
     @GetMapping("/actions")
     @Operation(summary = "Get audit action types", description = "List all available audit action types")
     public ResponseEntity<ApiResponse<AuditAction[]>> getAuditActions() {
@@ -9,6 +9,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -52,10 +53,13 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    @Operation(summary = "Logout", description = "Invalidate current session (client should discard tokens)")
-    public ResponseEntity<ApiResponse<String>> logout() {
-        // With stateless JWT, logout is handled client-side by discarding tokens
-        // For a more robust solution, implement a token blacklist with Redis
+    @Operation(summary = "Logout", description = "Revoke the bearer access token and the optional refresh token in the body")
+    public ResponseEntity<ApiResponse<String>> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) RefreshTokenRequest request) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7) : null;
+        authService.logout(accessToken, request != null ? request.getRefreshToken() : null);
         return ResponseEntity.ok(ApiResponse.success("Logged out successfully", null));
     }
 }
@@ -116,6 +116,18 @@ public class DoctorController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/slots")
+    @Operation(summary = "Get slot availability for many doctors over a date range")
+    public ResponseEntity<ApiResponse<AvailabilityMatrixResponse>> getAvailabilityMatrix(
+            @RequestParam(required = false) List<Long> doctorIds,
+            @RequestParam(required = false) String specialization,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        AvailabilityMatrixResponse response = doctorService.getAvailabilityMatrix(
+                doctorIds, specialization, startDate, endDate);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     // Doctor appointments
     @GetMapping("/{doctorId}/appointments")
     @Operation(summary = "Get doctor appointments")
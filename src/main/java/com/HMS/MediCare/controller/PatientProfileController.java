@@ -3,20 +3,24 @@ package com.HMS.MediCare.controller;
 import com.HMS.MediCare.dto.request.PatientMedicalHistoryRequest;
 import com.HMS.MediCare.dto.request.PatientVitalsRequest;
 import com.HMS.MediCare.dto.response.*;
+import com.HMS.MediCare.enums.VitalType;
 import com.HMS.MediCare.service.AppointmentService;
 import com.HMS.MediCare.service.PatientMedicalHistoryService;
 import com.HMS.MediCare.service.PatientService;
 import com.HMS.MediCare.service.PatientVitalsService;
+import com.HMS.MediCare.service.VitalsTimeSeriesService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -30,6 +34,7 @@ public class PatientProfileController {
     private final PatientVitalsService vitalsService;
     private final PatientMedicalHistoryService historyService;
     private final AppointmentService appointmentService;
+    private final VitalsTimeSeriesService vitalsTimeSeriesService;
 
     // ==================== PATIENT PROFILE ====================
 
@@ -103,6 +108,22 @@ public class PatientProfileController {
         return ResponseEntity.ok(ApiResponse.success(vitals));
     }
 
+    @GetMapping("/vitals/trend")
+    @Operation(summary = "Get a vital sign trend downsampled for charting",
+            description = "At most `points` readings of one vital type in [from, to], picked with " +
+                    "Largest-Triangle-Three-Buckets; defaults to the last 30 days")
+    public ResponseEntity<ApiResponse<VitalsSeriesResponse>> getVitalsTrend(
+            @PathVariable Long patientId,
+            @RequestParam VitalType vitalType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "500") int points) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+        VitalsSeriesResponse trend = vitalsTimeSeriesService.getTrend(patientId, vitalType, start, end, points);
+        return ResponseEntity.ok(ApiResponse.success(trend));
+    }
+
     @PostMapping("/vitals")
     @Operation(summary = "Record new vitals")
     public ResponseEntity<ApiResponse<PatientVitalsResponse>> recordVitals(
@@ -1,25 +1,36 @@
 package com.HMS.MediCare.controller;
 
 import com.HMS.MediCare.dto.ApiResponse;
+import com.HMS.MediCare.dto.response.VitalsIngestResponse;
+import com.HMS.MediCare.dto.response.VitalsSeriesResponse;
 import com.HMS.MediCare.entity.VitalsAlert;
 import com.HMS.MediCare.entity.VitalsThreshold;
 import com.HMS.MediCare.enums.AlertSeverity;
 import com.HMS.MediCare.enums.VitalType;
 import com.HMS.MediCare.service.HealthInsightsService;
+import com.HMS.MediCare.service.VitalsAlertBus;
+import com.HMS.MediCare.service.VitalsIngestionService;
 import com.HMS.MediCare.service.VitalsMonitoringService;
+import com.HMS.MediCare.service.VitalsTimeSeriesService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Remote Patient Monitoring Controller
@@ -33,6 +44,9 @@ public class VitalsController {
 
     private final VitalsMonitoringService vitalsMonitoringService;
     private final HealthInsightsService healthInsightsService;
+    private final VitalsIngestionService vitalsIngestionService;
+    private final VitalsTimeSeriesService vitalsTimeSeriesService;
+    private final VitalsAlertBus vitalsAlertBus;
 
     @PostMapping("/record")
     @Operation(summary = "Record vital reading", description = "Record a vital sign and check for threshold violations")
@@ -79,6 +93,45 @@ public class VitalsController {
         return ResponseEntity.ok(ApiResponse.success("Vitals recorded", results));
     }
 
+    @PostMapping(value = "/ingest", consumes = {"application/x-ndjson", MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Bulk ingest device readings (JSON)",
+            description = "Newline-delimited JSON or an array of {patientId, vitalType, value, timestamp}; " +
+                    "stored in batches with threshold alerts")
+    public ResponseEntity<ApiResponse<VitalsIngestResponse>> ingestJson(
+            InputStream body,
+            @RequestParam(defaultValue = "device") String source
+    ) {
+        VitalsIngestResponse response = vitalsIngestionService.ingestJsonLines(body, source);
+        return ResponseEntity.ok(ApiResponse.success("Readings ingested", response));
+    }
+
+    @PostMapping(value = "/ingest", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Bulk ingest device readings (binary)",
+            description = "\"MCV1\" header, then 25-byte big-endian records: " +
+                    "patientId (long), vitalType ordinal (byte), value (double), epoch millis (long)")
+    public ResponseEntity<ApiResponse<VitalsIngestResponse>> ingestBinary(
+            InputStream body,
+            @RequestParam(defaultValue = "device") String source
+    ) {
+        VitalsIngestResponse response = vitalsIngestionService.ingestBinary(body, source);
+        return ResponseEntity.ok(ApiResponse.success("Readings ingested", response));
+    }
+
+    @GetMapping("/timeseries/{patientId}")
+    @Operation(summary = "Get vitals trend",
+            description = "One vital type over a time range: raw readings when there are at most maxPoints " +
+                    "(1 to 10000, larger values are capped), otherwise minute, hour or day min/max/avg buckets")
+    public ResponseEntity<ApiResponse<VitalsSeriesResponse>> getTimeSeries(
+            @PathVariable Long patientId,
+            @RequestParam VitalType vitalType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "500") int maxPoints
+    ) {
+        VitalsSeriesResponse series = vitalsTimeSeriesService.getSeries(patientId, vitalType, from, to, maxPoints);
+        return ResponseEntity.ok(ApiResponse.success("Vitals series retrieved", series));
+    }
+
     @PostMapping("/threshold")
     @Operation(summary = "Set vital threshold", description = "Set custom threshold for a patient's vital type")
     public ResponseEntity<ApiResponse<VitalsThreshold>> setThreshold(
@@ -132,6 +185,20 @@ public class VitalsController {
         return ResponseEntity.ok(ApiResponse.success("Critical alerts retrieved", alerts));
     }
 
+    @GetMapping(value = "/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream new alerts",
+            description = "Server-Sent Events: an \"alert\" event per new alert matching every given filter. " +
+                    "Reconnect with Last-Event-ID to resume; a \"resync\" event means alerts were missed " +
+                    "and unacknowledged alerts should be reloaded")
+    public SseEmitter streamAlerts(
+            @RequestParam(required = false) Set<AlertSeverity> severity,
+            @RequestParam(required = false) Long patientId,
+            @RequestParam(required = false) Long doctorId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        return vitalsAlertBus.subscribe(severity, patientId, doctorId, lastEventId);
+    }
+
     @GetMapping("/alerts/summary")
     @Operation(summary = "Get alerts summary", description = "Count unacknowledged alerts by severity")
     public ResponseEntity<ApiResponse<Map<String, Long>>> getAlertsSummary() {
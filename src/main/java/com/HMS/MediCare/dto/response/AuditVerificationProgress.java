@@ -0,0 +1,18 @@
+package com.HMS.MediCare.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditVerificationProgress {
+    private boolean running;
+    private long entriesChecked;
+    private Long lastCheckedId;
+    private Long targetId;
+    private double percentComplete;
+    private LocalDateTime startedAt;
+}
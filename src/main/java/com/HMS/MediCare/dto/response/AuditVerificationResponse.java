@@ -0,0 +1,25 @@
+package com.HMS.MediCare.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditVerificationResponse {
+    private boolean valid;
+    private boolean resumedFromCheckpoint;
+    private long entriesChecked;
+    // Entries covered by the chain so far, including those verified in earlier runs
+    private long totalVerified;
+    // Archived segments re-verified in this run (full runs only)
+    private int segmentsVerified;
+    private Long firstCheckedId;
+    private Long lastCheckedId;
+    private Long brokenAtId;
+    private String failureReason;
+    private long durationMs;
+    private LocalDateTime verifiedAt;
+}
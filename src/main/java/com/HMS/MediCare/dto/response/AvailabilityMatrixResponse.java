@@ -0,0 +1,36 @@
+package com.HMS.MediCare.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Slot availability for many doctors over a date range.
+ * Each doctor carries one bitmask per day (index 0 = startDate):
+ * bit i is set when availableFrom + i * slotMinutes is free.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilityMatrixResponse {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int slotMinutes;
+    private List<DoctorAvailability> doctors;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class DoctorAvailability {
+        private Long doctorId;
+        private String doctorName;
+        private String specialization;
+        private LocalTime availableFrom;
+        private LocalTime availableTo;
+        private long[] freeSlotMasks;
+    }
+}
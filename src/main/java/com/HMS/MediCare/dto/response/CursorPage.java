@@ -0,0 +1,87 @@
+package com.HMS.MediCare.dto.response;
+
+import com.HMS.MediCare.exception.BadRequestException;
+import lombok.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset (seek) page: no total count, just an opaque token for the next page.
+ * Tokens encode the (sortKey, id) of the last row returned.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPage<T> {
+
+    public static final int MAX_SIZE = 100;
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    /**
+     * Build a page from rows fetched with limit size + 1; the extra row only signals hasNext
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, Cursor> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        return CursorPage.<T>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? cursorOf.apply(content.get(size - 1)).encode() : null)
+                .build();
+    }
+
+    public static void validateSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_SIZE);
+        }
+    }
+
+    /**
+     * Position of the last row seen: its sort key (ISO text) and id
+     */
+    public record Cursor(String sortKey, Long id) {
+
+        public String encode() {
+            String raw = sortKey + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public LocalDate sortKeyAsDate() {
+            try {
+                return LocalDate.parse(sortKey);
+            } catch (DateTimeParseException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+
+        public LocalDateTime sortKeyAsDateTime() {
+            try {
+                return LocalDateTime.parse(sortKey);
+            } catch (DateTimeParseException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+
+        public static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new Cursor(raw.substring(0, separator), Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.HMS.MediCare.dto.response;
 
+import com.HMS.MediCare.enums.RevenueGranularity;
 import lombok.*;
 
 import java.math.BigDecimal;
@@ -13,6 +14,7 @@ import java.util.List;
 public class RevenueReportResponse {
     private LocalDate startDate;
     private LocalDate endDate;
+    private RevenueGranularity granularity;
     private BigDecimal totalRevenue;
     private long totalTransactions;
     private List<DailyRevenue> dailyRevenue;
@@ -22,6 +24,7 @@ public class RevenueReportResponse {
     @AllArgsConstructor
     @Builder
     public static class DailyRevenue {
+        // First day of the bucket (day, week starting Monday, or month)
         private LocalDate date;
         private BigDecimal revenue;
         private long transactionCount;
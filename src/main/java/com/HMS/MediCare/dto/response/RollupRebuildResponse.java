@@ -0,0 +1,18 @@
+package com.HMS.MediCare.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RollupRebuildResponse {
+    private LocalDateTime rebuiltAt;
+    private int rowsWritten;
+    private int driftCount;
+    // Up to the first 100 drifted keys, e.g. "APPOINTMENTS 2025-03-03 doctor=4 PENDING: expected 3/0, was 2/0"
+    private List<String> drift;
+}
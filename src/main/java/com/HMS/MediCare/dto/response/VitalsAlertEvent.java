@@ -0,0 +1,28 @@
+package com.HMS.MediCare.dto.response;
+
+import com.HMS.MediCare.enums.AlertSeverity;
+import com.HMS.MediCare.enums.VitalType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A vitals alert as pushed to /api/vitals/alerts/stream subscribers
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VitalsAlertEvent {
+    // SSE event id, assigned by the bus; send it back as Last-Event-ID to resume
+    private String eventId;
+    private Long alertId;
+    private Long patientId;
+    private VitalType vitalType;
+    private AlertSeverity severity;
+    private Double recordedValue;
+    private Double thresholdMin;
+    private Double thresholdMax;
+    private String message;
+    private LocalDateTime createdAt;
+}
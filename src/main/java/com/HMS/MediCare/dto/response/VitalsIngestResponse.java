@@ -0,0 +1,22 @@
+package com.HMS.MediCare.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VitalsIngestResponse {
+    private long received;
+    private long accepted;
+    private long rejected;
+    // patient_vitals rows: readings for the same patient and timestamp share a row
+    private long rowsWritten;
+    private long alertsGenerated;
+    private int batches;
+    private long elapsedMillis;
+    // Up to the first 50 rejections, e.g. "record 17: unknown patient 999"
+    private List<String> errors;
+}
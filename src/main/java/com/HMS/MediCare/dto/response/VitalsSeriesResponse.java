@@ -0,0 +1,31 @@
+package com.HMS.MediCare.dto.response;
+
+import com.HMS.MediCare.enums.VitalType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One vital type over a time range as parallel arrays, one entry per point
+ * RAW: each reading, min/max/counts are null. MINUTE/HOUR/DAY: one bucket per
+ * entry, timestamps are bucket starts and values the bucket averages.
+ * Trends set downsampled when LTTB dropped points; min/max/counts are then null.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VitalsSeriesResponse {
+    private Long patientId;
+    private VitalType vitalType;
+    private String resolution;
+    private boolean downsampled;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    // Epoch millis
+    private long[] timestamps;
+    private double[] values;
+    private double[] min;
+    private double[] max;
+    private long[] counts;
+}
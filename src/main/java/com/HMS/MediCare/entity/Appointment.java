@@ -12,7 +12,9 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+    @Index(name = "idx_appointment_date_id", columnList = "appointmentDate, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
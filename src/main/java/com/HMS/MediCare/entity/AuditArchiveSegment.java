@@ -0,0 +1,73 @@
+package com.HMS.MediCare.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A contiguous, id-ordered run of audit entries moved out of audit_logs into
+ * a compressed columnar segment file (one per month)
+ * - anchorPreviousHash / lastHash tie the segment into the hash chain
+ * - fileSha256 detects any change to the file itself
+ * - signature (HMAC of the fields above) catches a rewritten file whose catalog
+ *   row was edited to match
+ */
+@Entity
+@Table(name = "audit_archive_segments", indexes = {
+    @Index(name = "idx_archive_segment_range", columnList = "firstTimestamp, lastTimestamp")
+})
+@Immutable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class AuditArchiveSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // yyyy-MM of the entries in this segment
+    @Column(nullable = false, length = 7)
+    private String month;
+
+    @Column(nullable = false, unique = true)
+    private Long firstId;
+
+    @Column(nullable = false)
+    private Long lastId;
+
+    @Column(nullable = false)
+    private long entryCount;
+
+    @Column(nullable = false)
+    private LocalDateTime firstTimestamp;
+
+    @Column(nullable = false)
+    private LocalDateTime lastTimestamp;
+
+    // previousHash of the first entry: lastHash of the segment before, or GENESIS
+    @Column(nullable = false, length = 64)
+    private String anchorPreviousHash;
+
+    @Column(nullable = false, length = 64)
+    private String lastHash;
+
+    @Column(nullable = false, length = 100)
+    private String fileName;
+
+    @Column(nullable = false, length = 64)
+    private String fileSha256;
+
+    @Column(nullable = false)
+    private long fileSizeBytes;
+
+    // Null only for segments archived before catalog entries were signed; those fail verification
+    @Column(length = 64)
+    private String signature;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
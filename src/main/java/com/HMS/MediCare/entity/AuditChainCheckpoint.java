@@ -0,0 +1,41 @@
+package com.HMS.MediCare.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Signed record of a successful audit hash-chain verification
+ * Later verifications resume after lastVerifiedId instead of re-reading the whole chain.
+ * The HMAC signature covers every field, so an edited checkpoint is rejected.
+ */
+@Entity
+@Table(name = "audit_chain_checkpoints")
+@Immutable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditChainCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long lastVerifiedId;
+
+    @Column(nullable = false, length = 64)
+    private String lastHash;
+
+    @Column(nullable = false)
+    private long entriesVerified;
+
+    @Column(nullable = false)
+    private LocalDateTime verifiedAt;
+
+    @Column(nullable = false, length = 64)
+    private String signature;
+}
@@ -0,0 +1,32 @@
+package com.HMS.MediCare.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single-row fence for the audit hash chain (id is always 1)
+ * Audit writers on every node lock this row before appending a batch,
+ * so the chain stays linear no matter how many nodes write.
+ */
+@Entity
+@Table(name = "audit_chain_head")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditChainHead {
+
+    public static final long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String lastHash;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
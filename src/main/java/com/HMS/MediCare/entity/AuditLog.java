@@ -16,9 +16,12 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "audit_logs", indexes = {
     @Index(name = "idx_audit_timestamp", columnList = "timestamp"),
-    @Index(name = "idx_audit_user", columnList = "userId"),
+    @Index(name = "idx_audit_timestamp_id", columnList = "timestamp, id"),
     @Index(name = "idx_audit_entity", columnList = "entityType, entityId"),
-    @Index(name = "idx_audit_action", columnList = "action")
+    // Search filters by one of these plus a date range, newest first
+    @Index(name = "idx_audit_user_timestamp", columnList = "userId, timestamp"),
+    @Index(name = "idx_audit_entity_type_timestamp", columnList = "entityType, timestamp"),
+    @Index(name = "idx_audit_action_timestamp", columnList = "action, timestamp")
 })
 @Immutable // Hibernate will prevent any updates
 @Getter
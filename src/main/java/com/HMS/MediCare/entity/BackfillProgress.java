@@ -0,0 +1,30 @@
+package com.HMS.MediCare.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a one-off data backfill, shared by every node (one row per backfill)
+ * lastKey is the last unit of work committed (e.g. a patient id); completedAt
+ * is set once the backfill has covered everything and never needs to run again.
+ */
+@Entity
+@Table(name = "backfill_progress")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BackfillProgress {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private Long lastKey;
+
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,33 @@
+package com.HMS.MediCare.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Named lease shared by every node (one row per lock name)
+ * A node holds the lock while lockedUntil is in the future and lockedBy is its
+ * own token; a node that dies loses it when the lease runs out.
+ */
+@Entity
+@Table(name = "cluster_locks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClusterLock {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDateTime lockedUntil;
+
+    @Column(length = 100)
+    private String lockedBy;
+
+    private LocalDateTime lockedAt;
+}
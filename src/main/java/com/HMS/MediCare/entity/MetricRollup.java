@@ -0,0 +1,52 @@
+package com.HMS.MediCare.entity;
+
+import com.HMS.MediCare.enums.RollupMetric;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated counters per (metric, day, doctor, status)
+ * Appointments are bucketed by appointment date, payments by paid date
+ * (or creation date while unpaid). Maintained by RollupService.
+ */
+@Entity
+@Table(name = "metric_rollups", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"metric", "bucket_date", "doctor_id", "status"})
+}, indexes = {
+    @Index(name = "idx_rollup_metric_date", columnList = "metric, bucket_date")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MetricRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RollupMetric metric;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    // AppointmentStatus or PaymentStatus name, depending on the metric
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "item_count", nullable = false)
+    private long count;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal amount = BigDecimal.ZERO;
+}
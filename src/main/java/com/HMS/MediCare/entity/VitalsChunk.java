@@ -0,0 +1,52 @@
+package com.HMS.MediCare.entity;
+
+import com.HMS.MediCare.enums.VitalType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Append-only block of one patient's readings for one vital type
+ * data holds delta-encoded timestamps and values (see VitalsChunkCodec);
+ * small chunks written per ingestion batch are merged by compaction.
+ */
+@Entity
+@Table(name = "vitals_chunks", indexes = {
+    @Index(name = "idx_vitals_chunk_series", columnList = "patient_id, vital_type, last_recorded_at")
+})
+@Immutable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VitalsChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "vital_type", nullable = false, length = 30)
+    private VitalType vitalType;
+
+    @Column(name = "first_recorded_at", nullable = false)
+    private LocalDateTime firstRecordedAt;
+
+    @Column(name = "last_recorded_at", nullable = false)
+    private LocalDateTime lastRecordedAt;
+
+    @Column(name = "point_count", nullable = false)
+    private int pointCount;
+
+    // bytea on PostgreSQL
+    @JdbcTypeCode(SqlTypes.VARBINARY)
+    @Column(nullable = false, length = 1_048_576)
+    private byte[] data;
+}
@@ -0,0 +1,55 @@
+package com.HMS.MediCare.entity;
+
+import com.HMS.MediCare.enums.VitalType;
+import com.HMS.MediCare.enums.VitalsResolution;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Min/max/sum/count of one patient's vital type per minute, hour or day
+ * Buckets start on local minute, hour and midnight boundaries.
+ * Maintained with the readings by VitalsTimeSeriesService.
+ */
+@Entity
+@Table(name = "vitals_rollups", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"patient_id", "vital_type", "resolution", "bucket_start"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VitalsRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "vital_type", nullable = false, length = 30)
+    private VitalType vitalType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private VitalsResolution resolution;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "sample_count", nullable = false)
+    private long sampleCount;
+
+    @Column(name = "min_value", nullable = false)
+    private double minValue;
+
+    @Column(name = "max_value", nullable = false)
+    private double maxValue;
+
+    @Column(name = "sum_value", nullable = false)
+    private double sumValue;
+}
@@ -0,0 +1,11 @@
+package com.HMS.MediCare.enums;
+
+/**
+ * How an audited call is recorded
+ */
+public enum AuditMode {
+    ALWAYS,     // one audit row per call
+    SAMPLED,    // a random fraction of calls (audit.policy.sample-rate)
+    COALESCED,  // one row per user, entity, method and window, with a count
+    OFF
+}
@@ -0,0 +1,6 @@
+package com.HMS.MediCare.enums;
+
+public enum ExportFormat {
+    NDJSON,
+    CSV
+}
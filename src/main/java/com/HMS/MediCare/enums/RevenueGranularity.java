@@ -0,0 +1,7 @@
+package com.HMS.MediCare.enums;
+
+public enum RevenueGranularity {
+    DAY,
+    WEEK,
+    MONTH
+}
@@ -0,0 +1,6 @@
+package com.HMS.MediCare.enums;
+
+public enum RollupMetric {
+    APPOINTMENTS,
+    PAYMENTS
+}
@@ -0,0 +1,22 @@
+package com.HMS.MediCare.enums;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bucket sizes of the vitals rollups, finest first
+ */
+public enum VitalsResolution {
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    VitalsResolution(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+}
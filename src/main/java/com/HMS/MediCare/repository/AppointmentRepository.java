@@ -1,20 +1,73 @@
 package com.HMS.MediCare.repository;
 
+import com.HMS.MediCare.dto.response.AppointmentResponse;
 import com.HMS.MediCare.entity.Appointment;
 import com.HMS.MediCare.enums.AppointmentStatus;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+
+    // Read paths that project straight into AppointmentResponse in a single joined query
+    String RESPONSE_PROJECTION = "SELECT new com.HMS.MediCare.dto.response.AppointmentResponse(" +
+            "a.id, p.id, p.name, d.id, d.name, d.specialization, a.appointmentDate, a.timeSlot, " +
+            "a.status, a.symptoms, a.isTelehealth, a.telehealthRoomName, a.createdAt) " +
+            "FROM Appointment a JOIN a.patient p JOIN a.doctor d";
+
+    @Query(RESPONSE_PROJECTION + " WHERE a.id = :id")
+    Optional<AppointmentResponse> findResponseById(@Param("id") Long id);
+
+    @Query(RESPONSE_PROJECTION)
+    List<AppointmentResponse> findAllResponses();
+
+    @Query(value = RESPONSE_PROJECTION, countQuery = "SELECT COUNT(a) FROM Appointment a")
+    Page<AppointmentResponse> findAllResponses(Pageable pageable);
+
+    // Keyset pagination on (appointmentDate, id), backed by idx_appointment_date_id
+    @Query(RESPONSE_PROJECTION + " ORDER BY a.appointmentDate DESC, a.id DESC")
+    List<AppointmentResponse> findResponsesLatestFirst(Pageable limit);
+
+    @Query(RESPONSE_PROJECTION + " WHERE a.appointmentDate < :date OR (a.appointmentDate = :date AND a.id < :id) " +
+           "ORDER BY a.appointmentDate DESC, a.id DESC")
+    List<AppointmentResponse> findResponsesLatestFirstBefore(
+            @Param("date") LocalDate date,
+            @Param("id") Long id,
+            Pageable limit);
+
+    // Forward-only cursor for exports; projection rows never enter the persistence context
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(RESPONSE_PROJECTION + " ORDER BY a.id")
+    Stream<AppointmentResponse> streamAllResponses();
+
+    @Query(RESPONSE_PROJECTION + " WHERE p.id = :patientId")
+    List<AppointmentResponse> findResponsesByPatientId(@Param("patientId") Long patientId);
+
+    @Query(value = RESPONSE_PROJECTION + " WHERE p.id = :patientId",
+           countQuery = "SELECT COUNT(a) FROM Appointment a WHERE a.patient.id = :patientId")
+    Page<AppointmentResponse> findResponsesByPatientId(@Param("patientId") Long patientId, Pageable pageable);
+
+    @Query(RESPONSE_PROJECTION + " WHERE d.id = :doctorId")
+    List<AppointmentResponse> findResponsesByDoctorId(@Param("doctorId") Long doctorId);
+
+    @Query(value = RESPONSE_PROJECTION + " WHERE d.id = :doctorId",
+           countQuery = "SELECT COUNT(a) FROM Appointment a WHERE a.doctor.id = :doctorId")
+    Page<AppointmentResponse> findResponsesByDoctorId(@Param("doctorId") Long doctorId, Pageable pageable);
     
     List<Appointment> findByPatientId(Long patientId);
     
@@ -33,6 +86,19 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
             @Param("timeSlot") LocalTime timeSlot
     );
     
+    @Query("SELECT a.timeSlot FROM Appointment a WHERE a.doctor.id = :doctorId AND a.appointmentDate = :date AND a.status NOT IN ('CANCELLED')")
+    List<LocalTime> findBookedTimeSlots(
+            @Param("doctorId") Long doctorId,
+            @Param("date") LocalDate date
+    );
+    
+    @Query("SELECT a.doctor.id, a.appointmentDate, a.timeSlot FROM Appointment a WHERE a.doctor.id IN :doctorIds AND a.appointmentDate BETWEEN :startDate AND :endDate AND a.status NOT IN ('CANCELLED')")
+    List<Object[]> findBookedTimeSlotsForDoctors(
+            @Param("doctorIds") Collection<Long> doctorIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+    
     List<Appointment> findByStatus(AppointmentStatus status);
 
     List<Appointment> findByAppointmentDate(LocalDate date);
@@ -44,4 +110,13 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     long countByAppointmentDate(@Param("date") LocalDate date);
     
     List<Appointment> findByAppointmentDateBetween(LocalDate startDate, LocalDate endDate);
+
+    // Patients a doctor has seen or will see, for per-doctor alert streams
+    @Query("SELECT DISTINCT a.patient.id FROM Appointment a WHERE a.doctor.id = :doctorId")
+    List<Long> findPatientIdsByDoctorId(@Param("doctorId") Long doctorId);
+
+    // Rollup rebuild: one row per [doctorId, date, status, count]
+    @Query("SELECT a.doctor.id, a.appointmentDate, a.status, COUNT(a) FROM Appointment a " +
+           "GROUP BY a.doctor.id, a.appointmentDate, a.status")
+    List<Object[]> summarizeForRollup();
 }
@@ -0,0 +1,29 @@
+package com.HMS.MediCare.repository;
+
+import com.HMS.MediCare.entity.AuditArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AuditArchiveSegmentRepository extends JpaRepository<AuditArchiveSegment, Long> {
+
+    // Chain order
+    List<AuditArchiveSegment> findAllByOrderByFirstIdAsc();
+
+    Optional<AuditArchiveSegment> findTopByOrderByLastIdDesc();
+
+    // Segments whose time span overlaps the requested range; open ends match everything
+    @Query("SELECT s FROM AuditArchiveSegment s WHERE " +
+           "(:endDate IS NULL OR s.firstTimestamp <= :endDate) AND " +
+           "(:startDate IS NULL OR s.lastTimestamp >= :startDate) " +
+           "ORDER BY s.firstId DESC")
+    List<AuditArchiveSegment> findOverlapping(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+}
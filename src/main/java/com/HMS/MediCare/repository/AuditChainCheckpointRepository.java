@@ -0,0 +1,13 @@
+package com.HMS.MediCare.repository;
+
+import com.HMS.MediCare.entity.AuditChainCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AuditChainCheckpointRepository extends JpaRepository<AuditChainCheckpoint, Long> {
+
+    Optional<AuditChainCheckpoint> findTopByOrderByIdDesc();
+}
@@ -5,6 +5,7 @@ import com.HMS.MediCare.enums.AuditAction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,7 +15,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
+public interface AuditLogRepository extends JpaRepository<AuditLog, Long>, JpaSpecificationExecutor<AuditLog> {
 
     // Find by date range
     Page<AuditLog> findByTimestampBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
@@ -28,20 +29,16 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     // Find by action type
     Page<AuditLog> findByAction(AuditAction action, Pageable pageable);
 
-    // Complex search with filters
-    @Query("SELECT a FROM AuditLog a WHERE " +
-           "(:startDate IS NULL OR a.timestamp >= :startDate) AND " +
-           "(:endDate IS NULL OR a.timestamp <= :endDate) AND " +
-           "(:userId IS NULL OR a.userId = :userId) AND " +
-           "(:entityType IS NULL OR a.entityType = :entityType) AND " +
-           "(:action IS NULL OR a.action = :action)")
-    Page<AuditLog> searchAuditLogs(
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate,
-            @Param("userId") Long userId,
-            @Param("entityType") String entityType,
-            @Param("action") AuditAction action,
-            Pageable pageable);
+    // Keyset pagination on (timestamp, id), backed by idx_audit_timestamp_id
+    @Query("SELECT a FROM AuditLog a ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLog> findNewestFirst(Pageable limit);
+
+    @Query("SELECT a FROM AuditLog a WHERE a.timestamp < :timestamp OR (a.timestamp = :timestamp AND a.id < :id) " +
+           "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLog> findNewestFirstBefore(
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("id") Long id,
+            Pageable limit);
 
     // Get latest audit log for hash chain
     Optional<AuditLog> findTopByOrderByIdDesc();
@@ -51,4 +48,19 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
 
     // Get audit logs ordered by ID for chain verification
     List<AuditLog> findAllByOrderByIdAsc();
+
+    // Chunked chain verification: hashed fields of the next rows after a given id, in chain order.
+    // A scalar projection, so no entities pile up in a long-lived (open-in-view) persistence context
+    @Query("SELECT a.id, a.action, a.entityType, a.entityId, a.userId, a.userEmail, a.method, a.outcome, " +
+           "a.previousHash, a.currentHash FROM AuditLog a WHERE a.id > :afterId ORDER BY a.id")
+    List<Object[]> findChainChunkAfter(@Param("afterId") Long afterId, Pageable limit);
+
+    @Query("SELECT MAX(a.id) FROM AuditLog a")
+    Optional<Long> findMaxId();
+
+    // Archiving: oldest hot entry and the last id written before a month boundary
+    Optional<AuditLog> findTopByOrderByIdAsc();
+
+    @Query("SELECT MAX(a.id) FROM AuditLog a WHERE a.timestamp < :before")
+    Optional<Long> findMaxIdBefore(@Param("before") LocalDateTime before);
 }
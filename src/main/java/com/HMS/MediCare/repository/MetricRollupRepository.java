@@ -0,0 +1,44 @@
+package com.HMS.MediCare.repository;
+
+import com.HMS.MediCare.entity.MetricRollup;
+import com.HMS.MediCare.enums.RollupMetric;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface MetricRollupRepository extends JpaRepository<MetricRollup, Long> {
+
+    @Modifying
+    @Query("UPDATE MetricRollup r SET r.count = r.count + :count, r.amount = r.amount + :amount " +
+           "WHERE r.metric = :metric AND r.bucketDate = :date AND r.doctorId = :doctorId AND r.status = :status")
+    int increment(
+            @Param("metric") RollupMetric metric,
+            @Param("date") LocalDate date,
+            @Param("doctorId") Long doctorId,
+            @Param("status") String status,
+            @Param("count") long count,
+            @Param("amount") BigDecimal amount);
+
+    // One row per status with [status, count, amount, count on :today]
+    @Query("SELECT r.status, SUM(r.count), SUM(r.amount), " +
+           "SUM(CASE WHEN r.bucketDate = :today THEN r.count ELSE 0L END) " +
+           "FROM MetricRollup r WHERE r.metric = :metric GROUP BY r.status")
+    List<Object[]> summarizeByStatus(@Param("metric") RollupMetric metric, @Param("today") LocalDate today);
+
+    // One row per day with [date, amount, count] for a single status
+    @Query("SELECT r.bucketDate, SUM(r.amount), SUM(r.count) FROM MetricRollup r " +
+           "WHERE r.metric = :metric AND r.status = :status AND r.bucketDate BETWEEN :start AND :end " +
+           "GROUP BY r.bucketDate ORDER BY r.bucketDate")
+    List<Object[]> summarizeByDay(
+            @Param("metric") RollupMetric metric,
+            @Param("status") String status,
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end);
+}
@@ -2,17 +2,23 @@ package com.HMS.MediCare.repository;
 
 import com.HMS.MediCare.entity.Patient;
 import com.HMS.MediCare.enums.Gender;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long>, JpaSpecificationExecutor<Patient> {
@@ -62,6 +68,25 @@ public interface PatientRepository extends JpaRepository<Patient, Long>, JpaSpec
            "CAST(p.id AS string) LIKE CONCAT('%', :query, '%')")
     Page<Patient> quickSearch(@Param("query") String query, Pageable pageable);
     
+    // Keyset pagination on (createdAt, id), backed by idx_patient_created_id
+    @Query("SELECT p FROM Patient p ORDER BY p.createdAt DESC, p.id DESC")
+    List<Patient> findNewestFirst(Pageable limit);
+    
+    @Query("SELECT p FROM Patient p WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Patient> findNewestFirstBefore(
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable limit);
+    
+    // Forward-only cursor for exports; callers detach each row after writing it
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Patient p ORDER BY p.id")
+    Stream<Patient> streamAll();
+    
     // Search by creation date range
     List<Patient> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
     
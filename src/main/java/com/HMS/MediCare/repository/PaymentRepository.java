@@ -34,4 +34,9 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
     @Query("SELECT COUNT(p) FROM Payment p WHERE p.paymentStatus = :status")
     long countByPaymentStatus(@Param("status") PaymentStatus status);
+    
+    // Rollup rebuild: one row per [doctorId, date, status, count, sum of amount]; date is paid date, else created date
+    @Query("SELECT p.doctor.id, EXTRACT(DATE FROM COALESCE(p.paidAt, p.createdAt)), p.paymentStatus, COUNT(p), SUM(p.amount) " +
+           "FROM Payment p GROUP BY p.doctor.id, EXTRACT(DATE FROM COALESCE(p.paidAt, p.createdAt)), p.paymentStatus")
+    List<Object[]> summarizeForRollup();
 }
@@ -0,0 +1,48 @@
+package com.HMS.MediCare.repository;
+
+import com.HMS.MediCare.entity.VitalsChunk;
+import com.HMS.MediCare.enums.VitalType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface VitalsChunkRepository extends JpaRepository<VitalsChunk, Long> {
+
+    @Query("SELECT c FROM VitalsChunk c WHERE c.patientId = :patientId AND c.vitalType = :vitalType " +
+           "AND c.firstRecordedAt <= :end AND c.lastRecordedAt >= :start ORDER BY c.firstRecordedAt")
+    List<VitalsChunk> findOverlapping(
+            @Param("patientId") Long patientId,
+            @Param("vitalType") VitalType vitalType,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
+
+    // Points in the chunks overlapping a range; an upper bound on the raw points inside it
+    @Query("SELECT COALESCE(SUM(c.pointCount), 0) FROM VitalsChunk c WHERE c.patientId = :patientId " +
+           "AND c.vitalType = :vitalType AND c.firstRecordedAt <= :end AND c.lastRecordedAt >= :start")
+    long countPointsOverlapping(
+            @Param("patientId") Long patientId,
+            @Param("vitalType") VitalType vitalType,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
+
+    // (patientId, vitalType) series with more than one chunk below the target size
+    @Query("SELECT c.patientId, c.vitalType FROM VitalsChunk c WHERE c.pointCount < :targetPoints " +
+           "GROUP BY c.patientId, c.vitalType HAVING COUNT(c) > 1")
+    List<Object[]> findSeriesToCompact(@Param("targetPoints") int targetPoints);
+
+    List<VitalsChunk> findByPatientId(Long patientId);
+
+    List<VitalsChunk> findByPatientIdAndVitalTypeAndPointCountLessThanOrderByFirstRecordedAtAsc(
+            Long patientId, VitalType vitalType, int pointCount);
+
+    @Modifying
+    @Query("DELETE FROM VitalsChunk c WHERE c.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
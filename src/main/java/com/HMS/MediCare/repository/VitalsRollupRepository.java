@@ -0,0 +1,31 @@
+package com.HMS.MediCare.repository;
+
+import com.HMS.MediCare.entity.VitalsRollup;
+import com.HMS.MediCare.enums.VitalType;
+import com.HMS.MediCare.enums.VitalsResolution;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface VitalsRollupRepository extends JpaRepository<VitalsRollup, Long> {
+
+    List<VitalsRollup> findByPatientIdAndVitalTypeAndResolutionAndBucketStartBetweenOrderByBucketStartAsc(
+            Long patientId, VitalType vitalType, VitalsResolution resolution,
+            LocalDateTime start, LocalDateTime end);
+
+    List<VitalsRollup> findByPatientId(Long patientId);
+
+    @Modifying
+    @Query("DELETE FROM VitalsRollup r WHERE r.patientId = :patientId")
+    int deleteByPatientId(@Param("patientId") Long patientId);
+
+    @Modifying
+    @Query("DELETE FROM VitalsRollup r WHERE r.resolution = :resolution AND r.bucketStart < :before")
+    int deleteOlderThan(@Param("resolution") VitalsResolution resolution, @Param("before") LocalDateTime before);
+}
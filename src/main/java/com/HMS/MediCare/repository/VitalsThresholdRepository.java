@@ -5,6 +5,7 @@ import com.HMS.MediCare.enums.VitalType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +15,6 @@ public interface VitalsThresholdRepository extends JpaRepository<VitalsThreshold
     List<VitalsThreshold> findByPatientIdAndIsActiveTrue(Long patientId);
 
     Optional<VitalsThreshold> findByPatientIdAndVitalType(Long patientId, VitalType vitalType);
+
+    List<VitalsThreshold> findByPatientIdIn(Collection<Long> patientIds);
 }
@@ -40,48 +40,31 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        try {
-            final String jwt = authHeader.substring(7);
-            
-            // Validate token
-            if (jwtService.isValidToken(jwt)) {
-                final String username = jwtService.extractUsername(jwt);
-                final Long userId = jwtService.extractUserId(jwt);
-                final String role = jwtService.extractRole(jwt);
-                final String tokenType = jwtService.extractTokenType(jwt);
-                
+        // One parse and signature check per token; repeat requests hit the verified-token cache
+        jwtService.verify(authHeader.substring(7))
                 // Only allow access tokens for API access (not refresh tokens)
-                if (!"access".equals(tokenType)) {
-                    filterChain.doFilter(request, response);
-                    return;
-                }
-
-                // If valid and no existing authentication
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    
+                .filter(VerifiedToken::isAccessToken)
+                .filter(token -> token.email() != null)
+                .filter(token -> SecurityContextHolder.getContext().getAuthentication() == null)
+                .ifPresent(token -> {
                     // Create authentication token with role-based authority
                     List<SimpleGrantedAuthority> authorities = List.of(
-                            new SimpleGrantedAuthority("ROLE_" + role)
+                            new SimpleGrantedAuthority("ROLE_" + token.role())
                     );
-                    
+
                     // Create custom principal with user details
-                    UserPrincipal principal = new UserPrincipal(userId, username, role);
-                    
+                    UserPrincipal principal = new UserPrincipal(token.userId(), token.email(), token.role());
+
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             principal,
                             null,
                             authorities
                     );
-                    
+
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
-            }
-        } catch (Exception e) {
-            // Log and continue - invalid token will result in 401
-            logger.debug("JWT validation failed: " + e.getMessage());
-        }
-        
+                });
+
         filterChain.doFilter(request, response);
     }
 }
@@ -2,22 +2,42 @@ package com.HMS.MediCare.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 /**
  * JWT Service for token generation, validation, and extraction
+ * - Signing key and parser are built once at startup
+ * - verify() parses and checks a token once; verified tokens are cached by
+ *   SHA-256 of the token until they expire, so repeat requests skip the HMAC
+ * - Every token carries a jti; cached or not, a token whose jti is on the
+ *   TokenDenyList no longer verifies
  */
 @Service
+@Slf4j
+@RequiredArgsConstructor
 public class JwtService {
 
+    private final TokenDenyList tokenDenyList;
+
     @Value("${jwt.secret:MediCareSecretKey2024ForJWTTokenGenerationAndValidationMinimum256Bits}")
     private String secretKey;
 
@@ -27,6 +47,21 @@ public class JwtService {
     @Value("${jwt.refresh-token-expiration:604800000}") // 7 days
     private long refreshTokenExpiration;
 
+    @Value("${jwt.verified-cache.max-entries:10000}")
+    private int verifiedCacheMaxEntries;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    private final ConcurrentHashMap<ByteBuffer, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private final AtomicLong cacheHits = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+    }
+
     /**
      * Generate access token for a user
      */
@@ -55,19 +90,91 @@ public class JwtService {
     private String createToken(Map<String, Object> claims, String subject, long expiration) {
         return Jwts.builder()
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), Jwts.SIG.HS256)
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
 
     /**
-     * Get signing key from secret
+     * Verify a token once and return its claims; empty when the token is
+     * malformed, badly signed or expired
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        Instant now = Instant.now();
+        ByteBuffer key = tokenHash(token);
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (!cached.isExpired(now) && !tokenDenyList.isRevoked(cached.jti())) {
+                cacheHits.incrementAndGet();
+                return Optional.of(cached);
+            }
+            verifiedTokens.remove(key, cached);
+            return Optional.empty();
+        }
+
+        VerifiedToken verified;
+        try {
+            Claims claims = extractAllClaims(token);
+            verified = new VerifiedToken(
+                    claims.getId(),
+                    claims.get("userId", Long.class),
+                    claims.getSubject(),
+                    claims.get("role", String.class),
+                    claims.get("type", String.class),
+                    claims.getExpiration().toInstant());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("JWT rejected: {}", e.getMessage());
+            return Optional.empty();
+        }
+        if (tokenDenyList.isRevoked(verified.jti())) {
+            return Optional.empty();
+        }
+
+        if (verifiedTokens.size() >= verifiedCacheMaxEntries) {
+            evictExpired(now);
+        }
+        if (verifiedTokens.size() < verifiedCacheMaxEntries) {
+            verifiedTokens.put(key, verified);
+        }
+        return Optional.of(verified);
+    }
+
+    /**
+     * Revoke a verified token until it expires; it fails verify() from now on
+     *
+     * @return false when the token had already been revoked, possibly on another node
      */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public boolean revoke(VerifiedToken token, String reason) {
+        return tokenDenyList.revoke(token.jti(), token.expiresAt(), reason);
+    }
+
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    public int getCachedTokenCount() {
+        return verifiedTokens.size();
+    }
+
+    private void evictExpired(Instant now) {
+        verifiedTokens.values().removeIf(token -> token.isExpired(now));
+        log.debug("Verified token cache trimmed to {} entries", verifiedTokens.size());
+    }
+
+    // The cache never holds the bearer token itself
+    private static ByteBuffer tokenHash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
     }
 
     /**
@@ -117,11 +224,7 @@ public class JwtService {
      * Extract all claims from token
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     /**
@@ -148,14 +251,9 @@ public class JwtService {
     }
 
     /**
-     * Validate token structure and signature
+     * Validate token structure, signature and expiry
      */
     public boolean isValidToken(String token) {
-        try {
-            extractAllClaims(token);
-            return !isTokenExpired(token);
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return verify(token).isPresent();
     }
 }
@@ -0,0 +1,245 @@
+package com.HMS.MediCare.security;
+
+import com.HMS.MediCare.exception.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Login password verification on a dedicated, bounded BCrypt pool
+ * - At most threads + queue-capacity logins wait for a hash; beyond that the
+ *   request is rejected at once with 429 instead of holding a servlet thread
+ * - Failed attempts are counted per email; once max-failures is reached within
+ *   the window, further attempts are rejected before any hashing
+ * - Each attempt is counted when it starts, in the same atomic step as the
+ *   lockout check, so concurrent guesses cannot overshoot max-failures
+ * - Past max-tracked-emails, expired entries and then the oldest unlocked ones
+ *   are evicted; an email that is locked out is kept until its window ends
+ */
+@Component
+@Slf4j
+public class PasswordVerifier {
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final int maxFailures;
+    private final long windowSeconds;
+    private final int maxTrackedEmails;
+
+    private final ConcurrentHashMap<String, Failures> failures = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicLong rejectedSaturated = new AtomicLong();
+    private final AtomicLong rejectedLockedOut = new AtomicLong();
+
+    public PasswordVerifier(
+            @Value("${auth.bcrypt.threads:0}") int threads,
+            @Value("${auth.bcrypt.queue-capacity:64}") int queueCapacity,
+            @Value("${auth.bcrypt.timeout-ms:5000}") long timeoutMillis,
+            @Value("${auth.lockout.max-failures:5}") int maxFailures,
+            @Value("${auth.lockout.window-seconds:300}") long windowSeconds,
+            @Value("${auth.lockout.max-tracked-emails:100000}") int maxTrackedEmails) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-verifier-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeoutMillis;
+        this.maxFailures = maxFailures;
+        this.windowSeconds = windowSeconds;
+        this.maxTrackedEmails = maxTrackedEmails;
+    }
+
+    /**
+     * Check a login password; counts the attempt against the email either way
+     */
+    public boolean matches(String email, String rawPassword, String encodedPassword) {
+        String key = normalize(email);
+        // Counted as a failure up front; a correct password clears it below
+        countAttempt(key);
+
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+        } catch (RejectedExecutionException e) {
+            uncountAttempt(key);
+            rejectedSaturated.incrementAndGet();
+            log.warn("BCrypt pool saturated ({} queued); rejecting login", executor.getQueue().size());
+            throw new TooManyRequestsException("Too many login attempts in progress, please retry shortly", 1);
+        }
+
+        boolean matched;
+        try {
+            matched = await(result);
+        } catch (RuntimeException e) {
+            // Never evaluated, so it does not count against the account
+            uncountAttempt(key);
+            throw e;
+        }
+        if (matched) {
+            failures.remove(key);
+        }
+        return matched;
+    }
+
+    /**
+     * Count a failed attempt for an email that never reached hashing (unknown account)
+     */
+    public void recordFailure(String email) {
+        countAttempt(normalize(email));
+    }
+
+    /**
+     * Reject before hashing when the email has too many recent failures
+     */
+    public void checkNotLockedOut(String email) {
+        String key = normalize(email);
+        Failures entry = failures.get(key);
+        if (entry == null || entry.count() < maxFailures) {
+            return;
+        }
+        Instant now = Instant.now();
+        if (entry.isExpired(now, windowSeconds)) {
+            failures.remove(key, entry);
+            return;
+        }
+        rejectedLockedOut.incrementAndGet();
+        long retryAfter = Math.max(1, entry.windowStart().plusSeconds(windowSeconds).getEpochSecond() - now.getEpochSecond());
+        throw new TooManyRequestsException("Too many failed login attempts, please retry later", retryAfter);
+    }
+
+    public int getActiveVerifications() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueuedVerifications() {
+        return executor.getQueue().size();
+    }
+
+    public long getRejectedSaturated() {
+        return rejectedSaturated.get();
+    }
+
+    public long getRejectedLockedOut() {
+        return rejectedLockedOut.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private boolean await(Future<Boolean> result) {
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            rejectedSaturated.incrementAndGet();
+            throw new TooManyRequestsException("Login verification timed out, please retry shortly", 1);
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while verifying password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password verification failed", e.getCause());
+        }
+    }
+
+    // Lockout check and increment in one compute, so no attempt slips in between them
+    private void countAttempt(String key) {
+        Instant now = Instant.now();
+        if (failures.size() >= maxTrackedEmails && !failures.containsKey(key)) {
+            evict(now);
+        }
+        Failures[] lockedOut = new Failures[1];
+        failures.compute(key, (k, entry) -> {
+            if (entry == null || entry.isExpired(now, windowSeconds)) {
+                return new Failures(1, now);
+            }
+            if (entry.count() >= maxFailures) {
+                lockedOut[0] = entry;
+                return entry;
+            }
+            return entry.increment();
+        });
+        if (lockedOut[0] != null) {
+            rejectedLockedOut.incrementAndGet();
+            long retryAfter = Math.max(1,
+                    lockedOut[0].windowStart().plusSeconds(windowSeconds).getEpochSecond() - now.getEpochSecond());
+            throw new TooManyRequestsException("Too many failed login attempts, please retry later", retryAfter);
+        }
+    }
+
+    private void uncountAttempt(String key) {
+        failures.computeIfPresent(key, (k, entry) -> entry.count() <= 1 ? null : entry.decrement());
+    }
+
+    /**
+     * Make room below max-tracked-emails: expired entries first, then the oldest
+     * windows that are not locked out; one caller evicts while the others go on
+     */
+    private void evict(Instant now) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            failures.values().removeIf(entry -> entry.isExpired(now, windowSeconds));
+            int target = maxTrackedEmails - Math.max(1, maxTrackedEmails / 10);
+            int excess = failures.size() - target;
+            if (excess <= 0) {
+                return;
+            }
+            List<Map.Entry<String, Failures>> unlocked = failures.entrySet().stream()
+                    .filter(entry -> entry.getValue().count() < maxFailures)
+                    .sorted(Comparator.comparing(entry -> entry.getValue().windowStart()))
+                    .limit(excess)
+                    .toList();
+            unlocked.forEach(entry -> failures.remove(entry.getKey(), entry.getValue()));
+            if (failures.size() >= maxTrackedEmails) {
+                log.warn("Login failure tracker holds {} emails, most of them locked out", failures.size());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Failures(int count, Instant windowStart) {
+        Failures increment() {
+            return new Failures(count + 1, windowStart);
+        }
+
+        Failures decrement() {
+            return new Failures(count - 1, windowStart);
+        }
+
+        boolean isExpired(Instant now, long windowSeconds) {
+            return !now.isBefore(windowStart.plusSeconds(windowSeconds));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.HMS.MediCare.security;
+
+import com.HMS.MediCare.entity.RevokedToken;
+import com.HMS.MediCare.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory deny-list of revoked token ids (jti)
+ * - isRevoked() checks a Bloom filter first, so the common not-revoked case
+ *   never touches the exact set; a filter hit is confirmed against the set
+ * - Entries live until the token's own expiry, then are purged and the
+ *   filter is rebuilt without them
+ * - revoked_tokens is the durable, shared copy: loaded at startup and polled
+ *   so revocations on other nodes arrive within one sync interval
+ * - Polling is by revokedAt, reaching back sync-overlap before the previous
+ *   sync: ids and timestamps are assigned before commit, so a slow transaction
+ *   can land behind rows already seen. Re-read rows are deduplicated by jti
+ */
+@Component
+@Slf4j
+public class TokenDenyList {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private final Duration syncOverlap;
+
+    private final ConcurrentHashMap<String, Instant> revoked = new ConcurrentHashMap<>();
+    // Adds, syncs and rebuilds are serialized; readers only see the volatile filter and the map
+    private final Object lock = new Object();
+    private volatile JtiBloomFilter filter;
+    // Start of the last sync on this node's clock, null before the first; only sync() moves it
+    private volatile LocalDateTime lastSyncStartedAt;
+
+    public TokenDenyList(
+            RevokedTokenRepository revokedTokenRepository,
+            @Value("${auth.deny-list.expected-entries:100000}") int expectedEntries,
+            @Value("${auth.deny-list.false-positive-rate:0.001}") double falsePositiveRate,
+            @Value("${auth.deny-list.sync-overlap-ms:60000}") long syncOverlapMillis) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.syncOverlap = Duration.ofMillis(syncOverlapMillis);
+        this.filter = new JtiBloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    @PostConstruct
+    void load() {
+        sync();
+        log.info("Token deny-list loaded with {} revoked tokens", revoked.size());
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        return revoked.containsKey(jti);
+    }
+
+    /**
+     * Revoke a token id until its expiry, locally at once and durably for other nodes
+     *
+     * @return true when this call recorded the revocation, false when the token
+     *         was already revoked here or on another node (or has expired)
+     */
+    public boolean revoke(String jti, Instant expiresAt, String reason) {
+        if (jti == null || !Instant.now().isBefore(expiresAt)) {
+            return false;
+        }
+        synchronized (lock) {
+            addLocal(jti, expiresAt);
+        }
+        try {
+            revokedTokenRepository.save(RevokedToken.builder()
+                    .jti(jti)
+                    .expiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()))
+                    .revokedAt(LocalDateTime.now())
+                    .reason(reason)
+                    .build());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // The unique jti makes the insert the arbiter: someone else revoked it first
+            log.debug("Token {} was already revoked", jti);
+            return false;
+        }
+    }
+
+    /**
+     * Pull revocations written since the last sync, including other nodes' ones
+     */
+    @Scheduled(fixedDelayString = "${auth.deny-list.sync-interval-ms:5000}",
+            initialDelayString = "${auth.deny-list.sync-interval-ms:5000}")
+    public synchronized void sync() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<RevokedToken> rows = lastSyncStartedAt == null
+                ? revokedTokenRepository.findByExpiresAtAfter(startedAt)
+                : revokedTokenRepository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(
+                        lastSyncStartedAt.minus(syncOverlap), startedAt);
+        int added = 0;
+        synchronized (lock) {
+            for (RevokedToken row : rows) {
+                if (addLocal(row.getJti(), row.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant())) {
+                    added++;
+                }
+            }
+        }
+        lastSyncStartedAt = startedAt;
+        if (added > 0) {
+            log.debug("Token deny-list synced {} new revocations", added);
+        }
+    }
+
+    /**
+     * Drop entries whose tokens have expired and rebuild the filter without them
+     */
+    @Scheduled(fixedDelayString = "${auth.deny-list.purge-interval-ms:600000}",
+            initialDelayString = "${auth.deny-list.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.ofInstant(now, ZoneId.systemDefault()));
+        synchronized (lock) {
+            revoked.values().removeIf(expiresAt -> !now.isBefore(expiresAt));
+            rebuild(Math.max(expectedEntries, revoked.size() * 2));
+        }
+        log.debug("Token deny-list purged {} expired rows; {} entries remain", deleted, revoked.size());
+    }
+
+    public int getRevokedCount() {
+        return revoked.size();
+    }
+
+    public long getFilterSizeBytes() {
+        return filter.sizeInBytes();
+    }
+
+    // Map first, then filter bits: a reader that sees the bits also sees the entry; false when already known
+    private boolean addLocal(String jti, Instant expiresAt) {
+        if (revoked.put(jti, expiresAt) != null) {
+            return false;
+        }
+        if (revoked.size() > filter.capacity()) {
+            rebuild(filter.capacity() * 2);
+        } else {
+            filter.add(jti);
+        }
+        return true;
+    }
+
+    private void rebuild(int capacity) {
+        JtiBloomFilter rebuilt = new JtiBloomFilter(capacity, falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+    }
+}
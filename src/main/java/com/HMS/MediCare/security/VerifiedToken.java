@@ -0,0 +1,28 @@
+package com.HMS.MediCare.security;
+
+import java.time.Instant;
+
+/**
+ * Claims of a JWT whose signature and expiry have been checked, read once
+ */
+public record VerifiedToken(
+        String jti,
+        Long userId,
+        String email,
+        String role,
+        String type,
+        Instant expiresAt
+) {
+
+    public boolean isAccessToken() {
+        return "access".equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return "refresh".equals(type);
+    }
+
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+}
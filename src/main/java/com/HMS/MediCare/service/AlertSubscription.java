@@ -0,0 +1,171 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.response.VitalsAlertEvent;
+import com.HMS.MediCare.enums.AlertSeverity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+/**
+ * One SSE subscriber of VitalsAlertBus
+ * - Fixed-size ring of pending events; when full the oldest is overwritten and
+ *   counted, so a slow client costs its own buffer and never blocks publishers
+ * - Lost events (dropped, or a Last-Event-ID the bus no longer holds) are reported
+ *   once so the client can reload unacknowledged alerts over REST
+ * - At most one sender drains it at a time: offer() reports when a drain must be
+ *   scheduled and drainTo() hands back the pending events in one step
+ * - isStalled() spots a client that blocks a send, or whose ring has stayed full
+ *   with no drain getting through; markDead() then stops every further send
+ */
+final class AlertSubscription {
+
+    private final SseEmitter emitter;
+    private final Set<AlertSeverity> severities;
+    private final Long patientId;
+    private final Set<Long> patientIds;
+    private final VitalsAlertEvent[] ring;
+    private int head;
+    private int size;
+    private long dropped;
+    private boolean gap;
+    private boolean heartbeatDue;
+    private boolean draining;
+    // System.nanoTime() when the ring first overflowed since the last drain, 0 when it has not
+    private long overflowingSince;
+    // When the current send began, 0 between sends; written by the sender, read by the stall check
+    private volatile long sendingSince;
+    private volatile boolean dead;
+
+    /**
+     * @param severities wanted severities, empty for all
+     * @param patientId  only this patient, or null
+     * @param patientIds only these patients (a doctor's), or null
+     */
+    AlertSubscription(SseEmitter emitter, Set<AlertSeverity> severities, Long patientId, Set<Long> patientIds,
+                      int capacity) {
+        this.emitter = emitter;
+        this.severities = severities;
+        this.patientId = patientId;
+        this.patientIds = patientIds;
+        this.ring = new VitalsAlertEvent[Math.max(1, capacity)];
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    boolean matches(VitalsAlertEvent event) {
+        return (severities.isEmpty() || severities.contains(event.getSeverity()))
+                && (patientId == null || patientId.equals(event.getPatientId()))
+                && (patientIds == null || patientIds.contains(event.getPatientId()));
+    }
+
+    /**
+     * Queue an event, dropping the oldest when full; true when the caller must schedule a drain
+     */
+    synchronized boolean offer(VitalsAlertEvent event) {
+        if (size == ring.length) {
+            ring[head] = null;
+            head = (head + 1) % ring.length;
+            size--;
+            dropped++;
+            if (overflowingSince == 0) {
+                overflowingSince = System.nanoTime();
+            }
+        }
+        ring[(head + size) % ring.length] = event;
+        size++;
+        return startDrain();
+    }
+
+    /**
+     * Record that events before the first queued one could not be replayed
+     */
+    synchronized boolean markGap() {
+        gap = true;
+        return startDrain();
+    }
+
+    /**
+     * Ask for a keep-alive comment; true when the caller must schedule a drain
+     */
+    synchronized boolean requestHeartbeat() {
+        heartbeatDue = true;
+        return startDrain();
+    }
+
+    /**
+     * Move everything pending into batch; null (and the drain ends) when nothing is pending
+     */
+    synchronized Pending drainTo(VitalsAlertEvent[] batch) {
+        if (size == 0 && dropped == 0 && !gap && !heartbeatDue) {
+            draining = false;
+            return null;
+        }
+        int count = size;
+        for (int i = 0; i < count; i++) {
+            int index = (head + i) % ring.length;
+            batch[i] = ring[index];
+            ring[index] = null;
+        }
+        Pending pending = new Pending(count, dropped, gap, heartbeatDue);
+        overflowingSince = 0;
+        head = 0;
+        size = 0;
+        dropped = 0;
+        gap = false;
+        heartbeatDue = false;
+        return pending;
+    }
+
+    /**
+     * Give up the current drain after a failed send, so nothing waits on it
+     */
+    synchronized void abandonDrain() {
+        draining = false;
+    }
+
+    void markDead() {
+        dead = true;
+    }
+
+    boolean isDead() {
+        return dead;
+    }
+
+    void sendStarted() {
+        sendingSince = System.nanoTime();
+    }
+
+    void sendFinished() {
+        sendingSince = 0;
+    }
+
+    /**
+     * True when one send has been blocked, or the ring has been overflowing, for at least timeoutNanos
+     */
+    synchronized boolean isStalled(long now, long timeoutNanos) {
+        long sending = sendingSince;
+        return (sending != 0 && now - sending >= timeoutNanos)
+                || (overflowingSince != 0 && now - overflowingSince >= timeoutNanos);
+    }
+
+    int capacity() {
+        return ring.length;
+    }
+
+    private boolean startDrain() {
+        if (draining) {
+            return false;
+        }
+        draining = true;
+        return true;
+    }
+
+    record Pending(int count, long dropped, boolean gap, boolean heartbeat) {
+
+        boolean lostEvents() {
+            return dropped > 0 || gap;
+        }
+    }
+}
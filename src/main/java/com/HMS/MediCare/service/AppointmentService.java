@@ -2,6 +2,7 @@ package com.HMS.MediCare.service;
 
 import com.HMS.MediCare.dto.request.AppointmentRequest;
 import com.HMS.MediCare.dto.response.AppointmentResponse;
+import com.HMS.MediCare.dto.response.CursorPage;
 import com.HMS.MediCare.entity.Appointment;
 import com.HMS.MediCare.entity.Doctor;
 import com.HMS.MediCare.entity.Patient;
@@ -10,7 +11,9 @@ import com.HMS.MediCare.exception.BadRequestException;
 import com.HMS.MediCare.exception.ResourceNotFoundException;
 import com.HMS.MediCare.repository.AppointmentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,7 +21,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +30,9 @@ public class AppointmentService {
     private final AppointmentRepository appointmentRepository;
     private final PatientService patientService;
     private final DoctorService doctorService;
+    private final SlotOccupancyIndex slotOccupancyIndex;
+    private final BookingLockRegistry bookingLockRegistry;
+    private final RollupService rollupService;
 
     public AppointmentResponse bookAppointment(Long patientId, AppointmentRequest request) {
         Patient patient = patientService.getPatientEntityById(patientId);
@@ -44,7 +49,15 @@ public class AppointmentService {
             throw new BadRequestException("Selected time is outside doctor's available hours");
         }
 
-        // Check for conflicting appointments
+        // Reject known-taken slots from the in-memory index before any SQL runs
+        if (slotOccupancyIndex.isBooked(request.getDoctorId(), request.getDate(), request.getPreferredTime())) {
+            throw new BadRequestException("Time slot is already booked");
+        }
+
+        // Serialize bookings for this doctor's day until the transaction completes
+        bookingLockRegistry.lockUntilCompletion(request.getDoctorId(), request.getDate());
+
+        // Confirm against the database (index may lag bookings made on other nodes)
         List<Appointment> conflicts = appointmentRepository.findConflictingAppointments(
                 request.getDoctorId(), request.getDate(), request.getPreferredTime());
         
@@ -61,54 +74,73 @@ public class AppointmentService {
                 .symptoms(request.getSymptoms())
                 .build();
 
-        Appointment savedAppointment = appointmentRepository.save(appointment);
+        Appointment savedAppointment;
+        try {
+            // Flush now so the active slot unique index rejects races from other nodes here
+            savedAppointment = appointmentRepository.saveAndFlush(appointment);
+        } catch (DataIntegrityViolationException e) {
+            throw new BadRequestException("Time slot is already booked");
+        }
+        slotOccupancyIndex.markBookedAfterCommit(
+                request.getDoctorId(), request.getDate(), request.getPreferredTime());
+        rollupService.recordAppointmentAfterCommit(savedAppointment, null, savedAppointment.getStatus());
         return mapToResponse(savedAppointment);
     }
 
     @Transactional(readOnly = true)
     public AppointmentResponse getAppointmentById(Long id) {
-        Appointment appointment = appointmentRepository.findById(id)
+        return appointmentRepository.findResponseById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment", "id", id));
-        return mapToResponse(appointment);
     }
 
     @Transactional(readOnly = true)
     public List<AppointmentResponse> getPatientAppointments(Long patientId) {
-        return appointmentRepository.findByPatientId(patientId).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return appointmentRepository.findResponsesByPatientId(patientId);
     }
 
     @Transactional(readOnly = true)
     public Page<AppointmentResponse> getPatientAppointmentsPaginated(Long patientId, Pageable pageable) {
-        return appointmentRepository.findByPatientId(patientId, pageable)
-                .map(this::mapToResponse);
+        return appointmentRepository.findResponsesByPatientId(patientId, pageable);
     }
 
     @Transactional(readOnly = true)
     public List<AppointmentResponse> getDoctorAppointments(Long doctorId) {
-        return appointmentRepository.findByDoctorId(doctorId).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return appointmentRepository.findResponsesByDoctorId(doctorId);
     }
 
     @Transactional(readOnly = true)
     public Page<AppointmentResponse> getDoctorAppointmentsPaginated(Long doctorId, Pageable pageable) {
-        return appointmentRepository.findByDoctorId(doctorId, pageable)
-                .map(this::mapToResponse);
+        return appointmentRepository.findResponsesByDoctorId(doctorId, pageable);
     }
 
     @Transactional(readOnly = true)
     public List<AppointmentResponse> getAllAppointments() {
-        return appointmentRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return appointmentRepository.findAllResponses();
     }
 
     @Transactional(readOnly = true)
     public Page<AppointmentResponse> getAllAppointmentsPaginated(Pageable pageable) {
-        return appointmentRepository.findAll(pageable)
-                .map(this::mapToResponse);
+        return appointmentRepository.findAllResponses(pageable);
+    }
+
+    /**
+     * Keyset page of all appointments, newest date first, without a count query
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<AppointmentResponse> getAllAppointmentsByCursor(String cursor, int size) {
+        CursorPage.validateSize(size);
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<AppointmentResponse> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = appointmentRepository.findResponsesLatestFirst(limit);
+        } else {
+            CursorPage.Cursor position = CursorPage.Cursor.decode(cursor);
+            rows = appointmentRepository.findResponsesLatestFirstBefore(
+                    position.sortKeyAsDate(), position.id(), limit);
+        }
+        return CursorPage.of(rows, size,
+                a -> new CursorPage.Cursor(a.getDate().toString(), a.getId()));
     }
 
     public AppointmentResponse cancelAppointment(Long id) {
@@ -130,8 +162,12 @@ public class AppointmentService {
             throw new BadRequestException("Cannot cancel appointment within 24 hours of scheduled time");
         }
 
+        AppointmentStatus previousStatus = appointment.getStatus();
         appointment.setStatus(AppointmentStatus.CANCELLED);
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        slotOccupancyIndex.markReleasedAfterCommit(
+                appointment.getDoctor().getId(), appointment.getAppointmentDate(), appointment.getTimeSlot());
+        rollupService.recordAppointmentAfterCommit(savedAppointment, previousStatus, AppointmentStatus.CANCELLED);
         return mapToResponse(savedAppointment);
     }
 
@@ -145,6 +181,7 @@ public class AppointmentService {
 
         appointment.setStatus(AppointmentStatus.CONFIRMED);
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        rollupService.recordAppointmentAfterCommit(savedAppointment, AppointmentStatus.PENDING, AppointmentStatus.CONFIRMED);
         return mapToResponse(savedAppointment);
     }
 
@@ -156,8 +193,11 @@ public class AppointmentService {
             throw new BadRequestException("Cannot complete a cancelled appointment");
         }
 
+        // Completed appointments keep their slot, so the occupancy index is unchanged
+        AppointmentStatus previousStatus = appointment.getStatus();
         appointment.setStatus(AppointmentStatus.COMPLETED);
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        rollupService.recordAppointmentAfterCommit(savedAppointment, previousStatus, AppointmentStatus.COMPLETED);
         return mapToResponse(savedAppointment);
     }
 
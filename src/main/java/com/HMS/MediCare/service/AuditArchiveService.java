@@ -0,0 +1,456 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.entity.AuditArchiveSegment;
+import com.HMS.MediCare.entity.AuditLog;
+import com.HMS.MediCare.enums.AuditAction;
+import com.HMS.MediCare.exception.BadRequestException;
+import com.HMS.MediCare.repository.AuditArchiveSegmentRepository;
+import com.HMS.MediCare.repository.AuditLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Cold tier for the audit trail
+ * - audit_logs keeps the current month and the (hot-months - 1) before it
+ * - Older months are moved, oldest first, into compressed columnar segment files
+ *   of at most segment-rows entries, then deleted from the table
+ * - Each segment records the hash it continues from and the hash it ends on,
+ *   so the chain can still be verified end to end after archiving
+ * - Catalog entries are signed with the checkpoint secret, so a segment can be
+ *   trusted from its signature and file digest alone
+ * - Segment files are streamed in both directions; memory does not grow with segment size
+ * - Archiving and verification exclude each other on every node through the
+ *   "audit-archive" cluster lock
+ * - audit.archive.dir must be one volume shared by every node; archiving and
+ *   search refuse to run on a node that cannot see the catalogued files
+ */
+@Service
+@Slf4j
+public class AuditArchiveService {
+
+    private static final String SELECT_RANGE_SQL =
+            "SELECT id, action, entity_type, entity_id, user_id, user_email, user_role, ip_address, method, " +
+            "details, outcome, timestamp, previous_hash, current_hash FROM audit_logs " +
+            "WHERE id BETWEEN ? AND ? ORDER BY id";
+    private static final String DELETE_RANGE_SQL = "DELETE FROM audit_logs WHERE id BETWEEN ? AND ?";
+    private static final int FETCH_SIZE = 1000;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    static final String ARCHIVE_LOCK = "audit-archive";
+
+    private final AuditLogRepository auditLogRepository;
+    private final AuditArchiveSegmentRepository segmentRepository;
+    private final ClusterLockService clusterLockService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final Path archiveDir;
+    private final int hotMonths;
+    private final int segmentRows;
+    private final byte[] signingKey;
+    // Longest a crashed holder keeps the archive lock; archiving renews it for every segment
+    private final Duration lockLease;
+
+    public AuditArchiveService(AuditLogRepository auditLogRepository,
+                               AuditArchiveSegmentRepository segmentRepository,
+                               ClusterLockService clusterLockService,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${audit.archive.dir:./audit-archive}") String archiveDir,
+                               @Value("${audit.archive.hot-months:3}") int hotMonths,
+                               @Value("${audit.archive.segment-rows:500000}") int segmentRows,
+                               @Value("${audit.archive.lock-lease-minutes:60}") long lockLeaseMinutes,
+                               @Value("${audit.checkpoint.secret}") String signingSecret) {
+        if (hotMonths < 1) {
+            throw new IllegalArgumentException("audit.archive.hot-months must be at least 1");
+        }
+        this.auditLogRepository = auditLogRepository;
+        this.segmentRepository = segmentRepository;
+        this.clusterLockService = clusterLockService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.archiveDir = Paths.get(archiveDir);
+        this.hotMonths = hotMonths;
+        this.segmentRows = segmentRows;
+        this.signingKey = signingSecret.getBytes(StandardCharsets.UTF_8);
+        this.lockLease = Duration.ofMinutes(lockLeaseMinutes);
+    }
+
+    @Scheduled(cron = "${audit.archive.cron:0 30 2 * * *}")
+    public void scheduledArchive() {
+        try {
+            archiveColdMonths();
+        } catch (RuntimeException e) {
+            log.error("Scheduled audit archiving failed", e);
+        }
+    }
+
+    /**
+     * Move every month older than the hot window into segment files
+     */
+    public List<AuditArchiveSegment> archiveColdMonths() {
+        if (!clusterLockService.tryAcquire(ARCHIVE_LOCK, lockLease)) {
+            throw new BadRequestException("Audit archiving or verification is already running");
+        }
+        try {
+            requireSharedArchive();
+            LocalDateTime cutoff = YearMonth.now().minusMonths(hotMonths - 1L).atDay(1).atStartOfDay();
+            List<AuditArchiveSegment> created = new ArrayList<>();
+            while (true) {
+                Optional<AuditLog> oldest = auditLogRepository.findTopByOrderByIdAsc();
+                if (oldest.isEmpty() || !oldest.get().getTimestamp().isBefore(cutoff)) {
+                    break;
+                }
+                YearMonth month = YearMonth.from(oldest.get().getTimestamp());
+                LocalDateTime monthEnd = month.plusMonths(1).atDay(1).atStartOfDay();
+                // Ids are assigned in chain order, so the month ends at the last id stamped before the boundary
+                long lastId = auditLogRepository.findMaxIdBefore(monthEnd).orElse(oldest.get().getId());
+                long firstId = oldest.get().getId();
+                created.add(archiveRange(month, firstId, Math.min(lastId, firstId + segmentRows - 1)));
+            }
+            if (!created.isEmpty()) {
+                log.info("Archived {} audit segment(s) older than {}", created.size(), cutoff.toLocalDate());
+            }
+            return created;
+        } finally {
+            clusterLockService.release(ARCHIVE_LOCK);
+        }
+    }
+
+    public List<AuditArchiveSegment> getSegments() {
+        return segmentRepository.findAllByOrderByFirstIdAsc();
+    }
+
+    /**
+     * Run an action while no node is archiving, so hot rows cannot move under it
+     */
+    public <T> T withStableArchive(Supplier<T> action) {
+        if (!clusterLockService.tryAcquire(ARCHIVE_LOCK, lockLease)) {
+            throw new BadRequestException("Audit archiving is running, please retry later");
+        }
+        try {
+            return action.get();
+        } finally {
+            clusterLockService.release(ARCHIVE_LOCK);
+        }
+    }
+
+    /**
+     * Search archived entries, newest first; only segments overlapping the range are opened
+     * and only the filter columns are inflated until a segment has a match
+     */
+    public List<AuditLog> searchArchive(LocalDateTime startDate, LocalDateTime endDate, Long userId,
+                                        String entityType, AuditAction action, int limit) {
+        if (limit < 1 || limit > 1000) {
+            throw new BadRequestException("Limit must be between 1 and 1000");
+        }
+        List<AuditLog> results = new ArrayList<>();
+        for (AuditArchiveSegment segment : segmentRepository.findOverlapping(startDate, endDate)) {
+            AuditSegmentFile.Reader reader = openSegment(segment);
+            BitSet selected = new BitSet(reader.getRowCount());
+            selected.set(0, reader.getRowCount());
+            if (startDate != null || endDate != null) {
+                reader.<LocalDateTime>retain(selected, AuditSegmentFile.Column.TIMESTAMP, timestamp ->
+                        (startDate == null || !timestamp.isBefore(startDate))
+                                && (endDate == null || !timestamp.isAfter(endDate)));
+            }
+            if (userId != null && !selected.isEmpty()) {
+                reader.<Long>retain(selected, AuditSegmentFile.Column.USER_ID, userId::equals);
+            }
+            if (entityType != null && !selected.isEmpty()) {
+                reader.<String>retain(selected, AuditSegmentFile.Column.ENTITY_TYPE, entityType::equals);
+            }
+            if (action != null && !selected.isEmpty()) {
+                reader.<String>retain(selected, AuditSegmentFile.Column.ACTION, action.name()::equals);
+            }
+            if (selected.isEmpty()) {
+                continue;
+            }
+
+            // Rows come in chain order; keep only the newest ones that still fit
+            int wanted = limit - results.size();
+            ArrayDeque<AuditLog> newest = new ArrayDeque<>(wanted);
+            reader.forEachRow(selected, entry -> {
+                if (newest.size() == wanted) {
+                    newest.removeFirst();
+                }
+                newest.addLast(entry);
+                return true;
+            });
+            newest.descendingIterator().forEachRemaining(results::add);
+            if (results.size() >= limit) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Check a segment's catalog signature and file digest without decoding its entries
+     */
+    public SegmentCheck checkSegmentFile(AuditArchiveSegment segment) {
+        if (!AuditSignatures.matches(sign(segment), segment.getSignature())) {
+            return SegmentCheck.broken(segment.getFirstId(), "segment catalog entry has an invalid signature");
+        }
+        String digest;
+        try {
+            digest = sha256(archiveDir.resolve(segment.getFileName()));
+        } catch (IOException e) {
+            return SegmentCheck.broken(segment.getFirstId(), "segment file " + segment.getFileName() + " is unreadable");
+        }
+        if (!digest.equals(segment.getFileSha256())) {
+            return SegmentCheck.broken(segment.getFirstId(), "segment file " + segment.getFileName() + " was modified");
+        }
+        return new SegmentCheck(null, null, 0);
+    }
+
+    /**
+     * Re-read a segment and recompute its part of the chain, one entry at a time
+     */
+    public SegmentCheck verifySegment(AuditArchiveSegment segment) {
+        SegmentCheck fileCheck = checkSegmentFile(segment);
+        if (!fileCheck.isValid()) {
+            return fileCheck;
+        }
+
+        AuditSegmentFile.Reader reader;
+        try {
+            reader = new AuditSegmentFile.Reader(archiveDir.resolve(segment.getFileName()));
+        } catch (IOException | IllegalStateException e) {
+            return SegmentCheck.broken(segment.getFirstId(), e.getMessage());
+        }
+        if (reader.getRowCount() != segment.getEntryCount()
+                || !segment.getAnchorPreviousHash().equals(reader.getAnchorPreviousHash())) {
+            return SegmentCheck.broken(segment.getFirstId(), "segment header does not match its catalog entry");
+        }
+
+        AuditLog[] last = new AuditLog[1];
+        Long[] brokenAtId = new Long[1];
+        long[] checked = {0};
+        try {
+            reader.forEachRow(null, entry -> {
+                if (!AuditLogService.calculateHash(entry, entry.getPreviousHash()).equals(entry.getCurrentHash())) {
+                    brokenAtId[0] = entry.getId();
+                    return false;
+                }
+                last[0] = entry;
+                checked[0]++;
+                return true;
+            });
+        } catch (IllegalStateException e) {
+            return SegmentCheck.broken(segment.getFirstId(), e.getMessage());
+        }
+        if (brokenAtId[0] != null) {
+            return SegmentCheck.broken(brokenAtId[0], "archived hash does not match entry contents");
+        }
+        if (last[0] == null || !last[0].getCurrentHash().equals(segment.getLastHash())
+                || !last[0].getId().equals(segment.getLastId())) {
+            return SegmentCheck.broken(last[0] != null ? last[0].getId() : segment.getFirstId(),
+                    "segment does not end on its recorded anchor");
+        }
+        return new SegmentCheck(null, null, checked[0]);
+    }
+
+    private AuditArchiveSegment archiveRange(YearMonth month, long firstId, long lastId) {
+        String fileName = "audit-" + month + "-" + firstId + ".seg";
+        LocalDateTime[] span = new LocalDateTime[2];
+        long[] lastSeenId = {firstId};
+        AuditArchiveSegment unsigned;
+
+        try (AuditSegmentFile.Writer writer = new AuditSegmentFile.Writer(
+                auditLogRepository.findById(firstId).map(AuditLog::getPreviousHash).orElseThrow())) {
+            // Plain JDBC with a fetch size keeps the persistence context out of a month-long scan
+            readOnlyTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement statement = con.prepareStatement(SELECT_RANGE_SQL);
+                statement.setFetchSize(FETCH_SIZE);
+                statement.setLong(1, firstId);
+                statement.setLong(2, lastId);
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                LocalDateTime timestamp = rs.getTimestamp("timestamp").toLocalDateTime();
+                long rawUserId = rs.getLong("user_id");
+                Long userId = rs.wasNull() ? null : rawUserId;
+                writer.append(AuditLog.builder()
+                        .id(rs.getLong("id"))
+                        .action(AuditAction.valueOf(rs.getString("action")))
+                        .entityType(rs.getString("entity_type"))
+                        .entityId(rs.getString("entity_id"))
+                        .userId(userId)
+                        .userEmail(rs.getString("user_email"))
+                        .userRole(rs.getString("user_role"))
+                        .ipAddress(rs.getString("ip_address"))
+                        .method(rs.getString("method"))
+                        .details(rs.getString("details"))
+                        .outcome(rs.getString("outcome"))
+                        .timestamp(timestamp)
+                        .previousHash(rs.getString("previous_hash"))
+                        .currentHash(rs.getString("current_hash"))
+                        .build());
+                span[0] = span[0] == null || timestamp.isBefore(span[0]) ? timestamp : span[0];
+                span[1] = span[1] == null || timestamp.isAfter(span[1]) ? timestamp : span[1];
+                lastSeenId[0] = rs.getLong("id");
+            }));
+
+            WrittenFile file = writeDurably(fileName, writer);
+            unsigned = AuditArchiveSegment.builder()
+                    .month(month.toString())
+                    .firstId(firstId)
+                    .lastId(lastSeenId[0])
+                    .entryCount(writer.getRowCount())
+                    .firstTimestamp(span[0])
+                    .lastTimestamp(span[1])
+                    .anchorPreviousHash(writer.getAnchorPreviousHash())
+                    .lastHash(writer.getLastHash())
+                    .fileName(fileName)
+                    .fileSha256(file.sha256())
+                    .fileSizeBytes(file.sizeBytes())
+                    .archivedAt(LocalDateTime.now())
+                    .build();
+        }
+        AuditArchiveSegment segment = unsigned.toBuilder().signature(sign(unsigned)).build();
+
+        // Never delete hot rows unless the file reads back as the same chain
+        SegmentCheck check = verifySegment(segment);
+        if (!check.isValid()) {
+            throw new IllegalStateException("Archived segment " + fileName + " failed verification: " + check.reason());
+        }
+        // A holder whose lease ran out may be racing another node; it must not delete anything
+        if (!clusterLockService.extend(ARCHIVE_LOCK, lockLease)) {
+            throw new IllegalStateException("Audit archive lock expired while writing " + fileName);
+        }
+
+        AuditArchiveSegment saved = transactionTemplate.execute(status -> {
+            AuditArchiveSegment row = segmentRepository.save(segment);
+            jdbcTemplate.update(DELETE_RANGE_SQL, firstId, segment.getLastId());
+            return row;
+        });
+        log.info("Archived audit entries {}-{} ({}) into {} ({} bytes)",
+                firstId, segment.getLastId(), month, fileName, segment.getFileSizeBytes());
+        return saved;
+    }
+
+    // Temp file, fsync, then atomic rename: a crash never leaves a partial segment under its final name
+    private WrittenFile writeDurably(String fileName, AuditSegmentFile.Writer writer) {
+        try {
+            Files.createDirectories(archiveDir);
+            Path temp = archiveDir.resolve(fileName + ".tmp");
+            MessageDigest digest = sha256Digest();
+            long size;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                OutputStream out = new DigestOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), IO_BUFFER_SIZE), digest);
+                writer.writeTo(out);
+                out.flush();
+                channel.force(true);
+                size = channel.size();
+            }
+            Files.move(temp, archiveDir.resolve(fileName),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return new WrittenFile(HexFormat.of().formatHex(digest.digest()), size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write audit segment " + fileName, e);
+        }
+    }
+
+    private AuditSegmentFile.Reader openSegment(AuditArchiveSegment segment) {
+        Path file = archiveDir.resolve(segment.getFileName());
+        if (!Files.isRegularFile(file)) {
+            throw notShared(segment);
+        }
+        try {
+            return new AuditSegmentFile.Reader(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read audit segment " + segment.getFileName(), e);
+        }
+    }
+
+    // The newest catalogued segment may have been written by another node; if it is not here, neither is the rest
+    private void requireSharedArchive() {
+        segmentRepository.findTopByOrderByLastIdDesc()
+                .filter(latest -> !Files.isRegularFile(archiveDir.resolve(latest.getFileName())))
+                .ifPresent(missing -> {
+                    throw notShared(missing);
+                });
+    }
+
+    private IllegalStateException notShared(AuditArchiveSegment segment) {
+        return new IllegalStateException("Audit segment " + segment.getFileName() + " is not in "
+                + archiveDir.toAbsolutePath() + "; audit.archive.dir must be a volume shared by every node");
+    }
+
+    // Everything that places the segment in the chain and pins its file
+    private String sign(AuditArchiveSegment segment) {
+        return AuditSignatures.sign(signingKey, segment.getMonth(), String.valueOf(segment.getFirstId()),
+                String.valueOf(segment.getLastId()), String.valueOf(segment.getEntryCount()),
+                segment.getAnchorPreviousHash(), segment.getLastHash(), segment.getFileName(),
+                segment.getFileSha256());
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest = sha256Digest();
+        byte[] buffer = new byte[IO_BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    private record WrittenFile(String sha256, long sizeBytes) {
+    }
+
+    public record SegmentCheck(Long brokenAtId, String reason, long checked) {
+        static SegmentCheck broken(Long id, String reason) {
+            return new SegmentCheck(id, reason, 0);
+        }
+
+        public boolean isValid() {
+            return brokenAtId == null;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.response.AuditVerificationProgress;
+import com.HMS.MediCare.dto.response.AuditVerificationResponse;
+import com.HMS.MediCare.entity.AuditArchiveSegment;
+import com.HMS.MediCare.entity.AuditChainCheckpoint;
+import com.HMS.MediCare.entity.AuditLog;
+import com.HMS.MediCare.enums.AuditAction;
+import com.HMS.MediCare.exception.BadRequestException;
+import com.HMS.MediCare.repository.AuditChainCheckpointRepository;
+import com.HMS.MediCare.repository.AuditLogRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streaming, parallel, resumable audit hash-chain verification
+ * - Reads the chain in id-ordered chunks of projected hash fields; each chunk is its
+ *   own short query and nothing is attached to a persistence context, so memory is
+ *   bounded by chunk size times chunks in flight
+ * - Chunk hashes are recomputed in parallel on a ForkJoin pool; the link
+ *   between neighbouring chunks is checked on the reading thread
+ * - A signed checkpoint is stored after each successful run, and the next
+ *   run starts after it unless a full verification is requested
+ * - Without a trusted checkpoint every archived segment is checked before the
+ *   hot table: signature, file digest and continuity, plus every entry's hash
+ *   on full runs
+ */
+@Service
+@Slf4j
+public class AuditChainVerifier {
+
+    private static final String GENESIS = "GENESIS";
+
+    private final AuditLogRepository auditLogRepository;
+    private final AuditChainCheckpointRepository checkpointRepository;
+    private final AuditLogWriter auditLogWriter;
+    private final AuditArchiveService auditArchiveService;
+    private final int chunkSize;
+    private final byte[] checkpointKey;
+
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private final int maxChunksInFlight = 2 * Runtime.getRuntime().availableProcessors();
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    // Progress of the current (or last) run, readable from other threads
+    private final AtomicLong progressChecked = new AtomicLong();
+    private volatile Long progressLastId;
+    private volatile Long progressTargetId;
+    private volatile Long progressStartId;
+    private volatile LocalDateTime progressStartedAt;
+
+    public AuditChainVerifier(AuditLogRepository auditLogRepository,
+                              AuditChainCheckpointRepository checkpointRepository,
+                              AuditLogWriter auditLogWriter,
+                              AuditArchiveService auditArchiveService,
+                              @Value("${audit.verify.chunk-size:5000}") int chunkSize,
+                              @Value("${audit.checkpoint.secret}") String checkpointSecret) {
+        this.auditLogRepository = auditLogRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.auditLogWriter = auditLogWriter;
+        this.auditArchiveService = auditArchiveService;
+        this.chunkSize = chunkSize;
+        this.checkpointKey = checkpointSecret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Verify the chain, resuming from the latest valid checkpoint unless full is set
+     */
+    public AuditVerificationResponse verify(boolean full) {
+        if (!runLock.tryLock()) {
+            throw new BadRequestException("Audit chain verification is already running");
+        }
+        try {
+            return auditArchiveService.withStableArchive(() -> runVerification(full));
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    public AuditVerificationProgress getProgress() {
+        Long target = progressTargetId;
+        Long last = progressLastId;
+        Long start = progressStartId;
+        double percent = 100.0;
+        if (target != null && start != null && target > start) {
+            long done = (last != null ? last : start) - start;
+            percent = Math.min(100.0, 100.0 * done / (target - start));
+        }
+        return AuditVerificationProgress.builder()
+                .running(runLock.isLocked())
+                .entriesChecked(progressChecked.get())
+                .lastCheckedId(last)
+                .targetId(target)
+                .percentComplete(percent)
+                .startedAt(progressStartedAt)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private AuditVerificationResponse runVerification(boolean full) {
+        long started = System.nanoTime();
+        // Include events still waiting in the writer queue
+        auditLogWriter.awaitFlush(5, TimeUnit.SECONDS);
+
+        AuditChainCheckpoint checkpoint = full ? null : usableCheckpoint();
+        long afterId = checkpoint != null ? checkpoint.getLastVerifiedId() : 0L;
+        // Without a checkpoint the chain is checked from its very first entry, which must start from GENESIS
+        String expectedPrevious = checkpoint != null ? checkpoint.getLastHash() : GENESIS;
+        long previouslyVerified = checkpoint != null ? checkpoint.getEntriesVerified() : 0L;
+
+        AuditVerificationResponse.AuditVerificationResponseBuilder result = AuditVerificationResponse.builder()
+                .resumedFromCheckpoint(checkpoint != null)
+                .valid(true);
+
+        progressChecked.set(0);
+        List<AuditArchiveSegment> segments = checkpoint == null ? auditArchiveService.getSegments() : List.of();
+        if (!segments.isEmpty()) {
+            AuditArchiveSegment last = segments.get(segments.size() - 1);
+            ChunkResult failure = verifySegments(segments, full);
+            if (failure != null) {
+                log.error("Audit hash chain broken at archived entry {}: {}", failure.brokenAtId(), failure.reason());
+                return result.valid(false)
+                        .entriesChecked(progressChecked.get())
+                        .firstCheckedId(segments.get(0).getFirstId())
+                        .lastCheckedId(failure.brokenAtId())
+                        .brokenAtId(failure.brokenAtId())
+                        .failureReason(failure.reason())
+                        .totalVerified(progressChecked.get())
+                        .segmentsVerified(segments.indexOf(failure.segment()))
+                        .verifiedAt(LocalDateTime.now())
+                        .durationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started))
+                        .build();
+            }
+            result.segmentsVerified(segments.size());
+            if (!full) {
+                // Signed, unmodified and linked segments hold the entries that were verified when they were written
+                previouslyVerified = segments.stream().mapToLong(AuditArchiveSegment::getEntryCount).sum();
+            }
+            afterId = last.getLastId();
+            expectedPrevious = last.getLastHash();
+        }
+
+        progressStartId = afterId;
+        progressLastId = null;
+        progressTargetId = auditLogRepository.findMaxId().orElse(afterId);
+        progressStartedAt = LocalDateTime.now();
+
+        Deque<Future<ChunkResult>> inFlight = new ArrayDeque<>();
+        Long firstCheckedId = full && !segments.isEmpty() ? segments.get(0).getFirstId() : null;
+        Long lastCheckedId = null;
+        String lastHash = expectedPrevious;
+        ChunkResult failure = null;
+        ChunkResult linkFailure = null;
+
+        while (failure == null) {
+            List<AuditLog> chunk = auditLogRepository.findChainChunkAfter(afterId, PageRequest.of(0, chunkSize))
+                    .stream()
+                    .map(AuditChainVerifier::toChainEntry)
+                    .toList();
+            if (chunk.isEmpty()) {
+                break;
+            }
+            AuditLog first = chunk.get(0);
+            AuditLog last = chunk.get(chunk.size() - 1);
+
+            // Link to the previous chunk, checkpoint, archived segment or GENESIS
+            if (!lastHash.equals(first.getPreviousHash())) {
+                linkFailure = ChunkResult.broken(first.getId(), GENESIS.equals(lastHash)
+                        ? "first entry of the chain does not start from GENESIS"
+                        : "previous hash does not match entry " + afterId);
+                break;
+            }
+            if (firstCheckedId == null) {
+                firstCheckedId = first.getId();
+            }
+            lastCheckedId = last.getId();
+            lastHash = last.getCurrentHash();
+            afterId = last.getId();
+
+            inFlight.addLast(pool.submit(() -> verifyChunk(chunk)));
+            if (inFlight.size() >= maxChunksInFlight) {
+                failure = collect(inFlight.removeFirst());
+            }
+        }
+        // Results are taken in submission order, so the first failure found is the earliest one
+        while (failure == null && !inFlight.isEmpty()) {
+            failure = collect(inFlight.removeFirst());
+        }
+        inFlight.forEach(future -> future.cancel(true));
+        if (failure == null) {
+            failure = linkFailure;
+        }
+
+        long checked = progressChecked.get();
+        result.entriesChecked(checked)
+                .firstCheckedId(firstCheckedId)
+                .lastCheckedId(failure != null ? failure.brokenAtId() : lastCheckedId)
+                .verifiedAt(LocalDateTime.now());
+
+        if (failure != null) {
+            log.error("Audit hash chain broken at entry {}: {}", failure.brokenAtId(), failure.reason());
+            result.valid(false)
+                    .brokenAtId(failure.brokenAtId())
+                    .failureReason(failure.reason())
+                    .totalVerified(previouslyVerified + checked);
+        } else {
+            long total = previouslyVerified + checked;
+            if (lastCheckedId != null) {
+                saveCheckpoint(lastCheckedId, lastHash, total);
+            }
+            log.info("Audit log hash chain verified: {} new entries, {} in total", checked, total);
+            result.totalVerified(total);
+        }
+        return result.durationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).build();
+    }
+
+    // Segments are checked in chain order; each must continue from the one before it, and the first from GENESIS
+    private ChunkResult verifySegments(List<AuditArchiveSegment> segments, boolean recomputeEntries) {
+        String previousHash = GENESIS;
+        for (AuditArchiveSegment segment : segments) {
+            if (!previousHash.equals(segment.getAnchorPreviousHash())) {
+                return ChunkResult.broken(segment.getFirstId(), GENESIS.equals(previousHash)
+                        ? "oldest archived segment does not start from GENESIS"
+                        : "archived segment does not continue the segment before it").in(segment);
+            }
+            AuditArchiveService.SegmentCheck check = recomputeEntries
+                    ? auditArchiveService.verifySegment(segment)
+                    : auditArchiveService.checkSegmentFile(segment);
+            if (!check.isValid()) {
+                return ChunkResult.broken(check.brokenAtId(), check.reason()).in(segment);
+            }
+            progressChecked.addAndGet(check.checked());
+            previousHash = segment.getLastHash();
+        }
+        return null;
+    }
+
+    private ChunkResult verifyChunk(List<AuditLog> chunk) {
+        String previousHash = null;
+        for (AuditLog entry : chunk) {
+            if (previousHash != null && !previousHash.equals(entry.getPreviousHash())) {
+                return ChunkResult.broken(entry.getId(), "previous hash does not match the preceding entry");
+            }
+            String expected = AuditLogService.calculateHash(entry, entry.getPreviousHash());
+            if (!expected.equals(entry.getCurrentHash())) {
+                return ChunkResult.broken(entry.getId(), "stored hash does not match entry contents");
+            }
+            previousHash = entry.getCurrentHash();
+        }
+        return new ChunkResult(null, null, chunk.size(), chunk.get(chunk.size() - 1).getId());
+    }
+
+    // Detached entry carrying only the fields the hash covers
+    private static AuditLog toChainEntry(Object[] row) {
+        return AuditLog.builder()
+                .id((Long) row[0])
+                .action((AuditAction) row[1])
+                .entityType((String) row[2])
+                .entityId((String) row[3])
+                .userId((Long) row[4])
+                .userEmail((String) row[5])
+                .method((String) row[6])
+                .outcome((String) row[7])
+                .previousHash((String) row[8])
+                .currentHash((String) row[9])
+                .build();
+    }
+
+    // Wait for the oldest chunk; returns it if broken, otherwise records progress and returns null
+    private ChunkResult collect(Future<ChunkResult> future) {
+        try {
+            ChunkResult result = future.get();
+            if (result.brokenAtId() != null) {
+                return result;
+            }
+            progressChecked.addAndGet(result.checked());
+            progressLastId = result.lastId();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Audit chain verification interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Audit chain verification failed", e.getCause());
+        }
+    }
+
+    private AuditChainCheckpoint usableCheckpoint() {
+        AuditChainCheckpoint checkpoint = checkpointRepository.findTopByOrderByIdDesc().orElse(null);
+        if (checkpoint == null) {
+            return null;
+        }
+        if (!AuditSignatures.matches(sign(checkpoint.getLastVerifiedId(), checkpoint.getLastHash(),
+                checkpoint.getEntriesVerified(), checkpoint.getVerifiedAt()), checkpoint.getSignature())) {
+            log.warn("Audit checkpoint {} has an invalid signature; running full verification", checkpoint.getId());
+            return null;
+        }
+        // The checkpointed entry itself must still be there, unchanged
+        boolean anchored = auditLogRepository.findById(checkpoint.getLastVerifiedId())
+                .map(entry -> checkpoint.getLastHash().equals(entry.getCurrentHash()))
+                .orElse(false);
+        if (!anchored) {
+            log.warn("Audit checkpoint {} no longer matches entry {}; running full verification",
+                    checkpoint.getId(), checkpoint.getLastVerifiedId());
+            return null;
+        }
+        return checkpoint;
+    }
+
+    private void saveCheckpoint(Long lastVerifiedId, String lastHash, long entriesVerified) {
+        LocalDateTime verifiedAt = LocalDateTime.now().withNano(0);
+        checkpointRepository.save(AuditChainCheckpoint.builder()
+                .lastVerifiedId(lastVerifiedId)
+                .lastHash(lastHash)
+                .entriesVerified(entriesVerified)
+                .verifiedAt(verifiedAt)
+                .signature(sign(lastVerifiedId, lastHash, entriesVerified, verifiedAt))
+                .build());
+    }
+
+    private String sign(Long lastVerifiedId, String lastHash, long entriesVerified, LocalDateTime verifiedAt) {
+        return AuditSignatures.sign(checkpointKey, String.valueOf(lastVerifiedId), lastHash,
+                String.valueOf(entriesVerified), verifiedAt.toString());
+    }
+
+    private record ChunkResult(Long brokenAtId, String reason, int checked, Long lastId, AuditArchiveSegment segment) {
+        ChunkResult(Long brokenAtId, String reason, int checked, Long lastId) {
+            this(brokenAtId, reason, checked, lastId, null);
+        }
+
+        static ChunkResult broken(Long id, String reason) {
+            return new ChunkResult(id, reason, 0, null);
+        }
+
+        ChunkResult in(AuditArchiveSegment segment) {
+            return new ChunkResult(brokenAtId, reason, checked, lastId, segment);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.config.AuditPolicyProperties;
+import com.HMS.MediCare.enums.AuditAction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory aggregation of repetitive audit events (COALESCED policy)
+ * - Events for the same user, action, entity, method and outcome within one
+ *   window become a single audit row carrying the access count
+ * - Closed windows are flushed to AuditLogWriter on a fixed delay; everything
+ *   is flushed when the key limit is reached and on shutdown
+ */
+@Component
+@Slf4j
+public class AuditCoalescer implements SmartLifecycle {
+
+    private final AuditLogWriter auditLogWriter;
+    private final long windowSeconds;
+    private final int maxKeys;
+
+    private final ConcurrentHashMap<Key, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedEvents = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private volatile boolean running;
+
+    public AuditCoalescer(AuditLogWriter auditLogWriter, AuditPolicyProperties properties) {
+        this.auditLogWriter = auditLogWriter;
+        this.windowSeconds = Math.max(1, properties.getCoalesceWindowSeconds());
+        this.maxKeys = properties.getCoalesceMaxKeys();
+    }
+
+    public void coalesce(AuditLogWriter.AuditEvent event) {
+        coalescedEvents.incrementAndGet();
+        buckets.compute(Key.of(event, windowOf(event.timestamp())),
+                (key, bucket) -> bucket == null ? new Bucket(event) : bucket.add(event));
+        if (buckets.size() > maxKeys) {
+            log.warn("Audit coalescer reached {} keys; flushing early", maxKeys);
+            flush(true);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${audit.policy.flush-interval-ms:5000}",
+            initialDelayString = "${audit.policy.flush-interval-ms:5000}")
+    public void flushClosedWindows() {
+        flush(false);
+    }
+
+    /**
+     * Flush every bucket, including the window still open
+     */
+    public void flushAll() {
+        flush(true);
+    }
+
+    public int getPendingKeys() {
+        return buckets.size();
+    }
+
+    public long getCoalescedEvents() {
+        return coalescedEvents.get();
+    }
+
+    public long getFlushedRows() {
+        return flushedRows.get();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        flush(true);
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops before AuditLogWriter (DEFAULT_PHASE - 4096) so the final flush is still written
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 3072;
+    }
+
+    private void flush(boolean all) {
+        long currentWindow = windowOf(LocalDateTime.now());
+        for (Key key : buckets.keySet()) {
+            if (all || key.window() < currentWindow) {
+                Bucket bucket = buckets.remove(key);
+                if (bucket != null) {
+                    auditLogWriter.submit(bucket.toEvent());
+                    flushedRows.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private long windowOf(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) / windowSeconds;
+    }
+
+    private record Key(Long userId, String userEmail, AuditAction action, String entityType,
+                       String entityId, String method, String outcome, long window) {
+        static Key of(AuditLogWriter.AuditEvent event, long window) {
+            return new Key(event.userId(), event.userEmail(), event.action(), event.entityType(),
+                    event.entityId(), event.method(), event.outcome(), window);
+        }
+    }
+
+    // Mutated only inside ConcurrentHashMap.compute for its key
+    private static final class Bucket {
+        private final AuditLogWriter.AuditEvent first;
+        private LocalDateTime last;
+        private int count = 1;
+
+        Bucket(AuditLogWriter.AuditEvent first) {
+            this.first = first;
+            this.last = first.timestamp();
+        }
+
+        Bucket add(AuditLogWriter.AuditEvent event) {
+            count++;
+            if (event.timestamp().isAfter(last)) {
+                last = event.timestamp();
+            }
+            return this;
+        }
+
+        AuditLogWriter.AuditEvent toEvent() {
+            String details = count == 1
+                    ? first.details()
+                    : "Coalesced " + count + " events between " + first.timestamp() + " and " + last
+                            + (first.details() != null ? "; first: " + first.details() : "");
+            return new AuditLogWriter.AuditEvent(first.action(), first.entityType(), first.entityId(),
+                    first.userId(), first.userEmail(), first.userRole(), first.ipAddress(), first.method(),
+                    details, first.outcome(), first.timestamp());
+        }
+    }
+}
@@ -1,18 +1,24 @@
 package com.HMS.MediCare.service;
 
+import com.HMS.MediCare.dto.response.CursorPage;
 import com.HMS.MediCare.entity.AuditLog;
 import com.HMS.MediCare.enums.AuditAction;
 import com.HMS.MediCare.repository.AuditLogRepository;
 import com.HMS.MediCare.security.UserPrincipal;
+import jakarta.persistence.criteria.Predicate;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
@@ -20,8 +26,8 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * HIPAA-Compliant Audit Logging Service
@@ -35,12 +41,55 @@ import java.util.Optional;
 public class AuditLogService {
 
     private final AuditLogRepository auditLogRepository;
+    private final AuditLogWriter auditLogWriter;
+    private final AuditCoalescer auditCoalescer;
+    private final AuditChainVerifier auditChainVerifier;
 
     /**
-     * Create an audit log entry with hash chain
+     * Capture an audit event on the calling thread and queue it for the writer.
+     * Inside a transaction the event is queued once it commits, so a rolled-back change
+     * leaves no SUCCESS entry; failures are queued at once.
+     * The hash chain is assigned by AuditLogWriter in queue order.
      */
-    @Transactional
-    public AuditLog createAuditLog(
+    public void record(
+            AuditAction action,
+            String entityType,
+            String entityId,
+            String method,
+            String details,
+            String outcome
+    ) {
+        AuditLogWriter.AuditEvent event = capture(action, entityType, entityId, method, details, outcome);
+        log.debug("Queueing audit log: {} {} on {} by {}", action, method, entityType, event.userEmail());
+        if (!"FAILURE".equals(outcome) && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    auditLogWriter.submit(event);
+                }
+            });
+        } else {
+            auditLogWriter.submit(event);
+        }
+    }
+
+    /**
+     * Capture an audit event and fold it into the current coalescing window
+     * instead of writing it immediately
+     */
+    public void recordCoalesced(
+            AuditAction action,
+            String entityType,
+            String entityId,
+            String method,
+            String details,
+            String outcome
+    ) {
+        auditCoalescer.coalesce(capture(action, entityType, entityId, method, details, outcome));
+    }
+
+    // Principal and client IP are only available on the calling thread
+    private AuditLogWriter.AuditEvent capture(
             AuditAction action,
             String entityType,
             String entityId,
@@ -60,58 +109,36 @@ public class AuditLogService {
             userRole = principal.getRole();
         }
 
-        // Get IP address from request
-        String ipAddress = getClientIpAddress();
-
-        // Get previous hash for chain
-        String previousHash = getPreviousHash();
-
-        // Build the audit log entry
-        AuditLog.AuditLogBuilder builder = AuditLog.builder()
-                .action(action)
-                .entityType(entityType)
-                .entityId(entityId)
-                .userId(userId)
-                .userEmail(userEmail)
-                .userRole(userRole)
-                .ipAddress(ipAddress)
-                .method(method)
-                .details(details)
-                .outcome(outcome)
-                .previousHash(previousHash);
-
-        // Calculate current hash (includes all fields + previous hash)
-        String currentHash = calculateHash(builder.build(), previousHash);
-        
-        AuditLog auditLog = builder.currentHash(currentHash).build();
-
-        log.debug("Creating audit log: {} {} on {} by {}", action, method, entityType, userEmail);
-        return auditLogRepository.save(auditLog);
+        return new AuditLogWriter.AuditEvent(
+                action, entityType, entityId, userId, userEmail, userRole,
+                getClientIpAddress(), method, details, outcome, LocalDateTime.now());
     }
 
     /**
      * Quick method to log an action
      */
     public void log(AuditAction action, String entityType, String entityId, String method) {
-        createAuditLog(action, entityType, entityId, method, null, "SUCCESS");
+        record(action, entityType, entityId, method, null, "SUCCESS");
     }
 
     /**
      * Log with details
      */
     public void log(AuditAction action, String entityType, String entityId, String method, String details) {
-        createAuditLog(action, entityType, entityId, method, details, "SUCCESS");
+        record(action, entityType, entityId, method, details, "SUCCESS");
     }
 
     /**
      * Log failure
      */
     public void logFailure(AuditAction action, String entityType, String method, String details) {
-        createAuditLog(action, entityType, null, method, details, "FAILURE");
+        record(action, entityType, null, method, details, "FAILURE");
     }
 
     /**
      * Get audit logs with filters
+     * Only supplied filters reach the SQL, so each combination gets its own plan
+     * and can use the matching (column, timestamp) index
      */
     @Transactional(readOnly = true)
     public Page<AuditLog> searchAuditLogs(
@@ -122,7 +149,59 @@ public class AuditLogService {
             AuditAction action,
             Pageable pageable
     ) {
-        return auditLogRepository.searchAuditLogs(startDate, endDate, userId, entityType, action, pageable);
+        Specification<AuditLog> spec = buildSearchSpecification(startDate, endDate, userId, entityType, action);
+        return auditLogRepository.findAll(spec, pageable);
+    }
+
+    private Specification<AuditLog> buildSearchSpecification(
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            Long userId,
+            String entityType,
+            AuditAction action
+    ) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (userId != null) {
+                predicates.add(criteriaBuilder.equal(root.get("userId"), userId));
+            }
+            if (entityType != null && !entityType.isBlank()) {
+                predicates.add(criteriaBuilder.equal(root.get("entityType"), entityType));
+            }
+            if (action != null) {
+                predicates.add(criteriaBuilder.equal(root.get("action"), action));
+            }
+
+            // Date range filters
+            if (startDate != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("timestamp"), startDate));
+            }
+            if (endDate != null) {
+                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("timestamp"), endDate));
+            }
+
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Keyset page of audit logs, newest first, without a count query
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<AuditLog> getAuditLogsByCursor(String cursor, int size) {
+        CursorPage.validateSize(size);
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<AuditLog> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = auditLogRepository.findNewestFirst(limit);
+        } else {
+            CursorPage.Cursor position = CursorPage.Cursor.decode(cursor);
+            rows = auditLogRepository.findNewestFirstBefore(position.sortKeyAsDateTime(), position.id(), limit);
+        }
+        return CursorPage.of(rows, size,
+                a -> new CursorPage.Cursor(a.getTimestamp().toString(), a.getId()));
     }
 
     /**
@@ -137,50 +216,14 @@ public class AuditLogService {
      * Verify the integrity of the audit log hash chain
      * Returns true if chain is intact, false if tampering detected
      */
-    @Transactional(readOnly = true)
     public boolean verifyHashChain() {
-        List<AuditLog> allLogs = auditLogRepository.findAllByOrderByIdAsc();
-        
-        if (allLogs.isEmpty()) {
-            return true;
-        }
-
-        String previousHash = null;
-        for (AuditLog auditLog : allLogs) {
-            // Verify previous hash matches
-            if (previousHash != null && !previousHash.equals(auditLog.getPreviousHash())) {
-                log.error("Hash chain broken at audit log ID: {}. Expected previous hash: {}, found: {}",
-                        auditLog.getId(), previousHash, auditLog.getPreviousHash());
-                return false;
-            }
-
-            // Verify current hash is correct
-            String expectedHash = calculateHash(auditLog, auditLog.getPreviousHash());
-            if (!expectedHash.equals(auditLog.getCurrentHash())) {
-                log.error("Hash mismatch at audit log ID: {}. Expected: {}, found: {}",
-                        auditLog.getId(), expectedHash, auditLog.getCurrentHash());
-                return false;
-            }
-
-            previousHash = auditLog.getCurrentHash();
-        }
-
-        log.info("Audit log hash chain verified successfully. {} entries checked.", allLogs.size());
-        return true;
-    }
-
-    /**
-     * Get the hash of the most recent audit log entry
-     */
-    private String getPreviousHash() {
-        Optional<AuditLog> latest = auditLogRepository.findTopByOrderByIdDesc();
-        return latest.map(AuditLog::getCurrentHash).orElse("GENESIS");
+        return auditChainVerifier.verify(false).isValid();
     }
 
     /**
      * Calculate SHA-256 hash of an audit log entry
      */
-    private String calculateHash(AuditLog auditLog, String previousHash) {
+    static String calculateHash(AuditLog auditLog, String previousHash) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             
@@ -205,7 +248,7 @@ public class AuditLogService {
     /**
      * Convert bytes to hex string
      */
-    private String bytesToHex(byte[] bytes) {
+    private static String bytesToHex(byte[] bytes) {
         StringBuilder sb = new StringBuilder();
         for (byte b : bytes) {
             sb.append(String.format("%02x", b));
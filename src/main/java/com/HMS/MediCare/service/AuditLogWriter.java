@@ -0,0 +1,307 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.entity.AuditChainHead;
+import com.HMS.MediCare.entity.AuditLog;
+import com.HMS.MediCare.enums.AuditAction;
+import com.HMS.MediCare.repository.AuditLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous, batched audit log writer
+ * - Request threads capture an AuditEvent and enqueue it; they never touch the database
+ * - A single writer thread assigns the hash chain in queue order and batch-inserts
+ * - Each batch locks the audit_chain_head row first, so writers on other nodes
+ *   hand the head over instead of forking the chain
+ * - The queue is bounded: when full, producers block until the writer catches up
+ * - A failed batch is retried with exponential backoff until it is written; while the
+ *   database is unavailable the queue fills and producers block rather than lose events
+ * - On shutdown the queue is drained after the web server has stopped taking requests
+ */
+@Component
+@Slf4j
+public class AuditLogWriter implements SmartLifecycle {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO audit_logs (action, entity_type, entity_id, user_id, user_email, user_role, ip_address, " +
+            "method, details, outcome, timestamp, previous_hash, current_hash) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] ARG_TYPES = {
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR
+    };
+    private static final String LOCK_HEAD_SQL =
+            "SELECT last_hash FROM audit_chain_head WHERE id = " + AuditChainHead.SINGLETON_ID + " FOR UPDATE";
+    private static final String UPDATE_HEAD_SQL =
+            "UPDATE audit_chain_head SET last_hash = ?, updated_at = ? WHERE id = " + AuditChainHead.SINGLETON_ID;
+    private static final String INIT_HEAD_SQL =
+            "INSERT INTO audit_chain_head (id, last_hash, updated_at) SELECT " + AuditChainHead.SINGLETON_ID + ", ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM audit_chain_head WHERE id = " + AuditChainHead.SINGLETON_ID + ")";
+    private static final long SHUTDOWN_TIMEOUT_MS = 30_000;
+    // Retrying stops this long before stop() gives up waiting, so unwritten events can still be logged
+    private static final long SHUTDOWN_RETRY_MS = SHUTDOWN_TIMEOUT_MS - 5_000;
+
+    private final AuditLogRepository auditLogRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<AuditEvent> queue;
+    private final int batchSize;
+    private final long retryBackoffMs;
+    private final long retryMaxBackoffMs;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong backpressureWaits = new AtomicLong();
+    private final AtomicLong handoffs = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile long stopRequestedAt;
+    private Thread writerThread;
+
+    // Head as last written by this writer; only touched by the writer thread
+    private String chainHead;
+
+    public AuditLogWriter(AuditLogRepository auditLogRepository,
+                          JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${audit.writer.queue-capacity:10000}") int queueCapacity,
+                          @Value("${audit.writer.batch-size:200}") int batchSize,
+                          @Value("${audit.writer.retry-backoff-ms:100}") long retryBackoffMs,
+                          @Value("${audit.writer.retry-max-backoff-ms:5000}") long retryMaxBackoffMs) {
+        this.auditLogRepository = auditLogRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.retryBackoffMs = retryBackoffMs;
+        this.retryMaxBackoffMs = retryMaxBackoffMs;
+    }
+
+    /**
+     * Hand an event to the writer, blocking while the queue is full
+     */
+    public void submit(AuditEvent event) {
+        submitted.incrementAndGet();
+        if (queue.offer(event)) {
+            return;
+        }
+        backpressureWaits.incrementAndGet();
+        try {
+            queue.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            processed.incrementAndGet();
+            log.error("Audit event dropped after interrupt: {} {} on {}", event.action(), event.method(), event.entityType());
+        }
+    }
+
+    /**
+     * Wait until every event submitted so far has been written (or given up on)
+     */
+    public boolean awaitFlush(long timeout, TimeUnit unit) {
+        long target = submitted.get();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (processed.get() < target) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getBackpressureWaits() {
+        return backpressureWaits.get();
+    }
+
+    /**
+     * Batches that found the head moved by another writer since this one last wrote
+     */
+    public long getHandoffs() {
+        return handoffs.get();
+    }
+
+    @Override
+    public void start() {
+        chainHead = auditLogRepository.findTopByOrderByIdDesc().map(AuditLog::getCurrentHash).orElse("GENESIS");
+        try {
+            jdbcTemplate.update(INIT_HEAD_SQL, chainHead, Timestamp.valueOf(LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the head row first
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "audit-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Audit log writer started");
+    }
+
+    @Override
+    public void stop() {
+        stopRequestedAt = System.nanoTime();
+        running = false;
+        if (writerThread == null) {
+            return;
+        }
+        try {
+            writerThread.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            log.error("Audit log writer did not finish within {} ms; {} events still queued",
+                    SHUTDOWN_TIMEOUT_MS, queue.size());
+        } else {
+            log.info("Audit log writer stopped; all queued events flushed");
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stop after the web server (DEFAULT_PHASE - 2048) so in-flight requests can still audit
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void runWriter() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditEvent first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                // Keep draining; stop() controls shutdown through the running flag
+                Thread.interrupted();
+            } catch (RuntimeException e) {
+                log.error("Unexpected audit writer failure", e);
+            } finally {
+                processed.addAndGet(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<AuditEvent> batch) {
+        long backoff = retryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                chainHead = transactionTemplate.execute(status -> appendUnderLock(batch));
+                if (attempt > 1) {
+                    log.info("Audit batch of {} written after {} attempts", batch.size(), attempt);
+                }
+                return;
+            } catch (DataAccessException | TransactionException e) {
+                if (!running && System.nanoTime() - stopRequestedAt > TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_RETRY_MS)) {
+                    // Shutting down with the database still unavailable: keep the events in the application log
+                    for (AuditEvent event : batch) {
+                        log.error("Unwritten audit event: {}", event);
+                    }
+                    return;
+                }
+                log.warn("Audit batch of {} failed (attempt {}), retrying in {} ms: {}",
+                        batch.size(), attempt, backoff, e.getMessage());
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                // Retry right away; stop() controls shutdown through the running flag
+                Thread.interrupted();
+            }
+            backoff = Math.min(backoff * 2, retryMaxBackoffMs);
+        }
+    }
+
+    // The head row lock is held until commit, so ids are also allocated in chain order across nodes
+    private String appendUnderLock(List<AuditEvent> batch) {
+        String head = jdbcTemplate.queryForObject(LOCK_HEAD_SQL, String.class);
+        if (!head.equals(chainHead)) {
+            handoffs.incrementAndGet();
+            log.debug("Audit chain head moved by another writer; continuing from it");
+        }
+
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (AuditEvent event : batch) {
+            AuditLog entry = event.toAuditLog(head);
+            String hash = AuditLogService.calculateHash(entry, head);
+            rows.add(new Object[]{
+                    event.action().name(), event.entityType(), event.entityId(), event.userId(),
+                    event.userEmail(), event.userRole(), event.ipAddress(), event.method(), event.details(),
+                    event.outcome(), Timestamp.valueOf(event.timestamp()), head, hash
+            });
+            head = hash;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, ARG_TYPES);
+        jdbcTemplate.update(UPDATE_HEAD_SQL, head, Timestamp.valueOf(LocalDateTime.now()));
+        return head;
+    }
+
+    /**
+     * Audit data captured on the calling thread, where the security context and request are available
+     */
+    public record AuditEvent(
+            AuditAction action,
+            String entityType,
+            String entityId,
+            Long userId,
+            String userEmail,
+            String userRole,
+            String ipAddress,
+            String method,
+            String details,
+            String outcome,
+            LocalDateTime timestamp
+    ) {
+        AuditLog toAuditLog(String previousHash) {
+            return AuditLog.builder()
+                    .action(action)
+                    .entityType(entityType)
+                    .entityId(entityId)
+                    .userId(userId)
+                    .userEmail(userEmail)
+                    .userRole(userRole)
+                    .ipAddress(ipAddress)
+                    .method(method)
+                    .details(details)
+                    .outcome(outcome)
+                    .timestamp(timestamp)
+                    .previousHash(previousHash)
+                    .build();
+        }
+    }
+}
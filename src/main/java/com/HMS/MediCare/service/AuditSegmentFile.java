@@ -0,0 +1,459 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.entity.AuditLog;
+import com.HMS.MediCare.enums.AuditAction;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Columnar, compressed file format for archived audit entries
+ * - Each column is deflated on its own, so a scan only inflates the columns it filters on
+ * - ids and timestamps are delta-encoded varints; strings use an inline dictionary
+ * - previousHash is not stored: it is the anchor for the first row and the
+ *   previous row's currentHash after that, so a segment cannot hold a forked chain
+ * - Neither side holds a segment in memory: the writer spills each column to a
+ *   temporary file and the reader decodes columns row by row straight from disk
+ *
+ * Layout: MAGIC, VERSION, rowCount, anchorPreviousHash, lastHash,
+ * then per column: ordinal, compressed length, deflated bytes.
+ */
+final class AuditSegmentFile {
+
+    private static final int MAGIC = 0x4D434155; // "MCAU"
+    private static final short VERSION = 1;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    // String dictionary codes: 0 null, 1 literal, 2 literal added to the dictionary, n >= 3 entry n - 3
+    private static final int NULL_CODE = 0;
+    private static final int LITERAL_CODE = 1;
+    private static final int NEW_ENTRY_CODE = 2;
+    private static final int FIRST_ENTRY_CODE = 3;
+    private static final int MAX_DICTIONARY_SIZE = 4096;
+    private static final int MAX_DICTIONARY_VALUE_LENGTH = 100;
+
+    enum Column {
+        ID, TIMESTAMP, ACTION, ENTITY_TYPE, ENTITY_ID, USER_ID, USER_EMAIL, USER_ROLE,
+        IP_ADDRESS, METHOD, DETAILS, OUTCOME, CURRENT_HASH
+    }
+
+    private AuditSegmentFile() {
+    }
+
+    /**
+     * Builds a segment from entries appended in chain order; close() removes the spill files
+     */
+    static final class Writer implements Closeable {
+
+        private final String anchorPreviousHash;
+        private final Map<Column, Path> spills = new EnumMap<>(Column.class);
+        private final Map<Column, DataOutputStream> columns = new EnumMap<>(Column.class);
+        private final Map<Column, Map<String, Integer>> dictionaries = new EnumMap<>(Column.class);
+        private final List<Deflater> deflaters = new ArrayList<>();
+
+        private String lastHash;
+        private long lastId;
+        private long lastMicros;
+        private int rowCount;
+
+        Writer(String anchorPreviousHash) {
+            this.anchorPreviousHash = anchorPreviousHash;
+            this.lastHash = anchorPreviousHash;
+            try {
+                for (Column column : Column.values()) {
+                    Path spill = Files.createTempFile("audit-segment-" + column.name().toLowerCase() + "-", ".col");
+                    spills.put(column, spill);
+                    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+                    deflaters.add(deflater);
+                    columns.put(column, new DataOutputStream(new DeflaterOutputStream(
+                            new BufferedOutputStream(Files.newOutputStream(spill), IO_BUFFER_SIZE), deflater)));
+                    dictionaries.put(column, new HashMap<>());
+                }
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException("Could not create audit segment spill files", e);
+            }
+        }
+
+        void append(AuditLog entry) {
+            if (!lastHash.equals(entry.getPreviousHash())) {
+                throw new IllegalStateException("Audit entry " + entry.getId() + " does not link to the entry before it");
+            }
+            try {
+                long micros = toMicros(entry.getTimestamp());
+                writeVarLong(columns.get(Column.ID), zigzag(entry.getId() - lastId));
+                writeVarLong(columns.get(Column.TIMESTAMP), zigzag(micros - lastMicros));
+                writeString(Column.ACTION, entry.getAction().name());
+                writeString(Column.ENTITY_TYPE, entry.getEntityType());
+                writeString(Column.ENTITY_ID, entry.getEntityId());
+                writeVarLong(columns.get(Column.USER_ID), entry.getUserId() == null ? 0 : zigzag(entry.getUserId()) + 1);
+                writeString(Column.USER_EMAIL, entry.getUserEmail());
+                writeString(Column.USER_ROLE, entry.getUserRole());
+                writeString(Column.IP_ADDRESS, entry.getIpAddress());
+                writeString(Column.METHOD, entry.getMethod());
+                writeString(Column.DETAILS, entry.getDetails());
+                writeString(Column.OUTCOME, entry.getOutcome());
+                columns.get(Column.CURRENT_HASH).write(HexFormat.of().parseHex(entry.getCurrentHash()));
+                lastId = entry.getId();
+                lastMicros = micros;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            lastHash = entry.getCurrentHash();
+            rowCount++;
+        }
+
+        int getRowCount() {
+            return rowCount;
+        }
+
+        String getAnchorPreviousHash() {
+            return anchorPreviousHash;
+        }
+
+        String getLastHash() {
+            return lastHash;
+        }
+
+        /**
+         * Finish every column and copy the spilled columns into the segment
+         */
+        void writeTo(OutputStream target) throws IOException {
+            DataOutputStream out = new DataOutputStream(target);
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(rowCount);
+            out.writeUTF(anchorPreviousHash);
+            out.writeUTF(lastHash);
+            out.writeShort(Column.values().length);
+            for (Column column : Column.values()) {
+                columns.get(column).close();
+                Path spill = spills.get(column);
+                long length = Files.size(spill);
+                if (length > Integer.MAX_VALUE) {
+                    throw new IOException("Audit segment column " + column + " exceeds 2 GB");
+                }
+                out.writeShort(column.ordinal());
+                out.writeInt((int) length);
+                Files.copy(spill, out);
+            }
+            out.flush();
+        }
+
+        @Override
+        public void close() {
+            for (DataOutputStream column : columns.values()) {
+                try {
+                    column.close();
+                } catch (IOException ignored) {
+                    // Spill file is deleted below
+                }
+            }
+            deflaters.forEach(Deflater::end);
+            for (Path spill : spills.values()) {
+                try {
+                    Files.deleteIfExists(spill);
+                } catch (IOException e) {
+                    spill.toFile().deleteOnExit();
+                }
+            }
+        }
+
+        private void writeString(Column column, String value) throws IOException {
+            DataOutputStream out = columns.get(column);
+            if (value == null) {
+                writeVarLong(out, NULL_CODE);
+                return;
+            }
+            Map<String, Integer> dictionary = dictionaries.get(column);
+            Integer index = dictionary.get(value);
+            if (index != null) {
+                writeVarLong(out, FIRST_ENTRY_CODE + index);
+            } else if (dictionary.size() < MAX_DICTIONARY_SIZE && value.length() <= MAX_DICTIONARY_VALUE_LENGTH) {
+                dictionary.put(value, dictionary.size());
+                writeVarLong(out, NEW_ENTRY_CODE);
+                writeBytes(out, value);
+            } else {
+                writeVarLong(out, LITERAL_CODE);
+                writeBytes(out, value);
+            }
+        }
+    }
+
+    /**
+     * A segment on disk; only the header and column offsets are read up front,
+     * each scan streams the columns it needs
+     */
+    static final class Reader {
+
+        private final Path file;
+        private final int rowCount;
+        private final String anchorPreviousHash;
+        private final String lastHash;
+        private final Map<Column, Long> offsets = new EnumMap<>(Column.class);
+
+        Reader(Path file) throws IOException {
+            this.file = file;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                // Unbuffered, so the channel position stays exact for the column offsets
+                DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+                if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                    throw new IllegalStateException("Not an audit segment file");
+                }
+                rowCount = in.readInt();
+                anchorPreviousHash = in.readUTF();
+                lastHash = in.readUTF();
+                int columnCount = in.readShort();
+                for (int i = 0; i < columnCount; i++) {
+                    int ordinal = in.readShort();
+                    if (ordinal < 0 || ordinal >= Column.values().length) {
+                        throw new IllegalStateException("Corrupt audit segment file");
+                    }
+                    int length = in.readInt();
+                    offsets.put(Column.values()[ordinal], channel.position());
+                    channel.position(channel.position() + length);
+                }
+            } catch (EOFException e) {
+                throw new IllegalStateException("Corrupt audit segment file", e);
+            }
+        }
+
+        int getRowCount() {
+            return rowCount;
+        }
+
+        String getAnchorPreviousHash() {
+            return anchorPreviousHash;
+        }
+
+        String getLastHash() {
+            return lastHash;
+        }
+
+        /**
+         * Clear the selected rows whose value in column fails keep; one pass over that column
+         */
+        @SuppressWarnings("unchecked")
+        <T> void retain(BitSet selected, Column column, Predicate<T> keep) {
+            int end = selected.length();
+            try (ColumnCursor cursor = new ColumnCursor(column)) {
+                for (int i = 0; i < end; i++) {
+                    Object value = cursor.next();
+                    if (selected.get(i) && !keep.test((T) value)) {
+                        selected.clear(i);
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Corrupt audit segment file", e);
+            }
+        }
+
+        /**
+         * Decode the selected rows (all rows when selected is null) in chain order,
+         * handing each to action until it returns false
+         */
+        void forEachRow(BitSet selected, Predicate<AuditLog> action) {
+            int end = selected == null ? rowCount : selected.length();
+            Map<Column, ColumnCursor> cursors = new EnumMap<>(Column.class);
+            try {
+                for (Column column : Column.values()) {
+                    cursors.put(column, new ColumnCursor(column));
+                }
+                String previousHash = anchorPreviousHash;
+                for (int i = 0; i < end; i++) {
+                    long id = (Long) cursors.get(Column.ID).next();
+                    LocalDateTime timestamp = (LocalDateTime) cursors.get(Column.TIMESTAMP).next();
+                    String actionName = (String) cursors.get(Column.ACTION).next();
+                    String entityType = (String) cursors.get(Column.ENTITY_TYPE).next();
+                    String entityId = (String) cursors.get(Column.ENTITY_ID).next();
+                    Long userId = (Long) cursors.get(Column.USER_ID).next();
+                    String userEmail = (String) cursors.get(Column.USER_EMAIL).next();
+                    String userRole = (String) cursors.get(Column.USER_ROLE).next();
+                    String ipAddress = (String) cursors.get(Column.IP_ADDRESS).next();
+                    String method = (String) cursors.get(Column.METHOD).next();
+                    String details = (String) cursors.get(Column.DETAILS).next();
+                    String outcome = (String) cursors.get(Column.OUTCOME).next();
+                    String currentHash = (String) cursors.get(Column.CURRENT_HASH).next();
+                    if (selected == null || selected.get(i)) {
+                        AuditLog entry = AuditLog.builder()
+                                .id(id)
+                                .action(AuditAction.valueOf(actionName))
+                                .entityType(entityType)
+                                .entityId(entityId)
+                                .userId(userId)
+                                .userEmail(userEmail)
+                                .userRole(userRole)
+                                .ipAddress(ipAddress)
+                                .method(method)
+                                .details(details)
+                                .outcome(outcome)
+                                .timestamp(timestamp)
+                                .previousHash(previousHash)
+                                .currentHash(currentHash)
+                                .build();
+                        if (!action.test(entry)) {
+                            return;
+                        }
+                    }
+                    previousHash = currentHash;
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Corrupt audit segment file", e);
+            } finally {
+                cursors.values().forEach(ColumnCursor::close);
+            }
+        }
+
+        /**
+         * Sequential decoder over one column, reading the file from that column's offset
+         */
+        private final class ColumnCursor implements Closeable {
+
+            private final Column column;
+            private final DataInputStream in;
+            private final List<String> dictionary = new ArrayList<>();
+            private final byte[] hash = new byte[32];
+            private long running;
+
+            ColumnCursor(Column column) throws IOException {
+                Long offset = offsets.get(column);
+                if (offset == null) {
+                    throw new IllegalStateException("Audit segment is missing column " + column);
+                }
+                this.column = column;
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                try {
+                    channel.position(offset);
+                } catch (IOException e) {
+                    channel.close();
+                    throw e;
+                }
+                this.in = new DataInputStream(new InflaterInputStream(
+                        new BufferedInputStream(Channels.newInputStream(channel), IO_BUFFER_SIZE)));
+            }
+
+            Object next() throws IOException {
+                return switch (column) {
+                    case ID -> running += unzigzag(readVarLong(in));
+                    case TIMESTAMP -> fromMicros(running += unzigzag(readVarLong(in)));
+                    case USER_ID -> {
+                        long raw = readVarLong(in);
+                        yield raw == 0 ? null : unzigzag(raw - 1);
+                    }
+                    case CURRENT_HASH -> {
+                        in.readFully(hash);
+                        yield HexFormat.of().formatHex(hash);
+                    }
+                    default -> nextString();
+                };
+            }
+
+            private String nextString() throws IOException {
+                int code = (int) readVarLong(in);
+                if (code == NULL_CODE) {
+                    return null;
+                }
+                if (code == LITERAL_CODE) {
+                    return readBytes(in);
+                }
+                if (code == NEW_ENTRY_CODE) {
+                    String value = readBytes(in);
+                    dictionary.add(value);
+                    return value;
+                }
+                if (code - FIRST_ENTRY_CODE >= dictionary.size()) {
+                    throw new IOException("Unknown dictionary entry in column " + column);
+                }
+                return dictionary.get(code - FIRST_ENTRY_CODE);
+            }
+
+            @Override
+            public void close() {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                    // Read-only
+                }
+            }
+        }
+    }
+
+    private static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Unexpected end of column");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static void writeBytes(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
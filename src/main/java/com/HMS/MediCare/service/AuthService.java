@@ -5,12 +5,14 @@ import com.HMS.MediCare.dto.response.AuthResponse;
 import com.HMS.MediCare.entity.Doctor;
 import com.HMS.MediCare.entity.Patient;
 import com.HMS.MediCare.exception.BadRequestException;
+import com.HMS.MediCare.exception.UnauthorizedException;
 import com.HMS.MediCare.repository.DoctorRepository;
 import com.HMS.MediCare.repository.PatientRepository;
 import com.HMS.MediCare.security.JwtService;
+import com.HMS.MediCare.security.PasswordVerifier;
+import com.HMS.MediCare.security.VerifiedToken;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 /**
@@ -23,7 +25,7 @@ public class AuthService {
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
     private final JwtService jwtService;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final PasswordVerifier passwordVerifier;
 
     @Value("${admin.email:admin@medicare.com}")
     private String adminEmail;
@@ -35,10 +37,11 @@ public class AuthService {
      * Authenticate patient and return JWT tokens
      */
     public AuthResponse authenticatePatient(AuthRequest request) {
+        passwordVerifier.checkNotLockedOut(request.getEmail());
         Patient patient = patientRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new BadRequestException("Invalid email or password"));
+                .orElseThrow(() -> invalidCredentials(request.getEmail()));
 
-        if (!passwordEncoder.matches(request.getPassword(), patient.getPassword())) {
+        if (!passwordVerifier.matches(request.getEmail(), request.getPassword(), patient.getPassword())) {
             throw new BadRequestException("Invalid email or password");
         }
 
@@ -49,10 +52,11 @@ public class AuthService {
      * Authenticate doctor and return JWT tokens
      */
     public AuthResponse authenticateDoctor(AuthRequest request) {
+        passwordVerifier.checkNotLockedOut(request.getEmail());
         Doctor doctor = doctorRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new BadRequestException("Invalid email or password"));
+                .orElseThrow(() -> invalidCredentials(request.getEmail()));
 
-        if (!passwordEncoder.matches(request.getPassword(), doctor.getPassword())) {
+        if (!passwordVerifier.matches(request.getEmail(), request.getPassword(), doctor.getPassword())) {
             throw new BadRequestException("Invalid email or password");
         }
 
@@ -76,36 +80,50 @@ public class AuthService {
     }
 
     /**
-     * Refresh access token using refresh token
+     * Exchange a refresh token for a new token pair; the old refresh token is
+     * revoked, so each one can be used once. Verification alone can race another
+     * refresh of the same token (here or on another node); the revocation insert
+     * decides, and the loser gets 401
      */
     public AuthResponse refreshToken(String refreshToken) {
-        if (!jwtService.isValidToken(refreshToken)) {
-            throw new BadRequestException("Invalid or expired refresh token");
-        }
+        VerifiedToken token = jwtService.verify(refreshToken)
+                .orElseThrow(() -> new BadRequestException("Invalid or expired refresh token"));
 
-        String tokenType = jwtService.extractTokenType(refreshToken);
-        if (!"refresh".equals(tokenType)) {
+        if (!token.isRefreshToken()) {
             throw new BadRequestException("Invalid token type. Use refresh token.");
         }
 
-        Long userId = jwtService.extractUserId(refreshToken);
-        String email = jwtService.extractUsername(refreshToken);
-        String role = jwtService.extractRole(refreshToken);
-
-        // Generate new access token (keep same refresh token until it expires)
-        String newAccessToken = jwtService.generateAccessToken(userId, email, role);
+        if (!jwtService.revoke(token, "ROTATED")) {
+            throw new UnauthorizedException("Refresh token has already been used");
+        }
 
         return AuthResponse.builder()
-                .accessToken(newAccessToken)
-                .refreshToken(refreshToken) // Return same refresh token
+                .accessToken(jwtService.generateAccessToken(token.userId(), token.email(), token.role()))
+                .refreshToken(jwtService.generateRefreshToken(token.userId(), token.email(), token.role()))
                 .tokenType("Bearer")
                 .expiresIn(900L) // 15 minutes
-                .id(userId)
-                .email(email)
-                .role(role)
+                .id(token.userId())
+                .email(token.email())
+                .role(token.role())
                 .build();
     }
 
+    /**
+     * Revoke the caller's access token and, when supplied, its refresh token
+     */
+    public void logout(String accessToken, String refreshToken) {
+        jwtService.verify(accessToken).ifPresent(token -> jwtService.revoke(token, "LOGOUT"));
+        jwtService.verify(refreshToken)
+                .filter(VerifiedToken::isRefreshToken)
+                .ifPresent(token -> jwtService.revoke(token, "LOGOUT"));
+    }
+
+    // Unknown emails count towards the lockout like wrong passwords
+    private BadRequestException invalidCredentials(String email) {
+        passwordVerifier.recordFailure(email);
+        return new BadRequestException("Invalid email or password");
+    }
+
     /**
      * Build auth response with tokens
      */
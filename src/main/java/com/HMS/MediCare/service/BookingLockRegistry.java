@@ -0,0 +1,65 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.exception.BadRequestException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped in-process locks for appointment booking
+ * - Serializes bookings only for the same (doctor, date) key
+ * - Lock is held until the booking transaction completes, so the next
+ *   holder's conflict check always sees the committed row
+ * - Cross-node safety comes from the uk_appointment_active_slot unique index
+ */
+@Component
+public class BookingLockRegistry {
+
+    private static final int STRIPES = 256; // power of two
+    private static final long LOCK_TIMEOUT_MS = 5_000;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public BookingLockRegistry() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Acquire the stripe for a doctor's day and release it when the current
+     * transaction commits or rolls back
+     */
+    public void lockUntilCompletion(Long doctorId, LocalDate date) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Booking locks require an active transaction");
+        }
+
+        ReentrantLock lock = locks[stripeFor(doctorId, date)];
+        try {
+            if (!lock.tryLock(LOCK_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new BadRequestException("Doctor's schedule is busy, please try again");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BadRequestException("Booking was interrupted, please try again");
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    private static int stripeFor(Long doctorId, LocalDate date) {
+        int hash = 31 * doctorId.hashCode() + date.hashCode();
+        hash ^= (hash >>> 16);
+        return hash & (STRIPES - 1);
+    }
+}
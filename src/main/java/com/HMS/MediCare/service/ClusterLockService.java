@@ -0,0 +1,83 @@
+package com.HMS.MediCare.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Cross-node mutual exclusion for long-running maintenance jobs
+ * - Each lock is a cluster_locks row; acquiring is a single conditional UPDATE
+ *   that only succeeds once the current lease has run out
+ * - Leases expire on their own, so a crashed node never blocks the others for
+ *   longer than the lease; long jobs extend it as they make progress
+ * - Exclusive across threads too: a second caller on the same node is refused
+ *   like one on another node
+ */
+@Service
+@Slf4j
+public class ClusterLockService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO cluster_locks (name, locked_until) SELECT ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM cluster_locks WHERE name = ?)";
+    private static final String ACQUIRE_SQL =
+            "UPDATE cluster_locks SET locked_until = ?, locked_by = ?, locked_at = ? " +
+            "WHERE name = ? AND locked_until <= ?";
+    private static final String EXTEND_SQL =
+            "UPDATE cluster_locks SET locked_until = ? WHERE name = ? AND locked_by = ? AND locked_until > ?";
+    private static final String RELEASE_SQL =
+            "UPDATE cluster_locks SET locked_until = ?, locked_by = NULL WHERE name = ? AND locked_by = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String owner;
+
+    public ClusterLockService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.owner = hostName() + "-" + UUID.randomUUID();
+    }
+
+    /**
+     * Take the named lock for the given lease; false when another holder's lease is still running
+     */
+    public boolean tryAcquire(String name, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            jdbcTemplate.update(INSERT_SQL, name, now, name);
+        } catch (DuplicateKeyException e) {
+            // Created by another node at the same moment
+        }
+        boolean acquired = jdbcTemplate.update(ACQUIRE_SQL, now.plus(lease), owner, now, name, now) == 1;
+        if (!acquired) {
+            log.debug("Cluster lock {} is held elsewhere", name);
+        }
+        return acquired;
+    }
+
+    /**
+     * Push the lease of a lock this node holds; false when it has already run out
+     */
+    public boolean extend(String name, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update(EXTEND_SQL, now.plus(lease), name, owner, now) == 1;
+    }
+
+    public void release(String name) {
+        jdbcTemplate.update(RELEASE_SQL, LocalDateTime.now(), name, owner);
+    }
+
+    private static String hostName() {
+        try {
+            String host = InetAddress.getLocalHost().getHostName();
+            return host.length() > 60 ? host.substring(0, 60) : host;
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -4,17 +4,30 @@ import com.HMS.MediCare.dto.response.DashboardStatsResponse;
 import com.HMS.MediCare.dto.response.RevenueReportResponse;
 import com.HMS.MediCare.enums.AppointmentStatus;
 import com.HMS.MediCare.enums.PaymentStatus;
+import com.HMS.MediCare.enums.RevenueGranularity;
+import com.HMS.MediCare.enums.RollupMetric;
+import com.HMS.MediCare.exception.BadRequestException;
+import com.HMS.MediCare.repository.MetricRollupRepository;
 import com.HMS.MediCare.repository.PatientRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @RequiredArgsConstructor
@@ -22,57 +35,168 @@ import java.util.List;
 public class DashboardService {
 
     private final PatientRepository patientRepository;
+    private final MetricRollupRepository rollupRepository;
     private final DoctorService doctorService;
-    private final AppointmentService appointmentService;
-    private final PaymentService paymentService;
 
+    // How long a computed dashboard snapshot is served before it is rebuilt
+    @Value("${dashboard.stats.ttl-seconds:5}")
+    private long statsTtlSeconds;
+
+    private volatile StatsSnapshot statsSnapshot;
+    private final AtomicReference<CompletableFuture<DashboardStatsResponse>> statsInFlight = new AtomicReference<>();
+
+    /**
+     * Dashboard counters, served from a short-lived snapshot.
+     * Concurrent callers on an expired snapshot share a single recomputation.
+     * Runs outside a transaction so waiting callers do not hold a connection.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public DashboardStatsResponse getDashboardStats() {
+        StatsSnapshot current = statsSnapshot;
+        if (current != null && current.isFresh(statsTtlSeconds)) {
+            return current.stats();
+        }
+
+        CompletableFuture<DashboardStatsResponse> mine = new CompletableFuture<>();
+        CompletableFuture<DashboardStatsResponse> leader = statsInFlight.compareAndExchange(null, mine);
+        if (leader != null) {
+            return awaitStats(leader);
+        }
+
+        try {
+            // A previous leader may have refreshed the snapshot while we were checking
+            StatsSnapshot latest = statsSnapshot;
+            DashboardStatsResponse stats = latest != null && latest.isFresh(statsTtlSeconds)
+                    ? latest.stats()
+                    : computeDashboardStats();
+            if (latest == null || latest.stats() != stats) {
+                statsSnapshot = new StatsSnapshot(stats, System.nanoTime());
+            }
+            mine.complete(stats);
+            return stats;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            statsInFlight.set(null);
+        }
+    }
+
+    /**
+     * Drop the cached snapshot so the next call recomputes
+     */
+    public void evictDashboardStats() {
+        statsSnapshot = null;
+    }
+
+    // Four queries: patients, doctors, and the appointment and payment rollups grouped by status
+    private DashboardStatsResponse computeDashboardStats() {
+        LocalDate today = LocalDate.now();
+        long totalAppointments = 0;
+        long todayAppointments = 0;
+        Map<AppointmentStatus, Long> appointmentsByStatus = new EnumMap<>(AppointmentStatus.class);
+        for (Object[] row : rollupRepository.summarizeByStatus(RollupMetric.APPOINTMENTS, today)) {
+            long count = ((Number) row[1]).longValue();
+            appointmentsByStatus.put(AppointmentStatus.valueOf((String) row[0]), count);
+            totalAppointments += count;
+            todayAppointments += ((Number) row[3]).longValue();
+        }
+
+        long totalPayments = 0;
+        Map<PaymentStatus, Long> paymentsByStatus = new EnumMap<>(PaymentStatus.class);
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        for (Object[] row : rollupRepository.summarizeByStatus(RollupMetric.PAYMENTS, today)) {
+            PaymentStatus status = PaymentStatus.valueOf((String) row[0]);
+            long count = ((Number) row[1]).longValue();
+            paymentsByStatus.put(status, count);
+            totalPayments += count;
+            if (status == PaymentStatus.PAID) {
+                totalRevenue = new BigDecimal(row[2].toString());
+            }
+        }
+
         return DashboardStatsResponse.builder()
                 .totalPatients(patientRepository.count())
                 .totalDoctors(doctorService.countDoctors())
-                .totalAppointments(appointmentService.countAppointments())
-                .pendingAppointments(appointmentService.countByStatus(AppointmentStatus.PENDING))
-                .confirmedAppointments(appointmentService.countByStatus(AppointmentStatus.CONFIRMED))
-                .completedAppointments(appointmentService.countByStatus(AppointmentStatus.COMPLETED))
-                .cancelledAppointments(appointmentService.countByStatus(AppointmentStatus.CANCELLED))
-                .todayAppointments(appointmentService.countTodayAppointments())
-                .totalPayments(paymentService.countPayments())
-                .paidPayments(paymentService.countByStatus(PaymentStatus.PAID))
-                .pendingPayments(paymentService.countByStatus(PaymentStatus.PENDING))
-                .totalRevenue(paymentService.getTotalRevenue())
+                .totalAppointments(totalAppointments)
+                .pendingAppointments(appointmentsByStatus.getOrDefault(AppointmentStatus.PENDING, 0L))
+                .confirmedAppointments(appointmentsByStatus.getOrDefault(AppointmentStatus.CONFIRMED, 0L))
+                .completedAppointments(appointmentsByStatus.getOrDefault(AppointmentStatus.COMPLETED, 0L))
+                .cancelledAppointments(appointmentsByStatus.getOrDefault(AppointmentStatus.CANCELLED, 0L))
+                .todayAppointments(todayAppointments)
+                .totalPayments(totalPayments)
+                .paidPayments(paymentsByStatus.getOrDefault(PaymentStatus.PAID, 0L))
+                .pendingPayments(paymentsByStatus.getOrDefault(PaymentStatus.PENDING, 0L))
+                .totalRevenue(totalRevenue)
                 .build();
     }
 
-    public RevenueReportResponse getRevenueReport(LocalDate startDate, LocalDate endDate) {
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
-
-        BigDecimal totalRevenue = paymentService.getRevenueByDateRange(startDateTime, endDateTime);
-        
-        // Generate daily revenue breakdown (simplified)
-        List<RevenueReportResponse.DailyRevenue> dailyRevenue = new ArrayList<>();
-        LocalDate current = startDate;
-        while (!current.isAfter(endDate)) {
-            LocalDateTime dayStart = current.atStartOfDay();
-            LocalDateTime dayEnd = current.atTime(LocalTime.MAX);
-            BigDecimal dayRevenue = paymentService.getRevenueByDateRange(dayStart, dayEnd);
-            
-            if (dayRevenue != null && dayRevenue.compareTo(BigDecimal.ZERO) > 0) {
-                dailyRevenue.add(RevenueReportResponse.DailyRevenue.builder()
-                        .date(current)
-                        .revenue(dayRevenue)
-                        .transactionCount(1) // Simplified
-                        .build());
+    private static DashboardStatsResponse awaitStats(CompletableFuture<DashboardStatsResponse> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
-            current = current.plusDays(1);
+            throw e;
+        }
+    }
+
+    public RevenueReportResponse getRevenueReport(LocalDate startDate, LocalDate endDate) {
+        return getRevenueReport(startDate, endDate, RevenueGranularity.DAY);
+    }
+
+    /**
+     * Revenue and PAID transaction counts per day, week or month.
+     * A single query over the daily payment rollups; weeks and months are folded in memory.
+     */
+    public RevenueReportResponse getRevenueReport(LocalDate startDate, LocalDate endDate,
+                                                  RevenueGranularity granularity) {
+        if (startDate.isAfter(endDate)) {
+            throw new BadRequestException("startDate must not be after endDate");
+        }
+
+        Map<LocalDate, RevenueReportResponse.DailyRevenue> buckets = new TreeMap<>();
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        long totalTransactions = 0;
+        for (Object[] row : rollupRepository.summarizeByDay(
+                RollupMetric.PAYMENTS, PaymentStatus.PAID.name(), startDate, endDate)) {
+            LocalDate day = (LocalDate) row[0];
+            BigDecimal revenue = row[1] != null ? new BigDecimal(row[1].toString()) : BigDecimal.ZERO;
+            long count = ((Number) row[2]).longValue();
+            totalRevenue = totalRevenue.add(revenue);
+            totalTransactions += count;
+
+            RevenueReportResponse.DailyRevenue bucket = buckets.computeIfAbsent(
+                    bucketStart(day, startDate, granularity),
+                    date -> new RevenueReportResponse.DailyRevenue(date, BigDecimal.ZERO, 0));
+            bucket.setRevenue(bucket.getRevenue().add(revenue));
+            bucket.setTransactionCount(bucket.getTransactionCount() + count);
         }
 
         return RevenueReportResponse.builder()
                 .startDate(startDate)
                 .endDate(endDate)
-                .totalRevenue(totalRevenue != null ? totalRevenue : BigDecimal.ZERO)
-                .totalTransactions(paymentService.countByStatus(PaymentStatus.PAID))
-                .dailyRevenue(dailyRevenue)
+                .granularity(granularity)
+                .totalRevenue(totalRevenue)
+                .totalTransactions(totalTransactions)
+                .dailyRevenue(new ArrayList<>(buckets.values()))
                 .build();
     }
+
+    // First day of the bucket holding the given day, clipped to the report start
+    private static LocalDate bucketStart(LocalDate day, LocalDate reportStart, RevenueGranularity granularity) {
+        LocalDate start = switch (granularity) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+        return start.isBefore(reportStart) ? reportStart : start;
+    }
+
+    private record StatsSnapshot(DashboardStatsResponse stats, long computedAtNanos) {
+        boolean isFresh(long ttlSeconds) {
+            return System.nanoTime() - computedAtNanos < TimeUnit.SECONDS.toNanos(ttlSeconds);
+        }
+    }
 }
@@ -2,15 +2,15 @@ package com.HMS.MediCare.service;
 
 import com.HMS.MediCare.dto.request.DoctorRequest;
 import com.HMS.MediCare.dto.request.LoginRequest;
+import com.HMS.MediCare.dto.response.AvailabilityMatrixResponse;
 import com.HMS.MediCare.dto.response.AvailableSlotsResponse;
 import com.HMS.MediCare.dto.response.DoctorResponse;
-import com.HMS.MediCare.entity.Appointment;
 import com.HMS.MediCare.entity.Doctor;
 import com.HMS.MediCare.exception.BadRequestException;
 import com.HMS.MediCare.exception.DuplicateResourceException;
 import com.HMS.MediCare.exception.ResourceNotFoundException;
-import com.HMS.MediCare.repository.AppointmentRepository;
 import com.HMS.MediCare.repository.DoctorRepository;
+import com.HMS.MediCare.security.PasswordVerifier;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -20,9 +20,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
@@ -33,8 +33,13 @@ import org.springframework.cache.annotation.Caching;
 @Transactional
 public class DoctorService {
 
+    private static final int SLOT_MINUTES = 30;
+    private static final int MAX_MATRIX_DAYS = 31;
+    private static final int MAX_MATRIX_DOCTORS = 100;
+
     private final DoctorRepository doctorRepository;
-    private final AppointmentRepository appointmentRepository;
+    private final SlotOccupancyIndex slotOccupancyIndex;
+    private final PasswordVerifier passwordVerifier;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     @CacheEvict(value = {"doctors", "doctorSlots"}, allEntries = true)
@@ -62,10 +67,14 @@ public class DoctorService {
     }
 
     public DoctorResponse login(LoginRequest request) {
+        passwordVerifier.checkNotLockedOut(request.getEmail());
         Doctor doctor = doctorRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new BadRequestException("Invalid email or password"));
+                .orElseThrow(() -> {
+                    passwordVerifier.recordFailure(request.getEmail());
+                    return new BadRequestException("Invalid email or password");
+                });
 
-        if (!passwordEncoder.matches(request.getPassword(), doctor.getPassword())) {
+        if (!passwordVerifier.matches(request.getEmail(), request.getPassword(), doctor.getPassword())) {
             throw new BadRequestException("Invalid email or password");
         }
 
@@ -150,25 +159,9 @@ public class DoctorService {
         Doctor doctor = doctorRepository.findById(doctorId)
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor", "id", doctorId));
 
-        // Get all booked appointments for the doctor on the given date
-        List<Appointment> bookedAppointments = appointmentRepository
-                .findByDoctorIdAndAppointmentDate(doctorId, date);
-        
-        Set<LocalTime> bookedSlots = bookedAppointments.stream()
-                .map(Appointment::getTimeSlot)
-                .collect(Collectors.toSet());
-
-        // Generate available slots (30-minute intervals)
-        List<LocalTime> availableSlots = new ArrayList<>();
-        LocalTime current = doctor.getAvailableFrom();
-        LocalTime end = doctor.getAvailableTo();
-
-        while (current.isBefore(end)) {
-            if (!bookedSlots.contains(current)) {
-                availableSlots.add(current);
-            }
-            current = current.plusMinutes(30);
-        }
+        // Answer from the in-memory occupancy index (30-minute intervals)
+        List<LocalTime> availableSlots = slotOccupancyIndex.findAvailableSlots(
+                doctorId, date, doctor.getAvailableFrom(), doctor.getAvailableTo(), SLOT_MINUTES);
 
         return AvailableSlotsResponse.builder()
                 .doctorId(doctorId)
@@ -177,6 +170,58 @@ public class DoctorService {
                 .build();
     }
 
+    @Transactional(readOnly = true)
+    public AvailabilityMatrixResponse getAvailabilityMatrix(List<Long> doctorIds, String specialization,
+                                                            LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new BadRequestException("End date must not be before start date");
+        }
+        int days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        if (days > MAX_MATRIX_DAYS) {
+            throw new BadRequestException("Date range must not exceed " + MAX_MATRIX_DAYS + " days");
+        }
+
+        List<Doctor> doctors;
+        if (doctorIds != null && !doctorIds.isEmpty()) {
+            doctors = doctorRepository.findAllById(doctorIds);
+        } else if (specialization != null && !specialization.isBlank()) {
+            doctors = doctorRepository.findBySpecializationContainingIgnoreCase(specialization);
+        } else {
+            throw new BadRequestException("Either doctorIds or specialization is required");
+        }
+        if (doctors.size() > MAX_MATRIX_DOCTORS) {
+            throw new BadRequestException("At most " + MAX_MATRIX_DOCTORS + " doctors per request");
+        }
+
+        // One grouped query fills every (doctor, day) the occupancy index has not seen yet
+        slotOccupancyIndex.warmRange(
+                doctors.stream().map(Doctor::getId).collect(Collectors.toList()), startDate, endDate);
+
+        List<AvailabilityMatrixResponse.DoctorAvailability> rows = new ArrayList<>(doctors.size());
+        for (Doctor doctor : doctors) {
+            long[] masks = new long[days];
+            for (int d = 0; d < days; d++) {
+                masks[d] = slotOccupancyIndex.freeSlotMask(doctor.getId(), startDate.plusDays(d),
+                        doctor.getAvailableFrom(), doctor.getAvailableTo(), SLOT_MINUTES);
+            }
+            rows.add(AvailabilityMatrixResponse.DoctorAvailability.builder()
+                    .doctorId(doctor.getId())
+                    .doctorName(doctor.getName())
+                    .specialization(doctor.getSpecialization())
+                    .availableFrom(doctor.getAvailableFrom())
+                    .availableTo(doctor.getAvailableTo())
+                    .freeSlotMasks(masks)
+                    .build());
+        }
+
+        return AvailabilityMatrixResponse.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .slotMinutes(SLOT_MINUTES)
+                .doctors(rows)
+                .build();
+    }
+
     public Doctor getDoctorEntityById(Long id) {
         return doctorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor", "id", id));
@@ -0,0 +1,154 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.response.AppointmentResponse;
+import com.HMS.MediCare.dto.response.PatientResponse;
+import com.HMS.MediCare.entity.Patient;
+import com.HMS.MediCare.enums.ExportFormat;
+import com.HMS.MediCare.repository.AppointmentRepository;
+import com.HMS.MediCare.repository.PatientRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Streaming exports of whole tables
+ * - Rows come from a forward-only JDBC cursor and are written as they arrive
+ * - Managed entities are detached after writing, so heap use does not grow with row count
+ * - Callers own the output stream; it is flushed but never closed here
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportService {
+
+    private static final String[] APPOINTMENT_COLUMNS = {
+            "id", "patientId", "patientName", "doctorId", "doctorName", "doctorSpecialization",
+            "date", "time", "status", "symptoms", "isTelehealth", "telehealthRoomName", "createdAt"
+    };
+
+    private static final String[] PATIENT_COLUMNS = {
+            "id", "name", "age", "phone", "email", "address", "gender", "bloodGroup",
+            "emergencyContact", "riskLevel", "primaryPhysician", "insuranceProvider", "insuranceId",
+            "acuityLevel", "alertReason", "createdAt"
+    };
+
+    private final AppointmentRepository appointmentRepository;
+    private final PatientRepository patientRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public long exportAppointments(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<AppointmentResponse> rows = appointmentRepository.streamAllResponses()) {
+            Iterator<AppointmentResponse> iterator = rows.iterator();
+            long count = format == ExportFormat.CSV
+                    ? writeCsv(iterator, APPOINTMENT_COLUMNS, ExportService::appointmentRow, out)
+                    : writeNdjson(iterator, out);
+            log.info("Exported {} appointments as {}", count, format);
+            return count;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportPatients(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<Patient> rows = patientRepository.streamAll()) {
+            // Map and detach one entity at a time so the persistence context stays empty
+            Iterator<PatientResponse> iterator = rows.map(patient -> {
+                PatientResponse response = PatientService.mapToResponse(patient);
+                entityManager.detach(patient);
+                return response;
+            }).iterator();
+            long count = format == ExportFormat.CSV
+                    ? writeCsv(iterator, PATIENT_COLUMNS, ExportService::patientRow, out)
+                    : writeNdjson(iterator, out);
+            log.info("Exported {} patients as {}", count, format);
+            return count;
+        }
+    }
+
+    private long writeNdjson(Iterator<?> rows, OutputStream out) throws IOException {
+        long count = 0;
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(out)) {
+            while (rows.hasNext()) {
+                writer.write(rows.next());
+                count++;
+            }
+        }
+        if (count > 0) {
+            out.write('\n');
+        }
+        out.flush();
+        return count;
+    }
+
+    private <T> long writeCsv(Iterator<T> rows, String[] columns,
+                              Function<T, Object[]> toRow, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeCsvLine(writer, columns);
+        long count = 0;
+        while (rows.hasNext()) {
+            writeCsvLine(writer, toRow.apply(rows.next()));
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180 quoting: wrap fields containing separators, quotes or line breaks
+    private static String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    private static Object[] appointmentRow(AppointmentResponse a) {
+        return new Object[]{
+                a.getId(), a.getPatientId(), a.getPatientName(), a.getDoctorId(), a.getDoctorName(),
+                a.getDoctorSpecialization(), a.getDate(), a.getTime(), a.getStatus(), a.getSymptoms(),
+                a.getIsTelehealth(), a.getTelehealthRoomName(), a.getCreatedAt()
+        };
+    }
+
+    private static Object[] patientRow(PatientResponse p) {
+        return new Object[]{
+                p.getId(), p.getName(), p.getAge(), p.getPhone(), p.getEmail(), p.getAddress(),
+                p.getGender(), p.getBloodGroup(), p.getEmergencyContact(), p.getRiskLevel(),
+                p.getPrimaryPhysician(), p.getInsuranceProvider(), p.getInsuranceId(),
+                p.getAcuityLevel(), p.getAlertReason(), p.getCreatedAt()
+        };
+    }
+}
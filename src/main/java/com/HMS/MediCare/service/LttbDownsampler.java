@@ -0,0 +1,66 @@
+package com.HMS.MediCare.service;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling of a time-ordered series
+ * Keeps the first and last points and, from each of threshold - 2 equal buckets
+ * in between, the point forming the largest triangle with the previously kept
+ * point and the average of the next bucket. Peaks and dips survive, which plain
+ * averaging or striding would flatten.
+ */
+final class LttbDownsampler {
+
+    private LttbDownsampler() {
+    }
+
+    /**
+     * Indexes of the points to keep, ascending; all of them when size <= threshold
+     */
+    static int[] select(long[] timestamps, double[] values, int size, int threshold) {
+        if (threshold >= size || threshold < 3) {
+            int[] all = new int[size];
+            for (int i = 0; i < size; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] kept = new int[threshold];
+        // Relative times keep the area products well inside double precision
+        long origin = timestamps[0];
+        double bucketSize = (double) (size - 2) / (threshold - 2);
+        int a = 0;
+        kept[0] = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += timestamps[i] - origin;
+                avgY += values[i];
+            }
+            int nextCount = nextEnd - nextStart;
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = nextStart;
+            double ax = timestamps[a] - origin;
+            double ay = values[a];
+            double maxArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                // Twice the triangle area; only the comparison matters
+                double area = Math.abs((ax - avgX) * (values[i] - ay) - (ax - (timestamps[i] - origin)) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+            kept[bucket + 1] = chosen;
+            a = chosen;
+        }
+        kept[threshold - 1] = size - 1;
+        return kept;
+    }
+}
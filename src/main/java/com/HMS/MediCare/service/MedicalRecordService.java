@@ -26,6 +26,7 @@ public class MedicalRecordService {
     private final MedicalRecordRepository medicalRecordRepository;
     private final PatientService patientService;
     private final AppointmentService appointmentService;
+    private final RollupService rollupService;
 
     public MedicalRecordResponse createRecord(Long doctorId, MedicalRecordRequest request, Doctor doctor) {
         Patient patient = patientService.getPatientEntityById(request.getPatientId());
@@ -45,7 +46,9 @@ public class MedicalRecordService {
         MedicalRecord savedRecord = medicalRecordRepository.save(record);
 
         // Mark appointment as completed
+        AppointmentStatus previousStatus = appointment.getStatus();
         appointment.setStatus(AppointmentStatus.COMPLETED);
+        rollupService.recordAppointmentAfterCommit(appointment, previousStatus, AppointmentStatus.COMPLETED);
 
         return mapToResponse(savedRecord);
     }
@@ -3,15 +3,18 @@ package com.HMS.MediCare.service;
 import com.HMS.MediCare.dto.request.LoginRequest;
 import com.HMS.MediCare.dto.request.PatientRegistrationRequest;
 import com.HMS.MediCare.dto.request.PatientSearchRequest;
+import com.HMS.MediCare.dto.response.CursorPage;
 import com.HMS.MediCare.dto.response.PatientResponse;
 import com.HMS.MediCare.entity.Patient;
 import com.HMS.MediCare.exception.BadRequestException;
 import com.HMS.MediCare.exception.DuplicateResourceException;
 import com.HMS.MediCare.exception.ResourceNotFoundException;
 import com.HMS.MediCare.repository.PatientRepository;
+import com.HMS.MediCare.security.PasswordVerifier;
 import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -30,6 +33,7 @@ import java.util.stream.Collectors;
 public class PatientService {
 
     private final PatientRepository patientRepository;
+    private final PasswordVerifier passwordVerifier;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     public PatientResponse register(PatientRegistrationRequest request) {
@@ -54,10 +58,14 @@ public class PatientService {
     }
 
     public PatientResponse login(LoginRequest request) {
+        passwordVerifier.checkNotLockedOut(request.getEmail());
         Patient patient = patientRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new BadRequestException("Invalid email or password"));
+                .orElseThrow(() -> {
+                    passwordVerifier.recordFailure(request.getEmail());
+                    return new BadRequestException("Invalid email or password");
+                });
 
-        if (!passwordEncoder.matches(request.getPassword(), patient.getPassword())) {
+        if (!passwordVerifier.matches(request.getEmail(), request.getPassword(), patient.getPassword())) {
             throw new BadRequestException("Invalid email or password");
         }
 
@@ -74,14 +82,31 @@ public class PatientService {
     @Transactional(readOnly = true)
     public List<PatientResponse> getAllPatients() {
         return patientRepository.findAll().stream()
-                .map(this::mapToResponse)
+                .map(PatientService::mapToResponse)
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public Page<PatientResponse> getAllPatientsPaginated(Pageable pageable) {
         return patientRepository.findAll(pageable)
-                .map(this::mapToResponse);
+                .map(PatientService::mapToResponse);
+    }
+
+    // Keyset page of all patients, newest first, without a count query
+    @Transactional(readOnly = true)
+    public CursorPage<PatientResponse> getAllPatientsByCursor(String cursor, int size) {
+        CursorPage.validateSize(size);
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<Patient> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = patientRepository.findNewestFirst(limit);
+        } else {
+            CursorPage.Cursor position = CursorPage.Cursor.decode(cursor);
+            rows = patientRepository.findNewestFirstBefore(position.sortKeyAsDateTime(), position.id(), limit);
+        }
+        return CursorPage.of(rows.stream().map(PatientService::mapToResponse).collect(Collectors.toList()), size,
+                p -> new CursorPage.Cursor(p.getCreatedAt().toString(), p.getId()));
     }
 
     // Quick search for auto-suggestions (searches across name, email, phone, ID)
@@ -90,12 +115,12 @@ public class PatientService {
         if (query == null || query.trim().isEmpty()) {
             return patientRepository.findAll().stream()
                     .limit(10)
-                    .map(this::mapToResponse)
+                    .map(PatientService::mapToResponse)
                     .collect(Collectors.toList());
         }
         return patientRepository.quickSearch(query.trim()).stream()
                 .limit(10)
-                .map(this::mapToResponse)
+                .map(PatientService::mapToResponse)
                 .collect(Collectors.toList());
     }
 
@@ -103,7 +128,7 @@ public class PatientService {
     @Transactional(readOnly = true)
     public Page<PatientResponse> searchPatients(PatientSearchRequest request, Pageable pageable) {
         Specification<Patient> spec = buildSearchSpecification(request);
-        return patientRepository.findAll(spec, pageable).map(this::mapToResponse);
+        return patientRepository.findAll(spec, pageable).map(PatientService::mapToResponse);
     }
 
     private Specification<Patient> buildSearchSpecification(PatientSearchRequest request) {
@@ -219,7 +244,7 @@ public class PatientService {
                 .orElseThrow(() -> new ResourceNotFoundException("Patient", "id", id));
     }
 
-    private PatientResponse mapToResponse(Patient patient) {
+    static PatientResponse mapToResponse(Patient patient) {
         return PatientResponse.builder()
                 .id(patient.getId())
                 .name(patient.getName())
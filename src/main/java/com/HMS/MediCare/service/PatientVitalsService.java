@@ -5,6 +5,7 @@ import com.HMS.MediCare.dto.response.PatientVitalsResponse;
 import com.HMS.MediCare.entity.Appointment;
 import com.HMS.MediCare.entity.Patient;
 import com.HMS.MediCare.entity.PatientVitals;
+import com.HMS.MediCare.enums.VitalType;
 import com.HMS.MediCare.exception.ResourceNotFoundException;
 import com.HMS.MediCare.repository.AppointmentRepository;
 import com.HMS.MediCare.repository.PatientRepository;
@@ -18,6 +19,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -29,6 +31,7 @@ public class PatientVitalsService {
     private final PatientVitalsRepository vitalsRepository;
     private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository;
+    private final VitalsTimeSeriesService timeSeriesService;
 
     // Record new vitals
     public PatientVitalsResponse recordVitals(Long patientId, PatientVitalsRequest request) {
@@ -57,6 +60,7 @@ public class PatientVitalsService {
                 .build();
 
         PatientVitals saved = vitalsRepository.save(vitals);
+        appendToTimeSeries(saved);
         return mapToResponse(saved);
     }
 
@@ -99,6 +103,28 @@ public class PatientVitalsService {
         vitalsRepository.deleteById(vitalsId);
     }
 
+    private void appendToTimeSeries(PatientVitals vitals) {
+        Long patientId = vitals.getPatient().getId();
+        long recordedAt = vitals.getRecordedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        VitalReadingBuffer points = new VitalReadingBuffer(VitalType.values().length);
+        addPoint(points, patientId, VitalType.BLOOD_PRESSURE_SYSTOLIC, vitals.getSystolicBP(), recordedAt);
+        addPoint(points, patientId, VitalType.BLOOD_PRESSURE_DIASTOLIC, vitals.getDiastolicBP(), recordedAt);
+        addPoint(points, patientId, VitalType.HEART_RATE, vitals.getHeartRate(), recordedAt);
+        addPoint(points, patientId, VitalType.TEMPERATURE, vitals.getTemperature(), recordedAt);
+        addPoint(points, patientId, VitalType.WEIGHT, vitals.getWeight(), recordedAt);
+        addPoint(points, patientId, VitalType.OXYGEN_LEVEL, vitals.getOxygenSaturation(), recordedAt);
+        addPoint(points, patientId, VitalType.GLUCOSE_LEVEL, vitals.getBloodGlucose(), recordedAt);
+        addPoint(points, patientId, VitalType.RESPIRATORY_RATE, vitals.getRespiratoryRate(), recordedAt);
+        timeSeriesService.append(points);
+    }
+
+    private static void addPoint(VitalReadingBuffer points, Long patientId, VitalType type, Number value,
+                                 long recordedAt) {
+        if (value != null) {
+            points.add(0, patientId, type.ordinal(), value.doubleValue(), recordedAt);
+        }
+    }
+
     private PatientVitalsResponse mapToResponse(PatientVitals vitals) {
         PatientVitalsResponse response = PatientVitalsResponse.builder()
                 .id(vitals.getId())
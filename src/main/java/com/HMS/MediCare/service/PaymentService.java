@@ -14,6 +14,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -27,6 +28,7 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final AppointmentService appointmentService;
+    private final RollupService rollupService;
 
     public PaymentResponse createPayment(PaymentRequest request) {
         Appointment appointment = appointmentService.getAppointmentEntityById(request.getAppointmentId());
@@ -46,6 +48,7 @@ public class PaymentService {
                 .build();
 
         Payment savedPayment = paymentRepository.save(payment);
+        rollupService.recordPaymentAfterCommit(savedPayment, null, null);
         return mapToResponse(savedPayment);
     }
 
@@ -80,6 +83,8 @@ public class PaymentService {
     public PaymentResponse updatePaymentStatus(Long id, PaymentStatus newStatus, String transactionId) {
         Payment payment = paymentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", id));
+        PaymentStatus previousStatus = payment.getPaymentStatus();
+        LocalDate previousDate = RollupService.paymentBucketDate(payment);
 
         payment.setPaymentStatus(newStatus);
         
@@ -91,6 +96,7 @@ public class PaymentService {
         }
 
         Payment savedPayment = paymentRepository.save(payment);
+        rollupService.recordPaymentAfterCommit(savedPayment, previousStatus, previousDate);
         return mapToResponse(savedPayment);
     }
 
@@ -101,6 +107,8 @@ public class PaymentService {
         if (payment.getPaymentStatus() == PaymentStatus.PAID) {
             throw new BadRequestException("Payment already completed");
         }
+        PaymentStatus previousStatus = payment.getPaymentStatus();
+        LocalDate previousDate = RollupService.paymentBucketDate(payment);
 
         payment.setPaymentMethod(paymentMethod);
         payment.setPaymentStatus(PaymentStatus.PAID);
@@ -111,6 +119,7 @@ public class PaymentService {
         sendPaymentConfirmationEmail(payment);
 
         Payment savedPayment = paymentRepository.save(payment);
+        rollupService.recordPaymentAfterCommit(savedPayment, previousStatus, previousDate);
         return mapToResponse(savedPayment);
     }
 
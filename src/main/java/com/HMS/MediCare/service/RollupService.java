@@ -0,0 +1,266 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.response.RollupRebuildResponse;
+import com.HMS.MediCare.entity.Appointment;
+import com.HMS.MediCare.entity.MetricRollup;
+import com.HMS.MediCare.entity.Payment;
+import com.HMS.MediCare.enums.AppointmentStatus;
+import com.HMS.MediCare.enums.PaymentStatus;
+import com.HMS.MediCare.enums.RollupMetric;
+import com.HMS.MediCare.repository.AppointmentRepository;
+import com.HMS.MediCare.repository.MetricRollupRepository;
+import com.HMS.MediCare.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Incrementally maintained appointment and payment rollups
+ * - Services report state transitions; counters move only after the write commits
+ * - Each counter update runs in its own short transaction, so a rollup failure
+ *   never rolls back the business write (rebuild repairs any drift)
+ * - rebuild() recomputes everything from the raw tables and reports differences
+ */
+@Service
+@Slf4j
+public class RollupService {
+
+    private static final int MAX_REPORTED_DRIFT = 100;
+
+    private final MetricRollupRepository rollupRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate requiresNew;
+
+    public RollupService(MetricRollupRepository rollupRepository,
+                         AppointmentRepository appointmentRepository,
+                         PaymentRepository paymentRepository,
+                         PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.paymentRepository = paymentRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Record an appointment moving from one status to another; from is null for new bookings
+     */
+    public void recordAppointmentAfterCommit(Appointment appointment, AppointmentStatus from, AppointmentStatus to) {
+        if (from == to) {
+            return;
+        }
+        Long doctorId = appointment.getDoctor().getId();
+        LocalDate date = appointment.getAppointmentDate();
+
+        Map<RollupKey, Delta> deltas = new LinkedHashMap<>();
+        if (from != null) {
+            merge(deltas, new RollupKey(RollupMetric.APPOINTMENTS, date, doctorId, from.name()), -1, BigDecimal.ZERO);
+        }
+        merge(deltas, new RollupKey(RollupMetric.APPOINTMENTS, date, doctorId, to.name()), 1, BigDecimal.ZERO);
+        applyAfterCommit(deltas);
+    }
+
+    /**
+     * Record a payment's new state; previousStatus and previousDate are null for new payments
+     */
+    public void recordPaymentAfterCommit(Payment payment, PaymentStatus previousStatus, LocalDate previousDate) {
+        Long doctorId = payment.getDoctor().getId();
+        BigDecimal amount = payment.getAmount() != null ? payment.getAmount() : BigDecimal.ZERO;
+
+        Map<RollupKey, Delta> deltas = new LinkedHashMap<>();
+        if (previousStatus != null && previousDate != null) {
+            merge(deltas, new RollupKey(RollupMetric.PAYMENTS, previousDate, doctorId, previousStatus.name()),
+                    -1, amount.negate());
+        }
+        LocalDate date = paymentBucketDate(payment);
+        if (date != null) {
+            merge(deltas, new RollupKey(RollupMetric.PAYMENTS, date, doctorId,
+                    payment.getPaymentStatus().name()), 1, amount);
+        }
+        applyAfterCommit(deltas);
+    }
+
+    /**
+     * Day a payment is counted on: paid date once paid, otherwise creation date, as
+     * COALESCE(paidAt, createdAt) in the rebuild query. Null for legacy rows with neither,
+     * which neither path counts.
+     */
+    public static LocalDate paymentBucketDate(Payment payment) {
+        LocalDateTime countedAt = payment.getPaidAt() != null ? payment.getPaidAt() : payment.getCreatedAt();
+        return countedAt != null ? countedAt.toLocalDate() : null;
+    }
+
+    /**
+     * Recompute all rollups from appointments and payments, replacing the stored rows.
+     * Writes that commit while the rebuild runs may be missed; run it in a quiet period
+     * or simply run it again.
+     */
+    @Transactional
+    public RollupRebuildResponse rebuild() {
+        Map<RollupKey, Delta> expected = new HashMap<>();
+        for (Object[] row : appointmentRepository.summarizeForRollup()) {
+            RollupKey key = new RollupKey(RollupMetric.APPOINTMENTS, (LocalDate) row[1], (Long) row[0],
+                    ((AppointmentStatus) row[2]).name());
+            merge(expected, key, ((Number) row[3]).longValue(), BigDecimal.ZERO);
+        }
+        for (Object[] row : paymentRepository.summarizeForRollup()) {
+            if (row[1] == null) {
+                // Neither paid nor created date; not counted incrementally either
+                continue;
+            }
+            RollupKey key = new RollupKey(RollupMetric.PAYMENTS, (LocalDate) row[1], (Long) row[0],
+                    ((PaymentStatus) row[2]).name());
+            merge(expected, key, ((Number) row[3]).longValue(), toBigDecimal(row[4]));
+        }
+
+        Map<RollupKey, Delta> actual = new HashMap<>();
+        for (MetricRollup rollup : rollupRepository.findAll()) {
+            merge(actual, new RollupKey(rollup.getMetric(), rollup.getBucketDate(), rollup.getDoctorId(),
+                    rollup.getStatus()), rollup.getCount(), rollup.getAmount());
+        }
+
+        Set<RollupKey> keys = new HashSet<>(expected.keySet());
+        keys.addAll(actual.keySet());
+        List<String> drift = new ArrayList<>();
+        int driftCount = 0;
+        for (RollupKey key : keys) {
+            Delta want = expected.getOrDefault(key, Delta.ZERO);
+            Delta have = actual.getOrDefault(key, Delta.ZERO);
+            if (!want.sameAs(have)) {
+                driftCount++;
+                if (drift.size() < MAX_REPORTED_DRIFT) {
+                    drift.add(String.format("%s %s doctor=%d %s: expected %d/%s, was %d/%s",
+                            key.metric(), key.date(), key.doctorId(), key.status(),
+                            want.count(), want.amount(), have.count(), have.amount()));
+                }
+            }
+        }
+
+        rollupRepository.deleteAllInBatch();
+        List<MetricRollup> rows = new ArrayList<>();
+        expected.forEach((key, delta) -> {
+            if (!delta.isZero()) {
+                rows.add(MetricRollup.builder()
+                        .metric(key.metric())
+                        .bucketDate(key.date())
+                        .doctorId(key.doctorId())
+                        .status(key.status())
+                        .count(delta.count())
+                        .amount(delta.amount())
+                        .build());
+            }
+        });
+        rollupRepository.saveAll(rows);
+
+        if (driftCount > 0) {
+            log.warn("Rollup rebuild corrected {} drifted counters", driftCount);
+        }
+        log.info("Rollups rebuilt: {} rows", rows.size());
+        return RollupRebuildResponse.builder()
+                .rebuiltAt(LocalDateTime.now())
+                .rowsWritten(rows.size())
+                .driftCount(driftCount)
+                .drift(drift)
+                .build();
+    }
+
+    /**
+     * Populate rollups on first start against an existing database
+     */
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (rollupRepository.count() == 0 && (appointmentRepository.count() > 0 || paymentRepository.count() > 0)) {
+            rebuild();
+        }
+    }
+
+    private void applyAfterCommit(Map<RollupKey, Delta> deltas) {
+        Runnable action = () -> deltas.forEach(this::apply);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void apply(RollupKey key, Delta delta) {
+        if (delta.isZero()) {
+            return;
+        }
+        try {
+            try {
+                if (increment(key, delta) == 0) {
+                    requiresNew.executeWithoutResult(status -> rollupRepository.saveAndFlush(MetricRollup.builder()
+                            .metric(key.metric())
+                            .bucketDate(key.date())
+                            .doctorId(key.doctorId())
+                            .status(key.status())
+                            .count(delta.count())
+                            .amount(delta.amount())
+                            .build()));
+                }
+            } catch (DataIntegrityViolationException e) {
+                // Another writer created the row between our update and insert
+                increment(key, delta);
+            }
+        } catch (DataAccessException e) {
+            log.error("Failed to update rollup {}: {}", key, e.getMessage());
+        }
+    }
+
+    private int increment(RollupKey key, Delta delta) {
+        Integer updated = requiresNew.execute(status -> rollupRepository.increment(
+                key.metric(), key.date(), key.doctorId(), key.status(), delta.count(), delta.amount()));
+        return updated != null ? updated : 0;
+    }
+
+    private static void merge(Map<RollupKey, Delta> deltas, RollupKey key, long count, BigDecimal amount) {
+        deltas.merge(key, new Delta(count, amount), Delta::plus);
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        return value != null ? new BigDecimal(value.toString()) : BigDecimal.ZERO;
+    }
+
+    private record RollupKey(RollupMetric metric, LocalDate date, Long doctorId, String status) {}
+
+    private record Delta(long count, BigDecimal amount) {
+        static final Delta ZERO = new Delta(0, BigDecimal.ZERO);
+
+        Delta plus(Delta other) {
+            return new Delta(count + other.count, amount.add(other.amount));
+        }
+
+        boolean isZero() {
+            return count == 0 && amount.signum() == 0;
+        }
+
+        boolean sameAs(Delta other) {
+            return count == other.count && amount.compareTo(other.amount) == 0;
+        }
+    }
+}
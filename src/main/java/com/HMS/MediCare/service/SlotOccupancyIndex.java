@@ -0,0 +1,290 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.repository.AppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory slot occupancy index for doctor bookings
+ * - One minute-resolution bitset per (doctor, date), warmed lazily from the database
+ * - Only active (non-cancelled) appointments occupy a slot
+ * - Updated after commit so rolled-back bookings never mark a slot as taken
+ * - Days are reloaded once older than the TTL, so bookings made on other nodes
+ *   show up within that time
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SlotOccupancyIndex {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int WORDS_PER_DAY = (MINUTES_PER_DAY + 63) / 64;
+
+    // Upper bound on tracked (doctor, date) days; past and expired days go first, then the farthest from today
+    private static final int MAX_TRACKED_DAYS = 20_000;
+
+    private final AppointmentRepository appointmentRepository;
+    private final ConcurrentHashMap<SlotKey, Day> occupancy = new ConcurrentHashMap<>();
+    // Range loads in flight; slot changes committed meanwhile are recorded so stale days are not installed
+    private final Set<PendingWarm> pendingWarms = ConcurrentHashMap.newKeySet();
+
+    // How long a loaded day is trusted before it is read again from the database
+    @Value("${slots.index.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    /**
+     * Check whether a time slot is taken by an active appointment.
+     * Times with seconds cannot be answered from the index and report free,
+     * so callers must still confirm against the database.
+     */
+    public boolean isBooked(Long doctorId, LocalDate date, LocalTime time) {
+        if (!isIndexable(time)) {
+            return false;
+        }
+        return isSet(dayFor(doctorId, date), toMinute(time));
+    }
+
+    /**
+     * Free slots between from (inclusive) and to (exclusive) in fixed steps
+     */
+    public List<LocalTime> findAvailableSlots(Long doctorId, LocalDate date,
+                                              LocalTime from, LocalTime to, int stepMinutes) {
+        AtomicLongArray day = dayFor(doctorId, date);
+        int end = toMinute(to);
+
+        List<LocalTime> availableSlots = new ArrayList<>();
+        for (int minute = toMinute(from); minute < end; minute += stepMinutes) {
+            if (!isSet(day, minute)) {
+                availableSlots.add(LocalTime.of(minute / 60, minute % 60));
+            }
+        }
+        return availableSlots;
+    }
+
+    /**
+     * Bitmask of free slots from (inclusive) to (exclusive); bit i is set when
+     * from + i * stepMinutes is free. Covers at most 64 slots.
+     */
+    public long freeSlotMask(Long doctorId, LocalDate date, LocalTime from, LocalTime to, int stepMinutes) {
+        AtomicLongArray day = dayFor(doctorId, date);
+        int start = toMinute(from);
+        int end = Math.min(toMinute(to), start + 64 * stepMinutes);
+
+        long mask = 0L;
+        for (int minute = start, bit = 0; minute < end; minute += stepMinutes, bit++) {
+            if (!isSet(day, minute)) {
+                mask |= 1L << bit;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Load every missing (doctor, date) day in the range with a single grouped query.
+     * The query runs outside the per-day locks, so a day whose slots change before it is
+     * installed is skipped and left for the next lookup to load.
+     */
+    public void warmRange(Collection<Long> doctorIds, LocalDate startDate, LocalDate endDate) {
+        Map<SlotKey, AtomicLongArray> missing = new HashMap<>();
+        for (Long doctorId : doctorIds) {
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                SlotKey key = new SlotKey(doctorId, date);
+                Day cached = occupancy.get(key);
+                if (cached == null || !cached.isFresh(ttlSeconds)) {
+                    missing.put(key, new AtomicLongArray(WORDS_PER_DAY));
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        // Registered before the query, so every change it can miss is recorded
+        PendingWarm warm = new PendingWarm(missing.keySet());
+        pendingWarms.add(warm);
+        try {
+            for (Object[] row : appointmentRepository.findBookedTimeSlotsForDoctors(doctorIds, startDate, endDate)) {
+                AtomicLongArray day = missing.get(new SlotKey((Long) row[0], (LocalDate) row[1]));
+                if (day != null) {
+                    int minute = toMinute((LocalTime) row[2]);
+                    day.set(minute >>> 6, day.get(minute >>> 6) | (1L << (minute & 63)));
+                }
+            }
+
+            if (occupancy.size() + missing.size() > MAX_TRACKED_DAYS) {
+                evictDays();
+            }
+            // Days loaded concurrently by single-day lookups win; booking still re-checks the database
+            long loadedAt = System.nanoTime();
+            missing.forEach((key, slots) -> occupancy.compute(key, (k, current) -> {
+                if (warm.isChanged(k) || (current != null && current.isFresh(ttlSeconds))) {
+                    return current;
+                }
+                return new Day(slots, loadedAt);
+            }));
+        } finally {
+            pendingWarms.remove(warm);
+        }
+    }
+
+    /**
+     * Mark a slot as booked once the surrounding transaction commits
+     */
+    public void markBookedAfterCommit(Long doctorId, LocalDate date, LocalTime time) {
+        runAfterCommit(() -> setSlot(doctorId, date, time, true));
+    }
+
+    /**
+     * Release a slot once the surrounding transaction commits
+     */
+    public void markReleasedAfterCommit(Long doctorId, LocalDate date, LocalTime time) {
+        runAfterCommit(() -> setSlot(doctorId, date, time, false));
+    }
+
+    /**
+     * Drop a cached day so the next lookup reloads it from the database
+     */
+    public void invalidate(Long doctorId, LocalDate date) {
+        occupancy.remove(new SlotKey(doctorId, date));
+    }
+
+    private void setSlot(Long doctorId, LocalDate date, LocalTime time, boolean booked) {
+        SlotKey slotKey = new SlotKey(doctorId, date);
+        // A range load may have read this day before the change committed
+        for (PendingWarm warm : pendingWarms) {
+            warm.markChanged(slotKey);
+        }
+        if (!isIndexable(time)) {
+            // Not representable at minute resolution; reload the day on next use
+            invalidate(doctorId, date);
+            return;
+        }
+        int minute = toMinute(time);
+        long mask = 1L << (minute & 63);
+        // Days that were never loaded are picked up fresh from the database later
+        occupancy.computeIfPresent(slotKey, (key, day) -> {
+            if (booked) {
+                day.slots().getAndAccumulate(minute >>> 6, mask, (word, bit) -> word | bit);
+            } else {
+                day.slots().getAndAccumulate(minute >>> 6, mask, (word, bit) -> word & ~bit);
+            }
+            return day;
+        });
+    }
+
+    private AtomicLongArray dayFor(Long doctorId, LocalDate date) {
+        SlotKey key = new SlotKey(doctorId, date);
+        Day day = occupancy.get(key);
+        if (day != null && day.isFresh(ttlSeconds)) {
+            return day.slots();
+        }
+        if (day == null && occupancy.size() >= MAX_TRACKED_DAYS) {
+            evictDays();
+        }
+        // Loading inside compute makes concurrent after-commit updates wait for the warm-up
+        return occupancy.compute(key, (k, current) ->
+                current != null && current.isFresh(ttlSeconds) ? current : load(k)).slots();
+    }
+
+    private Day load(SlotKey key) {
+        AtomicLongArray slots = new AtomicLongArray(WORDS_PER_DAY);
+        for (LocalTime bookedTime : appointmentRepository.findBookedTimeSlots(key.doctorId(), key.date())) {
+            int minute = toMinute(bookedTime);
+            slots.set(minute >>> 6, slots.get(minute >>> 6) | (1L << (minute & 63)));
+        }
+        return new Day(slots, System.nanoTime());
+    }
+
+    /**
+     * Drop past and expired days, then the days farthest from today until a quarter of the limit is free.
+     * Dropping is always safe: the next lookup reloads the day from the database.
+     */
+    private void evictDays() {
+        LocalDate today = LocalDate.now();
+        occupancy.entrySet().removeIf(entry ->
+                entry.getKey().date().isBefore(today) || !entry.getValue().isFresh(ttlSeconds));
+        int excess = occupancy.size() - MAX_TRACKED_DAYS * 3 / 4;
+        if (excess > 0) {
+            occupancy.keySet().stream()
+                    .sorted(Comparator.comparingLong((SlotKey key) ->
+                            Math.abs(ChronoUnit.DAYS.between(today, key.date()))).reversed())
+                    .limit(excess)
+                    .toList()
+                    .forEach(occupancy::remove);
+        }
+        log.debug("Slot occupancy index trimmed to {} days", occupancy.size());
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static boolean isSet(AtomicLongArray day, int minute) {
+        return (day.get(minute >>> 6) & (1L << (minute & 63))) != 0;
+    }
+
+    private static boolean isIndexable(LocalTime time) {
+        return time.getSecond() == 0 && time.getNano() == 0;
+    }
+
+    private static int toMinute(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private record SlotKey(Long doctorId, LocalDate date) {}
+
+    /**
+     * Days one warmRange call is loading and those changed since it started; identity equality
+     */
+    private static final class PendingWarm {
+        private final Set<SlotKey> keys;
+        private final Set<SlotKey> changed = ConcurrentHashMap.newKeySet();
+
+        PendingWarm(Set<SlotKey> keys) {
+            this.keys = keys;
+        }
+
+        void markChanged(SlotKey key) {
+            if (keys.contains(key)) {
+                changed.add(key);
+            }
+        }
+
+        boolean isChanged(SlotKey key) {
+            return changed.contains(key);
+        }
+    }
+
+    private record Day(AtomicLongArray slots, long loadedAtNanos) {
+        boolean isFresh(long ttlSeconds) {
+            return System.nanoTime() - loadedAtNanos < TimeUnit.SECONDS.toNanos(ttlSeconds);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.HMS.MediCare.service;
+
+/**
+ * Fixed-capacity columnar buffer of parsed device readings
+ * Reused across batches of one ingestion request, so parsing allocates no
+ * per-reading objects.
+ */
+final class VitalReadingBuffer {
+
+    final long[] recordNumbers;
+    final long[] patientIds;
+    final byte[] typeOrdinals;
+    final double[] values;
+    final long[] epochMillis;
+    private int size;
+
+    VitalReadingBuffer(int capacity) {
+        recordNumbers = new long[capacity];
+        patientIds = new long[capacity];
+        typeOrdinals = new byte[capacity];
+        values = new double[capacity];
+        epochMillis = new long[capacity];
+    }
+
+    void add(long recordNumber, long patientId, int typeOrdinal, double value, long timestamp) {
+        recordNumbers[size] = recordNumber;
+        patientIds[size] = patientId;
+        typeOrdinals[size] = (byte) typeOrdinal;
+        values[size] = value;
+        epochMillis[size] = timestamp;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size == patientIds.length;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
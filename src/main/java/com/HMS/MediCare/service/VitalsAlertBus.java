@@ -0,0 +1,284 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.response.VitalsAlertEvent;
+import com.HMS.MediCare.enums.AlertSeverity;
+import com.HMS.MediCare.exception.TooManyRequestsException;
+import com.HMS.MediCare.repository.AppointmentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out of new vitals alerts to Server-Sent Events subscribers
+ * - Alerts are published after their transaction commits; publishing only copies
+ *   references into each matching subscriber's ring buffer and never blocks
+ * - A small sender pool writes to the clients, one drain per subscriber at a time;
+ *   a client that blocks a send or lets its buffer overflow for send-timeout is
+ *   dropped. The heartbeat only marks it dead: a write blocked on it holds the
+ *   emitter's lock, so it is ended by the container's write timeout
+ *   (server.tomcat.connection-timeout) and the sender then closes the stream
+ * - Every event gets an id "<stream>-<sequence>"; the last replay-size events are
+ *   kept so a reconnecting client resumes from its Last-Event-ID
+ * - Per node: subscribers see alerts raised by the node they are connected to
+ */
+@Component
+@Slf4j
+public class VitalsAlertBus {
+
+    private final AppointmentRepository appointmentRepository;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long streamTimeoutMillis;
+    private final long sendTimeoutNanos;
+    private final ThreadPoolExecutor sender;
+
+    // Ids from an earlier run of the bus are recognised as unknown and reported as a gap
+    private final String streamId = Long.toString(System.currentTimeMillis(), 36);
+    private final CopyOnWriteArrayList<AlertSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    // Sequence, replay ring and subscriber registration change together, so replay and live events never overlap
+    private final Object publishLock = new Object();
+    private final VitalsAlertEvent[] replay;
+    private long sequence;
+
+    public VitalsAlertBus(AppointmentRepository appointmentRepository,
+                          @Value("${vitals.alerts.stream.buffer-size:256}") int bufferSize,
+                          @Value("${vitals.alerts.stream.replay-size:1000}") int replaySize,
+                          @Value("${vitals.alerts.stream.max-subscribers:1000}") int maxSubscribers,
+                          @Value("${vitals.alerts.stream.timeout-ms:1800000}") long streamTimeoutMillis,
+                          @Value("${vitals.alerts.stream.sender-threads:2}") int senderThreads,
+                          @Value("${vitals.alerts.stream.send-timeout-ms:10000}") long sendTimeoutMillis) {
+        this.appointmentRepository = appointmentRepository;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.streamTimeoutMillis = streamTimeoutMillis;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.replay = new VitalsAlertEvent[Math.max(1, replaySize)];
+        AtomicInteger threadSequence = new AtomicInteger();
+        // Unbounded queue, but each subscriber has at most one pending drain
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "vitals-alert-sender-" + threadSequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Open a stream of alerts matching every given filter; lastEventId resumes after that event
+     *
+     * @param severities wanted severities, null or empty for all
+     * @param patientId  only this patient, or null
+     * @param doctorId   only patients with appointments with this doctor (as of subscribing), or null
+     */
+    public SseEmitter subscribe(Set<AlertSeverity> severities, Long patientId, Long doctorId, String lastEventId) {
+        if (subscriptions.size() >= maxSubscribers) {
+            throw new TooManyRequestsException("Too many alert stream subscribers, please retry later", 30);
+        }
+        Set<Long> doctorPatients = doctorId != null
+                ? new HashSet<>(appointmentRepository.findPatientIdsByDoctorId(doctorId))
+                : null;
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        AlertSubscription subscription = new AlertSubscription(emitter,
+                severities == null || severities.isEmpty() ? Set.of() : EnumSet.copyOf(severities),
+                patientId, doctorPatients, bufferSize);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onError(e -> subscriptions.remove(subscription));
+
+        boolean schedule;
+        synchronized (publishLock) {
+            subscriptions.add(subscription);
+            schedule = replayTo(subscription, lastEventId);
+        }
+        // Opening comment flushes the response headers to the client
+        schedule |= subscription.requestHeartbeat();
+        if (schedule) {
+            scheduleDrain(subscription);
+        }
+        return emitter;
+    }
+
+    /**
+     * Publish once the surrounding transaction commits, at once without one
+     */
+    public void publishAfterCommit(List<VitalsAlertEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(events);
+                }
+            });
+        } else {
+            publish(events);
+        }
+    }
+
+    /**
+     * Keep idle streams open through proxies, notice clients that went away and
+     * close the ones that have stalled
+     */
+    @Scheduled(fixedDelayString = "${vitals.alerts.stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        long now = System.nanoTime();
+        for (AlertSubscription subscription : subscriptions) {
+            if (subscription.isStalled(now, sendTimeoutNanos)) {
+                // Never touch the emitter here: complete() would wait behind the blocked send
+                subscription.markDead();
+                subscriptions.remove(subscription);
+                log.info("Dropped a stalled vitals alert subscriber");
+            } else if (subscription.requestHeartbeat()) {
+                scheduleDrain(subscription);
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+        for (AlertSubscription subscription : subscriptions) {
+            subscription.emitter().complete();
+        }
+    }
+
+    private void publish(List<VitalsAlertEvent> events) {
+        synchronized (publishLock) {
+            for (VitalsAlertEvent event : events) {
+                long id = ++sequence;
+                event.setEventId(streamId + "-" + id);
+                replay[(int) (id % replay.length)] = event;
+                for (AlertSubscription subscription : subscriptions) {
+                    if (subscription.matches(event) && subscription.offer(event)) {
+                        scheduleDrain(subscription);
+                    }
+                }
+            }
+        }
+    }
+
+    // Caller holds publishLock
+    private boolean replayTo(AlertSubscription subscription, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return false;
+        }
+        long last = parseSequence(lastEventId);
+        if (last < 0 || last > sequence) {
+            return subscription.markGap();
+        }
+        long oldestKept = Math.max(1, sequence - replay.length + 1);
+        boolean schedule = false;
+        if (last + 1 < oldestKept) {
+            schedule = subscription.markGap();
+        }
+        for (long id = Math.max(last + 1, oldestKept); id <= sequence; id++) {
+            VitalsAlertEvent event = replay[(int) (id % replay.length)];
+            if (subscription.matches(event)) {
+                schedule |= subscription.offer(event);
+            }
+        }
+        return schedule;
+    }
+
+    private long parseSequence(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(streamId)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void scheduleDrain(AlertSubscription subscription) {
+        try {
+            sender.execute(() -> drain(subscription));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            subscriptions.remove(subscription);
+        }
+    }
+
+    private void drain(AlertSubscription subscription) {
+        SseEmitter emitter = subscription.emitter();
+        VitalsAlertEvent[] batch = new VitalsAlertEvent[subscription.capacity()];
+        boolean drained = false;
+        try {
+            AlertSubscription.Pending pending;
+            while ((pending = subscription.drainTo(batch)) != null) {
+                if (pending.lostEvents()) {
+                    // Client should reload unacknowledged alerts over REST
+                    send(subscription, SseEmitter.event().name("resync")
+                            .data(Map.of("dropped", pending.dropped()), MediaType.APPLICATION_JSON));
+                }
+                for (int i = 0; i < pending.count(); i++) {
+                    VitalsAlertEvent event = batch[i];
+                    batch[i] = null;
+                    send(subscription, SseEmitter.event().id(event.getEventId()).name("alert")
+                            .data(event, MediaType.APPLICATION_JSON));
+                }
+                if (pending.heartbeat() && pending.count() == 0) {
+                    send(subscription, SseEmitter.event().comment("keep-alive"));
+                }
+            }
+            drained = true;
+        } catch (Exception e) {
+            // Client went away, the stream already completed, or serializing an event failed
+            close(subscription, e.toString());
+        } finally {
+            if (!drained) {
+                Arrays.fill(batch, null);
+                subscription.abandonDrain();
+            }
+        }
+    }
+
+    private void send(AlertSubscription subscription, SseEmitter.SseEventBuilder event) throws IOException {
+        if (subscription.isDead()) {
+            throw new IOException("subscriber stalled");
+        }
+        subscription.sendStarted();
+        try {
+            subscription.emitter().send(event);
+        } finally {
+            subscription.sendFinished();
+        }
+    }
+
+    private void close(AlertSubscription subscription, String reason) {
+        subscriptions.remove(subscription);
+        log.debug("Closed vitals alert stream: {}", reason);
+        try {
+            subscription.emitter().complete();
+        } catch (RuntimeException ignored) {
+            // Already completed
+        }
+    }
+}
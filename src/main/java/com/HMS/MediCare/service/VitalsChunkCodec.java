@@ -0,0 +1,178 @@
+package com.HMS.MediCare.service;
+
+import java.util.Arrays;
+
+/**
+ * Binary encoding of a vitals chunk: points sorted by time as two columns
+ * - Timestamps (epoch millis): first value, first delta, then delta-of-delta,
+ *   so readings at a steady device interval cost one byte each
+ * - Values: fixed-point tenths (the precision patient_vitals stores), first
+ *   value then deltas
+ * - Every number is a zigzag varint
+ *
+ * Layout: version byte, varint count, timestamp column, value column.
+ */
+final class VitalsChunkCodec {
+
+    private static final int VERSION = 1;
+    private static final double SCALE = 10.0;
+
+    private VitalsChunkCodec() {
+    }
+
+    /**
+     * Encode count points starting at from; timestamps must be ascending
+     */
+    static byte[] encode(long[] timestamps, double[] values, int from, int count) {
+        Output out = new Output(8 + count * 3);
+        out.write(VERSION);
+        out.writeVarLong(count);
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < count; i++) {
+            long timestamp = timestamps[from + i];
+            long delta = timestamp - previous;
+            out.writeVarLong(zigzag(i == 0 ? timestamp : i == 1 ? delta : delta - previousDelta));
+            previousDelta = delta;
+            previous = timestamp;
+        }
+        long previousValue = 0;
+        for (int i = 0; i < count; i++) {
+            long scaled = fixedPoint(values[from + i]);
+            out.writeVarLong(zigzag(scaled - previousValue));
+            previousValue = scaled;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A value as it is stored: whole tenths
+     */
+    static long fixedPoint(double value) {
+        return Math.round(value * SCALE);
+    }
+
+    static Points decode(byte[] data) {
+        Input in = new Input(data);
+        int version = in.read();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported vitals chunk version " + version);
+        }
+        int count = (int) in.readVarLong();
+        long[] timestamps = new long[count];
+        double[] values = new double[count];
+        long previous = 0;
+        long delta = 0;
+        for (int i = 0; i < count; i++) {
+            long encoded = unzigzag(in.readVarLong());
+            if (i == 0) {
+                timestamps[i] = encoded;
+            } else {
+                delta = i == 1 ? encoded : delta + encoded;
+                timestamps[i] = previous + delta;
+            }
+            previous = timestamps[i];
+        }
+        long scaled = 0;
+        for (int i = 0; i < count; i++) {
+            scaled += unzigzag(in.readVarLong());
+            values[i] = scaled / SCALE;
+        }
+        return new Points(timestamps, values, count);
+    }
+
+    /**
+     * The first size points ordered by timestamp; the arrays are reused when already in order
+     */
+    static Points sortedByTime(long[] timestamps, double[] values, int size) {
+        boolean sorted = true;
+        for (int i = 1; i < size && sorted; i++) {
+            sorted = timestamps[i - 1] <= timestamps[i];
+        }
+        if (sorted) {
+            return new Points(timestamps, values, size);
+        }
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(timestamps[a], timestamps[b]));
+        long[] sortedTimestamps = new long[size];
+        double[] sortedValues = new double[size];
+        for (int i = 0; i < size; i++) {
+            sortedTimestamps[i] = timestamps[order[i]];
+            sortedValues[i] = values[order[i]];
+        }
+        return new Points(sortedTimestamps, sortedValues, size);
+    }
+
+    /**
+     * Decoded or merged points; only the first size entries are meaningful
+     */
+    record Points(long[] timestamps, double[] values, int size) {
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Output {
+        private byte[] bytes;
+        private int length;
+
+        Output(int capacity) {
+            bytes = new byte[Math.max(16, capacity)];
+        }
+
+        void write(int b) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[length++] = (byte) b;
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+
+    private static final class Input {
+        private final byte[] bytes;
+        private int position;
+
+        Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int read() {
+            if (position >= bytes.length) {
+                throw new IllegalStateException("Unexpected end of vitals chunk");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = read();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Malformed varint in vitals chunk");
+        }
+    }
+}
@@ -0,0 +1,457 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.response.VitalsAlertEvent;
+import com.HMS.MediCare.dto.response.VitalsIngestResponse;
+import com.HMS.MediCare.enums.AlertSeverity;
+import com.HMS.MediCare.enums.VitalType;
+import com.HMS.MediCare.exception.BadRequestException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentTypePreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk ingestion of remote-monitoring device readings
+ * - Accepts JSON lines (or a JSON array) and a compact binary format
+ * - Readings are parsed into a reused columnar buffer; each full buffer is one
+ *   transaction: one patient existence query, thresholds for patients not yet
+ *   in VitalsThresholdCache in one more query and evaluated in memory, then
+ *   JDBC batch inserts for readings and alerts
+ * - Readings for the same patient and timestamp share one patient_vitals row;
+ *   accepted readings are also appended to VitalsTimeSeriesService in the same transaction
+ * - A second reading of the same type for that row in one batch is rejected, so the row,
+ *   the time series and the alerts all keep the first one
+ * - Bad records are rejected individually; the rest of the batch is stored
+ * - Alerts are pushed to VitalsAlertBus subscribers once their batch commits
+ *
+ * Binary format (big-endian): int magic "MCV1", then 25-byte records of
+ * long patientId, byte VitalType ordinal, double value, long epoch millis.
+ */
+@Service
+@Slf4j
+public class VitalsIngestionService {
+
+    static final int BINARY_MAGIC = 0x4D435631; // "MCV1"
+    static final int BINARY_RECORD_BYTES = 25;
+
+    private static final String INSERT_VITALS_SQL =
+            "INSERT INTO patient_vitals (patient_id, systolic_bp, diastolic_bp, heart_rate, temperature, weight, " +
+            "oxygen_saturation, blood_glucose, respiratory_rate, recorded_at, recorded_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] VITALS_ARG_TYPES = {
+            Types.BIGINT, Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.DECIMAL, Types.DECIMAL,
+            Types.INTEGER, Types.DECIMAL, Types.INTEGER, Types.TIMESTAMP, Types.VARCHAR
+    };
+    private static final String INSERT_ALERT_SQL =
+            "INSERT INTO vitals_alerts (patient_id, vital_type, recorded_value, threshold_min, threshold_max, " +
+            "severity, message, ai_recommendation, acknowledged, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] ALERT_ARG_TYPES = {
+            Types.BIGINT, Types.VARCHAR, Types.DOUBLE, Types.DOUBLE, Types.DOUBLE,
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BOOLEAN, Types.TIMESTAMP
+    };
+    private static final String KNOWN_PATIENTS_SQL = "SELECT id FROM patients WHERE id IN (:ids)";
+
+    private static final VitalType[] TYPES = VitalType.values();
+    // patient_vitals parameter index and upper bound for each VitalType, by ordinal
+    private static final int[] COLUMN = new int[TYPES.length];
+    private static final double[] MAX_VALUE = new double[TYPES.length];
+    private static final int MAX_ERRORS = 50;
+    private static final long MAX_CLOCK_SKEW_MS = 5 * 60_000L;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    static {
+        for (VitalType type : TYPES) {
+            COLUMN[type.ordinal()] = switch (type) {
+                case BLOOD_PRESSURE_SYSTOLIC -> 1;
+                case BLOOD_PRESSURE_DIASTOLIC -> 2;
+                case HEART_RATE -> 3;
+                case TEMPERATURE -> 4;
+                case WEIGHT -> 5;
+                case OXYGEN_LEVEL -> 6;
+                case GLUCOSE_LEVEL -> 7;
+                case RESPIRATORY_RATE -> 8;
+            };
+            // Decimal columns are precision 4 (temperature) and 5 (weight, glucose), scale 1
+            MAX_VALUE[type.ordinal()] = switch (type) {
+                case TEMPERATURE -> 999.9;
+                case WEIGHT, GLUCOSE_LEVEL -> 9999.9;
+                default -> 1000;
+            };
+        }
+    }
+
+    private final VitalsThresholdCache thresholdCache;
+    private final VitalsTimeSeriesService timeSeriesService;
+    private final VitalsAlertBus alertBus;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public VitalsIngestionService(VitalsThresholdCache thresholdCache,
+                                  VitalsTimeSeriesService timeSeriesService,
+                                  VitalsAlertBus alertBus,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  ObjectMapper objectMapper,
+                                  @Value("${vitals.ingest.batch-size:5000}") int batchSize) {
+        this.thresholdCache = thresholdCache;
+        this.timeSeriesService = timeSeriesService;
+        this.alertBus = alertBus;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Ingest newline-delimited JSON readings, or a single JSON array of them:
+     * {"patientId":1,"vitalType":"HEART_RATE","value":72,"timestamp":"2025-03-01T08:00:00"}
+     * timestamp may be ISO-8601 (local or with offset) or epoch millis; missing means now.
+     */
+    public VitalsIngestResponse ingestJsonLines(InputStream body, String source) {
+        Tally tally = new Tally();
+        VitalReadingBuffer buffer = new VitalReadingBuffer(batchSize);
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new BadRequestException("Expected a reading object at record " + (tally.received + 1));
+                }
+                readJsonRecord(parser, ++tally.received, buffer, tally);
+                if (buffer.isFull()) {
+                    flush(buffer, tally, source);
+                }
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            flush(buffer, tally, source);
+            throw new BadRequestException("Malformed JSON after record " + tally.received + " ("
+                    + tally.accepted + " readings stored): " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new BadRequestException("Failed to read readings: " + e.getMessage());
+        }
+        flush(buffer, tally, source);
+        return tally.toResponse();
+    }
+
+    /**
+     * Ingest the compact binary format described on the class
+     */
+    public VitalsIngestResponse ingestBinary(InputStream body, String source) {
+        Tally tally = new Tally();
+        VitalReadingBuffer buffer = new VitalReadingBuffer(batchSize);
+        byte[] record = new byte[BINARY_RECORD_BYTES];
+        ByteBuffer view = ByteBuffer.wrap(record);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(body, 64 * 1024));
+        try {
+            if (in.readInt() != BINARY_MAGIC) {
+                throw new BadRequestException("Not a vitals batch: bad magic");
+            }
+            int first;
+            while ((first = in.read()) != -1) {
+                record[0] = (byte) first;
+                try {
+                    in.readFully(record, 1, BINARY_RECORD_BYTES - 1);
+                } catch (EOFException e) {
+                    flush(buffer, tally, source);
+                    throw new BadRequestException("Truncated record " + (tally.received + 1)
+                            + " (" + tally.accepted + " readings stored)");
+                }
+                long recordNumber = ++tally.received;
+                long patientId = view.getLong(0);
+                int ordinal = record[8];
+                double value = view.getDouble(9);
+                long timestamp = view.getLong(17);
+                if (ordinal < 0 || ordinal >= TYPES.length) {
+                    tally.reject(recordNumber, "unknown vital type ordinal " + ordinal);
+                    continue;
+                }
+                buffer.add(recordNumber, patientId, ordinal, value, timestamp);
+                if (buffer.isFull()) {
+                    flush(buffer, tally, source);
+                }
+            }
+        } catch (EOFException e) {
+            throw new BadRequestException("Not a vitals batch: missing header");
+        } catch (IOException e) {
+            throw new BadRequestException("Failed to read readings: " + e.getMessage());
+        }
+        flush(buffer, tally, source);
+        return tally.toResponse();
+    }
+
+    private void readJsonRecord(JsonParser parser, long recordNumber, VitalReadingBuffer buffer, Tally tally)
+            throws IOException {
+        long patientId = -1;
+        String typeName = null;
+        double value = Double.NaN;
+        long timestamp = NO_TIMESTAMP;
+        String badTimestamp = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken valueToken = parser.nextToken();
+            switch (field) {
+                case "patientId" -> patientId = parser.getValueAsLong(-1);
+                case "vitalType" -> typeName = parser.getValueAsString();
+                case "value" -> value = parser.getValueAsDouble(Double.NaN);
+                case "timestamp", "recordedAt" -> {
+                    if (valueToken == JsonToken.VALUE_NUMBER_INT) {
+                        timestamp = parser.getLongValue();
+                    } else if (valueToken == JsonToken.VALUE_STRING) {
+                        timestamp = parseTimestamp(parser.getText());
+                        if (timestamp == NO_TIMESTAMP) {
+                            badTimestamp = parser.getText();
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (badTimestamp != null) {
+            tally.reject(recordNumber, "unparseable timestamp " + badTimestamp);
+            return;
+        }
+        VitalType type = typeName != null ? vitalType(typeName) : null;
+        if (type == null) {
+            tally.reject(recordNumber, "unknown vital type " + typeName);
+            return;
+        }
+        buffer.add(recordNumber, patientId, type.ordinal(), value,
+                timestamp != NO_TIMESTAMP ? timestamp : System.currentTimeMillis());
+    }
+
+    /**
+     * Validate, evaluate and write one buffer of readings in a single transaction
+     */
+    private void flush(VitalReadingBuffer buffer, Tally tally, String source) {
+        int size = buffer.size();
+        if (size == 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Timestamp nowTimestamp = new Timestamp(now);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<Long> patientIds = new HashSet<>();
+            for (int i = 0; i < size; i++) {
+                patientIds.add(buffer.patientIds[i]);
+            }
+            Set<Long> knownPatients = new HashSet<>(namedJdbcTemplate.queryForList(
+                    KNOWN_PATIENTS_SQL, Map.of("ids", patientIds), Long.class));
+            thresholdCache.warm(knownPatients);
+
+            Map<RowKey, Object[]> rows = new LinkedHashMap<>();
+            VitalReadingBuffer points = new VitalReadingBuffer(size);
+            List<Object[]> alerts = new ArrayList<>();
+            long accepted = 0;
+            for (int i = 0; i < size; i++) {
+                long recordNumber = buffer.recordNumbers[i];
+                long patientId = buffer.patientIds[i];
+                VitalType type = TYPES[buffer.typeOrdinals[i]];
+                double value = buffer.values[i];
+                long timestamp = buffer.epochMillis[i];
+
+                if (!knownPatients.contains(patientId)) {
+                    tally.reject(recordNumber, "unknown patient " + patientId);
+                    continue;
+                }
+                if (!Double.isFinite(value) || value < 0 || value > MAX_VALUE[type.ordinal()]) {
+                    tally.reject(recordNumber, "value out of range for " + type + ": " + value);
+                    continue;
+                }
+                if (timestamp > now + MAX_CLOCK_SKEW_MS) {
+                    tally.reject(recordNumber, "timestamp in the future");
+                    continue;
+                }
+
+                Object[] row = rows.computeIfAbsent(new RowKey(patientId, timestamp),
+                        key -> newVitalsRow(key, source));
+                if (row[COLUMN[type.ordinal()]] != null) {
+                    tally.reject(recordNumber, "duplicate " + type + " reading for the same timestamp");
+                    continue;
+                }
+                row[COLUMN[type.ordinal()]] = columnValue(type, value);
+                points.add(recordNumber, patientId, type.ordinal(), value, timestamp);
+                accepted++;
+
+                double[] thresholds = thresholdCache.thresholdsFor(patientId);
+                int offset = VitalsThresholdCache.offset(type);
+                AlertSeverity severity = VitalsMonitoringService.classify(value, thresholds, offset);
+                if (severity != null) {
+                    alerts.add(new Object[]{
+                            patientId, type.name(), value, thresholds[offset], thresholds[offset + 1], severity.name(),
+                            VitalsMonitoringService.alertMessage(type, value, severity, thresholds, offset),
+                            VitalsMonitoringService.generateAIRecommendation(type, value, severity),
+                            false, nowTimestamp
+                    });
+                }
+            }
+
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_VITALS_SQL, new ArrayList<>(rows.values()), VITALS_ARG_TYPES);
+            }
+            if (!alerts.isEmpty()) {
+                alertBus.publishAfterCommit(insertAlerts(alerts));
+            }
+            timeSeriesService.append(points);
+            tally.accepted += accepted;
+            tally.rowsWritten += rows.size();
+            tally.alertsGenerated += alerts.size();
+        });
+
+        tally.batches++;
+        buffer.clear();
+        log.debug("Ingested vitals batch of {} readings", size);
+    }
+
+    /**
+     * Batch insert alert rows, returning them as bus events with their generated ids
+     */
+    private List<VitalsAlertEvent> insertAlerts(List<Object[]> alerts) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_ALERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        new ArgumentTypePreparedStatementSetter(alerts.get(i), ALERT_ARG_TYPES).setValues(ps);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return alerts.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        List<VitalsAlertEvent> events = new ArrayList<>(alerts.size());
+        for (int i = 0; i < alerts.size(); i++) {
+            Object[] row = alerts.get(i);
+            Object id = i < keyList.size() ? keyList.get(i).get("id") : null;
+            events.add(VitalsAlertEvent.builder()
+                    .alertId(id instanceof Number number ? number.longValue() : null)
+                    .patientId((Long) row[0])
+                    .vitalType(VitalType.valueOf((String) row[1]))
+                    .recordedValue((Double) row[2])
+                    .thresholdMin((Double) row[3])
+                    .thresholdMax((Double) row[4])
+                    .severity(AlertSeverity.valueOf((String) row[5]))
+                    .message((String) row[6])
+                    .createdAt(((Timestamp) row[9]).toLocalDateTime())
+                    .build());
+        }
+        return events;
+    }
+
+    private static Object[] newVitalsRow(RowKey key, String source) {
+        Object[] row = new Object[VITALS_ARG_TYPES.length];
+        row[0] = key.patientId();
+        row[9] = new Timestamp(key.epochMillis());
+        row[10] = source;
+        return row;
+    }
+
+    private static Object columnValue(VitalType type, double value) {
+        return switch (type) {
+            case TEMPERATURE, WEIGHT, GLUCOSE_LEVEL -> BigDecimal.valueOf(value).setScale(1, RoundingMode.HALF_UP);
+            default -> (int) Math.round(value);
+        };
+    }
+
+    private static VitalType vitalType(String name) {
+        try {
+            return VitalType.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Local date-times are in the server zone, like every other timestamp in the schema
+    private static long parseTimestamp(String text) {
+        try {
+            return LocalDateTime.parse(text).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            try {
+                return OffsetDateTime.parse(text).toInstant().toEpochMilli();
+            } catch (DateTimeParseException ignored) {
+                return NO_TIMESTAMP;
+            }
+        }
+    }
+
+    private record RowKey(long patientId, long epochMillis) {
+    }
+
+    private static final class Tally {
+        private final long startNanos = System.nanoTime();
+        private final List<String> errors = new ArrayList<>();
+        private long received;
+        private long accepted;
+        private long rejected;
+        private long rowsWritten;
+        private long alertsGenerated;
+        private int batches;
+
+        void reject(long recordNumber, String reason) {
+            rejected++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add("record " + recordNumber + ": " + reason);
+            }
+        }
+
+        VitalsIngestResponse toResponse() {
+            return VitalsIngestResponse.builder()
+                    .received(received)
+                    .accepted(accepted)
+                    .rejected(rejected)
+                    .rowsWritten(rowsWritten)
+                    .alertsGenerated(alertsGenerated)
+                    .batches(batches)
+                    .elapsedMillis((System.nanoTime() - startNanos) / 1_000_000)
+                    .errors(errors)
+                    .build();
+        }
+    }
+}
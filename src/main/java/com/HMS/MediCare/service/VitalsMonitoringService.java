@@ -1,5 +1,6 @@
 package com.HMS.MediCare.service;
 
+import com.HMS.MediCare.dto.response.VitalsAlertEvent;
 import com.HMS.MediCare.entity.Patient;
 import com.HMS.MediCare.entity.VitalsAlert;
 import com.HMS.MediCare.entity.VitalsThreshold;
@@ -34,6 +35,9 @@ public class VitalsMonitoringService {
     private final VitalsThresholdRepository thresholdRepository;
     private final VitalsAlertRepository alertRepository;
     private final PatientRepository patientRepository;
+    private final VitalsThresholdCache thresholdCache;
+    private final VitalsTimeSeriesService timeSeriesService;
+    private final VitalsAlertBus alertBus;
 
     // Default normal ranges for vitals
     private static final Map<VitalType, double[]> DEFAULT_RANGES = Map.of(
@@ -53,81 +57,98 @@ public class VitalsMonitoringService {
     public Optional<VitalsAlert> recordVitalReading(Long patientId, VitalType vitalType, Double value) {
         Patient patient = patientRepository.findById(patientId)
                 .orElseThrow(() -> new ResourceNotFoundException("Patient", "id", patientId));
+        timeSeriesService.appendReading(patientId, vitalType, value, LocalDateTime.now());
 
-        // Get thresholds (custom or default)
-        double[] thresholds = getThresholds(patientId, vitalType);
-        double minNormal = thresholds[0];
-        double maxNormal = thresholds[1];
-        double criticalMin = thresholds[2];
-        double criticalMax = thresholds[3];
+        // Get thresholds (custom or default) from the cache
+        double[] thresholds = thresholdCache.thresholdsFor(patientId);
+        int offset = VitalsThresholdCache.offset(vitalType);
 
         // Check if value is outside thresholds
-        if (value >= minNormal && value <= maxNormal) {
+        AlertSeverity severity = classify(value, thresholds, offset);
+        if (severity == null) {
             log.debug("Vital {} for patient {} is normal: {}", vitalType, patientId, value);
             return Optional.empty();
         }
-
-        // Determine severity
-        AlertSeverity severity;
-        String message;
-
-        if (value < criticalMin || value > criticalMax) {
-            severity = AlertSeverity.CRITICAL;
-            message = String.format("CRITICAL: %s reading of %.1f is dangerously %s normal range",
-                    formatVitalType(vitalType), value, value < criticalMin ? "below" : "above");
-        } else if (value < minNormal - 10 || value > maxNormal + 10) {
-            severity = AlertSeverity.HIGH;
-            message = String.format("HIGH ALERT: %s reading of %.1f is significantly %s normal",
-                    formatVitalType(vitalType), value, value < minNormal ? "below" : "above");
-        } else if (value < minNormal - 5 || value > maxNormal + 5) {
-            severity = AlertSeverity.MEDIUM;
-            message = String.format("WARNING: %s reading of %.1f is moderately %s normal",
-                    formatVitalType(vitalType), value, value < minNormal ? "below" : "above");
-        } else {
-            severity = AlertSeverity.LOW;
-            message = String.format("NOTICE: %s reading of %.1f is slightly outside normal range",
-                    formatVitalType(vitalType), value);
-        }
+        String message = alertMessage(vitalType, value, severity, thresholds, offset);
 
         // Create alert
         VitalsAlert alert = VitalsAlert.builder()
                 .patient(patient)
                 .vitalType(vitalType)
                 .recordedValue(value)
-                .thresholdMin(minNormal)
-                .thresholdMax(maxNormal)
+                .thresholdMin(thresholds[offset])
+                .thresholdMax(thresholds[offset + 1])
                 .severity(severity)
                 .message(message)
                 .aiRecommendation(generateAIRecommendation(vitalType, value, severity))
                 .build();
 
         log.warn("Alert generated for patient {}: {} ({} - {})", patientId, message, vitalType, severity);
-        return Optional.of(alertRepository.save(alert));
+        VitalsAlert saved = alertRepository.save(alert);
+        alertBus.publishAfterCommit(List.of(toEvent(saved)));
+        return Optional.of(saved);
+    }
+
+    private static VitalsAlertEvent toEvent(VitalsAlert alert) {
+        return VitalsAlertEvent.builder()
+                .alertId(alert.getId())
+                .patientId(alert.getPatient().getId())
+                .vitalType(alert.getVitalType())
+                .severity(alert.getSeverity())
+                .recordedValue(alert.getRecordedValue())
+                .thresholdMin(alert.getThresholdMin())
+                .thresholdMax(alert.getThresholdMax())
+                .message(alert.getMessage())
+                .createdAt(alert.getCreatedAt())
+                .build();
+    }
+
+    /**
+     * Default {minNormal, maxNormal, criticalMin, criticalMax} for a vital type
+     */
+    static double[] defaultThresholds(VitalType vitalType) {
+        return DEFAULT_RANGES.getOrDefault(vitalType, new double[]{0, 100, 0, 200});
     }
 
     /**
-     * Get thresholds for a vital type (custom or default)
+     * Severity of a reading against the four thresholds at offset; null when normal
      */
-    private double[] getThresholds(Long patientId, VitalType vitalType) {
-        Optional<VitalsThreshold> customThreshold = thresholdRepository.findByPatientIdAndVitalType(patientId, vitalType);
-
-        if (customThreshold.isPresent()) {
-            VitalsThreshold t = customThreshold.get();
-            return new double[]{
-                    t.getMinValue() != null ? t.getMinValue() : DEFAULT_RANGES.get(vitalType)[0],
-                    t.getMaxValue() != null ? t.getMaxValue() : DEFAULT_RANGES.get(vitalType)[1],
-                    t.getCriticalMin() != null ? t.getCriticalMin() : DEFAULT_RANGES.get(vitalType)[2],
-                    t.getCriticalMax() != null ? t.getCriticalMax() : DEFAULT_RANGES.get(vitalType)[3]
-            };
+    static AlertSeverity classify(double value, double[] thresholds, int offset) {
+        double minNormal = thresholds[offset];
+        double maxNormal = thresholds[offset + 1];
+        if (value >= minNormal && value <= maxNormal) {
+            return null;
+        }
+        if (value < thresholds[offset + 2] || value > thresholds[offset + 3]) {
+            return AlertSeverity.CRITICAL;
+        }
+        if (value < minNormal - 10 || value > maxNormal + 10) {
+            return AlertSeverity.HIGH;
         }
+        if (value < minNormal - 5 || value > maxNormal + 5) {
+            return AlertSeverity.MEDIUM;
+        }
+        return AlertSeverity.LOW;
+    }
 
-        return DEFAULT_RANGES.getOrDefault(vitalType, new double[]{0, 100, 0, 200});
+    static String alertMessage(VitalType vitalType, double value, AlertSeverity severity,
+                               double[] thresholds, int offset) {
+        return switch (severity) {
+            case CRITICAL -> String.format("CRITICAL: %s reading of %.1f is dangerously %s normal range",
+                    formatVitalType(vitalType), value, value < thresholds[offset + 2] ? "below" : "above");
+            case HIGH -> String.format("HIGH ALERT: %s reading of %.1f is significantly %s normal",
+                    formatVitalType(vitalType), value, value < thresholds[offset] ? "below" : "above");
+            case MEDIUM -> String.format("WARNING: %s reading of %.1f is moderately %s normal",
+                    formatVitalType(vitalType), value, value < thresholds[offset] ? "below" : "above");
+            case LOW -> String.format("NOTICE: %s reading of %.1f is slightly outside normal range",
+                    formatVitalType(vitalType), value);
+        };
     }
 
     /**
      * Generate AI recommendation based on vital reading
      */
-    private String generateAIRecommendation(VitalType vitalType, Double value, AlertSeverity severity) {
+    static String generateAIRecommendation(VitalType vitalType, Double value, AlertSeverity severity) {
         return switch (vitalType) {
             case BLOOD_PRESSURE_SYSTOLIC, BLOOD_PRESSURE_DIASTOLIC ->
                     severity == AlertSeverity.CRITICAL
@@ -171,7 +192,9 @@ public class VitalsMonitoringService {
         threshold.setCriticalMax(criticalMax);
         threshold.setIsActive(true);
 
-        return thresholdRepository.save(threshold);
+        VitalsThreshold saved = thresholdRepository.save(threshold);
+        thresholdCache.invalidateAfterCommit(patientId);
+        return saved;
     }
 
     /**
@@ -220,7 +243,7 @@ public class VitalsMonitoringService {
         return alertRepository.countBySeverityAndAcknowledgedFalse(severity);
     }
 
-    private String formatVitalType(VitalType type) {
+    private static String formatVitalType(VitalType type) {
         return type.name().replace("_", " ").toLowerCase();
     }
 }
@@ -0,0 +1,207 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.entity.VitalsThreshold;
+import com.HMS.MediCare.enums.VitalType;
+import com.HMS.MediCare.repository.VitalsThresholdRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-patient vitals thresholds, merged with the defaults once
+ * - One flat double[] per patient: for each VitalType, four slots at
+ *   offset(type) = ordinal * 4 holding {minNormal, maxNormal, criticalMin, criticalMax}
+ * - Patients without custom thresholds share the DEFAULTS array
+ * - Arrays are never mutated after publication; setThreshold drops the entry
+ *   after commit and the next reading reloads it
+ * - A load may read the database just before such a commit: invalidation bumps
+ *   a striped per-patient version first, and warm() withdraws any entry whose
+ *   version moved while it was loading. Single lookups load inside
+ *   computeIfAbsent, which the removal waits for
+ * - Entries expire after ttl-seconds, so changes made on other nodes converge
+ * - Bounded by patient count; when full, arbitrary entries are dropped
+ */
+@Component
+@Slf4j
+public class VitalsThresholdCache {
+
+    static final int SLOTS_PER_TYPE = 4;
+
+    private static final int VERSION_STRIPES = 1024;
+    private static final VitalType[] TYPES = VitalType.values();
+    private static final double[] DEFAULTS = new double[TYPES.length * SLOTS_PER_TYPE];
+
+    static {
+        for (VitalType type : TYPES) {
+            System.arraycopy(VitalsMonitoringService.defaultThresholds(type), 0, DEFAULTS, offset(type), SLOTS_PER_TYPE);
+        }
+    }
+
+    private final VitalsThresholdRepository thresholdRepository;
+    private final int maxPatients;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<Long, Entry> thresholds = new ConcurrentHashMap<>();
+    // Bumped before every invalidation; patients share a stripe, which only costs a spare reload
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    public VitalsThresholdCache(VitalsThresholdRepository thresholdRepository,
+                                @Value("${vitals.threshold-cache.max-patients:50000}") int maxPatients,
+                                @Value("${vitals.threshold-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.thresholdRepository = thresholdRepository;
+        this.maxPatients = maxPatients;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    static int offset(VitalType type) {
+        return type.ordinal() * SLOTS_PER_TYPE;
+    }
+
+    /**
+     * Thresholds for every vital type of a patient; read-only, index with offset(type)
+     */
+    public double[] thresholdsFor(Long patientId) {
+        long now = System.nanoTime();
+        Entry cached = thresholds.get(patientId);
+        if (cached != null) {
+            if (!cached.isExpired(now, ttlNanos)) {
+                return cached.values();
+            }
+            thresholds.remove(patientId, cached);
+        }
+        if (thresholds.size() >= maxPatients) {
+            trim();
+        }
+        return thresholds.computeIfAbsent(patientId,
+                id -> new Entry(merge(thresholdRepository.findByPatientIdIn(List.of(id))), System.nanoTime()))
+                .values();
+    }
+
+    /**
+     * Load every missing patient with a single query
+     */
+    public void warm(Collection<Long> patientIds) {
+        long now = System.nanoTime();
+        List<Long> missing = new ArrayList<>();
+        for (Long patientId : patientIds) {
+            Entry cached = thresholds.get(patientId);
+            if (cached == null || cached.isExpired(now, ttlNanos)) {
+                missing.add(patientId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        // Versions before the read; an invalidation after this point may not be in it
+        long[] seen = new long[missing.size()];
+        for (int i = 0; i < seen.length; i++) {
+            seen[i] = versions.get(stripe(missing.get(i)));
+        }
+
+        Map<Long, List<VitalsThreshold>> byPatient = new HashMap<>();
+        for (VitalsThreshold threshold : thresholdRepository.findByPatientIdIn(missing)) {
+            byPatient.computeIfAbsent(threshold.getPatient().getId(), id -> new ArrayList<>()).add(threshold);
+        }
+        if (thresholds.size() + missing.size() > maxPatients) {
+            trim();
+        }
+        long loadedAt = System.nanoTime();
+        for (int i = 0; i < seen.length; i++) {
+            Long patientId = missing.get(i);
+            Entry loaded = new Entry(merge(byPatient.getOrDefault(patientId, List.of())), loadedAt);
+            Entry previous = thresholds.get(patientId);
+            // Fresh entries reloaded concurrently by single lookups win; an expired one is replaced
+            boolean installed;
+            if (previous == null) {
+                installed = thresholds.putIfAbsent(patientId, loaded) == null;
+            } else {
+                installed = previous.isExpired(loadedAt, ttlNanos) && thresholds.replace(patientId, previous, loaded);
+            }
+            // Checked after installing: an invalidation racing past this check removes it itself
+            if (installed && versions.get(stripe(patientId)) != seen[i]) {
+                thresholds.remove(patientId, loaded);
+            }
+        }
+    }
+
+    /**
+     * Drop a patient's entry once the surrounding transaction commits
+     */
+    public void invalidateAfterCommit(Long patientId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(patientId);
+                }
+            });
+        } else {
+            invalidate(patientId);
+        }
+    }
+
+    public int size() {
+        return thresholds.size();
+    }
+
+    // Version first, so a warm() that misses the removal still sees the bump
+    private void invalidate(Long patientId) {
+        versions.incrementAndGet(stripe(patientId));
+        thresholds.remove(patientId);
+    }
+
+    private static int stripe(Long patientId) {
+        return Long.hashCode(patientId) & (VERSION_STRIPES - 1);
+    }
+
+    private static double[] merge(List<VitalsThreshold> custom) {
+        if (custom.isEmpty()) {
+            return DEFAULTS;
+        }
+        double[] merged = DEFAULTS.clone();
+        for (VitalsThreshold t : custom) {
+            int offset = offset(t.getVitalType());
+            if (t.getMinValue() != null) {
+                merged[offset] = t.getMinValue();
+            }
+            if (t.getMaxValue() != null) {
+                merged[offset + 1] = t.getMaxValue();
+            }
+            if (t.getCriticalMin() != null) {
+                merged[offset + 2] = t.getCriticalMin();
+            }
+            if (t.getCriticalMax() != null) {
+                merged[offset + 3] = t.getCriticalMax();
+            }
+        }
+        return merged;
+    }
+
+    private void trim() {
+        int target = maxPatients - maxPatients / 10;
+        Iterator<Long> keys = thresholds.keySet().iterator();
+        while (thresholds.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+        log.debug("Vitals threshold cache trimmed to {} patients", thresholds.size());
+    }
+
+    private record Entry(double[] values, long loadedAt) {
+
+        boolean isExpired(long now, long ttlNanos) {
+            return now - loadedAt >= ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,738 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.response.RollupRebuildResponse;
+import com.HMS.MediCare.dto.response.VitalsSeriesResponse;
+import com.HMS.MediCare.entity.VitalsChunk;
+import com.HMS.MediCare.entity.VitalsRollup;
+import com.HMS.MediCare.enums.VitalType;
+import com.HMS.MediCare.enums.VitalsResolution;
+import com.HMS.MediCare.exception.BadRequestException;
+import com.HMS.MediCare.repository.VitalsChunkRepository;
+import com.HMS.MediCare.repository.VitalsRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-patient vitals time series
+ * - Readings are appended as compressed chunks (VitalsChunkCodec), one or more
+ *   per patient and vital type per write, in the writer's transaction
+ * - Minute, hour and day min/max/sum/count rollups move after the write commits,
+ *   in their own transaction like the metric rollups; a failed update queues its
+ *   patients, whose rollups are then rebuilt from the chunks on the next repair run
+ * - rebuildRollups() recomputes one patient's rollups from the chunks on demand
+ * - Compaction merges small chunks into chunk-points sized ones and drops minute
+ *   rollups past their retention
+ * - getSeries() answers from raw chunks when the range is small enough, otherwise
+ *   from the finest rollup that fits in maxPoints
+ * - getTrend() downsamples the same raw points (or, past trend-max-input-points,
+ *   the finest rollup averages) to a fixed point count with LTTB for charts
+ * - Readings that predate the time series are backfilled once from patient_vitals,
+ *   patient by patient on one node at a time, until backfill_progress says it is done
+ * patient_vitals stays the record of entry; deleting a row there does not remove
+ * its points here.
+ */
+@Service
+@Slf4j
+public class VitalsTimeSeriesService {
+
+    private static final String INSERT_CHUNK_SQL =
+            "INSERT INTO vitals_chunks (patient_id, vital_type, first_recorded_at, last_recorded_at, point_count, data) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final int[] CHUNK_ARG_TYPES = {
+            Types.BIGINT, Types.VARCHAR, Types.TIMESTAMP, Types.TIMESTAMP, Types.INTEGER, Types.VARBINARY
+    };
+    private static final String UPDATE_ROLLUP_SQL =
+            "UPDATE vitals_rollups SET sample_count = sample_count + ?, min_value = LEAST(min_value, ?), " +
+            "max_value = GREATEST(max_value, ?), sum_value = sum_value + ? " +
+            "WHERE patient_id = ? AND vital_type = ? AND resolution = ? AND bucket_start = ?";
+    private static final int[] UPDATE_ROLLUP_ARG_TYPES = {
+            Types.BIGINT, Types.DOUBLE, Types.DOUBLE, Types.DOUBLE,
+            Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP
+    };
+    private static final String INSERT_ROLLUP_SQL =
+            "INSERT INTO vitals_rollups (patient_id, vital_type, resolution, bucket_start, sample_count, " +
+            "min_value, max_value, sum_value) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] INSERT_ROLLUP_ARG_TYPES = {
+            Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP,
+            Types.BIGINT, Types.DOUBLE, Types.DOUBLE, Types.DOUBLE
+    };
+    private static final String BACKFILL_PATIENTS_SQL =
+            "SELECT DISTINCT patient_id FROM patient_vitals WHERE patient_id > ? ORDER BY patient_id LIMIT ?";
+    private static final String BACKFILL_COUNT_SQL = "SELECT COUNT(*) FROM patient_vitals WHERE patient_id = ?";
+    private static final String BACKFILL_SQL =
+            "SELECT systolic_bp, diastolic_bp, heart_rate, temperature, weight, oxygen_saturation, " +
+            "blood_glucose, respiratory_rate, recorded_at FROM patient_vitals WHERE patient_id = ?";
+    private static final String INSERT_PROGRESS_SQL =
+            "INSERT INTO backfill_progress (name, last_key) SELECT ?, 0 " +
+            "WHERE NOT EXISTS (SELECT 1 FROM backfill_progress WHERE name = ?)";
+    private static final String READ_PROGRESS_SQL =
+            "SELECT last_key, completed_at FROM backfill_progress WHERE name = ?";
+    private static final String ADVANCE_PROGRESS_SQL = "UPDATE backfill_progress SET last_key = ? WHERE name = ?";
+    private static final String COMPLETE_PROGRESS_SQL = "UPDATE backfill_progress SET completed_at = ? WHERE name = ?";
+    static final String BACKFILL = "vitals-backfill";
+    private static final int BACKFILL_PAGE_PATIENTS = 500;
+    private static final int MAX_TREND_POINTS = 10_000;
+    private static final int MAX_SERIES_POINTS = 10_000;
+    private static final int MAX_REPORTED_DRIFT = 100;
+
+    private static final VitalType[] TYPES = VitalType.values();
+    private static final VitalsResolution[] RESOLUTIONS = VitalsResolution.values();
+    // patient_vitals column holding each VitalType, by ordinal
+    private static final String[] COLUMN_NAMES = new String[TYPES.length];
+
+    static {
+        for (VitalType type : TYPES) {
+            COLUMN_NAMES[type.ordinal()] = switch (type) {
+                case BLOOD_PRESSURE_SYSTOLIC -> "systolic_bp";
+                case BLOOD_PRESSURE_DIASTOLIC -> "diastolic_bp";
+                case HEART_RATE -> "heart_rate";
+                case TEMPERATURE -> "temperature";
+                case WEIGHT -> "weight";
+                case OXYGEN_LEVEL -> "oxygen_saturation";
+                case GLUCOSE_LEVEL -> "blood_glucose";
+                case RESPIRATORY_RATE -> "respiratory_rate";
+            };
+        }
+    }
+
+    private final VitalsChunkRepository chunkRepository;
+    private final VitalsRollupRepository rollupRepository;
+    private final ClusterLockService clusterLockService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate requiresNew;
+    private final int chunkPoints;
+    private final int minuteRetentionDays;
+    private final int trendMaxInputPoints;
+    private final Duration backfillLease;
+    // Patients whose rollup update failed; node-local, so a restart leaves them to rebuildRollups()
+    private final Set<Long> staleRollupPatients = ConcurrentHashMap.newKeySet();
+
+    public VitalsTimeSeriesService(VitalsChunkRepository chunkRepository,
+                                   VitalsRollupRepository rollupRepository,
+                                   ClusterLockService clusterLockService,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${vitals.timeseries.chunk-points:1024}") int chunkPoints,
+                                   @Value("${vitals.timeseries.minute-rollup-retention-days:30}") int minuteRetentionDays,
+                                   @Value("${vitals.timeseries.trend-max-input-points:200000}") int trendMaxInputPoints,
+                                   @Value("${vitals.timeseries.backfill-lease-minutes:10}") long backfillLeaseMinutes) {
+        this.chunkRepository = chunkRepository;
+        this.rollupRepository = rollupRepository;
+        this.clusterLockService = clusterLockService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkPoints = chunkPoints;
+        this.minuteRetentionDays = minuteRetentionDays;
+        this.trendMaxInputPoints = trendMaxInputPoints;
+        this.backfillLease = Duration.ofMinutes(backfillLeaseMinutes);
+    }
+
+    /**
+     * Append one reading; joins the caller's transaction
+     */
+    public void appendReading(Long patientId, VitalType type, double value, LocalDateTime recordedAt) {
+        VitalReadingBuffer points = new VitalReadingBuffer(1);
+        points.add(0, patientId, type.ordinal(), value, toEpochMillis(recordedAt));
+        append(points);
+    }
+
+    /**
+     * Append validated readings as one chunk per patient and vital type; joins the
+     * caller's transaction and updates the rollups once it commits
+     */
+    void append(VitalReadingBuffer points) {
+        int size = points.size();
+        if (size == 0) {
+            return;
+        }
+        Map<SeriesKey, Series> bySeries = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            bySeries.computeIfAbsent(new SeriesKey(points.patientIds[i], TYPES[points.typeOrdinals[i]]),
+                    key -> new Series()).add(points.epochMillis[i], points.values[i]);
+        }
+
+        List<Object[]> chunks = new ArrayList<>();
+        Map<RollupKey, Aggregate> rollups = new HashMap<>();
+        ZoneId zone = ZoneId.systemDefault();
+        bySeries.forEach((key, series) -> {
+            VitalsChunkCodec.Points sorted = VitalsChunkCodec.sortedByTime(series.timestamps, series.values, series.size);
+            addChunkRows(chunks, key, sorted);
+            for (int i = 0; i < sorted.size(); i++) {
+                LocalDateTime at = LocalDateTime.ofInstant(Instant.ofEpochMilli(sorted.timestamps()[i]), zone);
+                for (VitalsResolution resolution : RESOLUTIONS) {
+                    rollups.computeIfAbsent(new RollupKey(key, resolution, at.truncatedTo(resolution.getUnit())),
+                            k -> new Aggregate()).add(sorted.values()[i]);
+                }
+            }
+        });
+
+        jdbcTemplate.batchUpdate(INSERT_CHUNK_SQL, chunks, CHUNK_ARG_TYPES);
+        applyRollupsAfterCommit(rollups);
+    }
+
+    /**
+     * Readings of one vital type between from and to as parallel arrays: raw points
+     * when there are at most maxPoints of them, otherwise the finest rollup with at
+     * most maxPoints buckets (daily buckets even if a very long range exceeds it).
+     * maxPoints above MAX_SERIES_POINTS is lowered to it, so no request decodes more
+     */
+    @Transactional(readOnly = true)
+    public VitalsSeriesResponse getSeries(Long patientId, VitalType type, LocalDateTime from, LocalDateTime to,
+                                          int maxPoints) {
+        checkRange(from, to);
+        if (maxPoints < 1) {
+            throw new BadRequestException("maxPoints must be positive");
+        }
+        maxPoints = Math.min(maxPoints, MAX_SERIES_POINTS);
+        VitalsSeriesResponse.VitalsSeriesResponseBuilder response = VitalsSeriesResponse.builder()
+                .patientId(patientId)
+                .vitalType(type)
+                .from(from)
+                .to(to);
+
+        if (chunkRepository.countPointsOverlapping(patientId, type, from, to) <= maxPoints) {
+            VitalsChunkCodec.Points points = rawPoints(patientId, type, from, to);
+            return response
+                    .resolution("RAW")
+                    .timestamps(Arrays.copyOf(points.timestamps(), points.size()))
+                    .values(Arrays.copyOf(points.values(), points.size()))
+                    .build();
+        }
+
+        VitalsResolution resolution = resolutionFor(from, to, maxPoints);
+        List<VitalsRollup> buckets = rollups(patientId, type, resolution, from, to);
+        int n = buckets.size();
+        long[] timestamps = new long[n];
+        double[] values = new double[n];
+        double[] min = new double[n];
+        double[] max = new double[n];
+        long[] counts = new long[n];
+        for (int i = 0; i < n; i++) {
+            VitalsRollup bucket = buckets.get(i);
+            timestamps[i] = toEpochMillis(bucket.getBucketStart());
+            values[i] = bucket.getSumValue() / bucket.getSampleCount();
+            min[i] = bucket.getMinValue();
+            max[i] = bucket.getMaxValue();
+            counts[i] = bucket.getSampleCount();
+        }
+        return response
+                .resolution(resolution.name())
+                .timestamps(timestamps)
+                .values(values)
+                .min(min)
+                .max(max)
+                .counts(counts)
+                .build();
+    }
+
+    /**
+     * At most points readings of one vital type between from and to, chosen with
+     * Largest-Triangle-Three-Buckets so the chart keeps its peaks and dips
+     */
+    @Transactional(readOnly = true)
+    public VitalsSeriesResponse getTrend(Long patientId, VitalType type, LocalDateTime from, LocalDateTime to,
+                                         int points) {
+        checkRange(from, to);
+        if (points < 3 || points > MAX_TREND_POINTS) {
+            throw new BadRequestException("points must be between 3 and " + MAX_TREND_POINTS);
+        }
+
+        String resolution;
+        long[] timestamps;
+        double[] values;
+        int size;
+        if (chunkRepository.countPointsOverlapping(patientId, type, from, to) <= trendMaxInputPoints) {
+            VitalsChunkCodec.Points raw = rawPoints(patientId, type, from, to);
+            resolution = "RAW";
+            timestamps = raw.timestamps();
+            values = raw.values();
+            size = raw.size();
+        } else {
+            // Too many raw points to decode per request; downsample the finest rollup that fits instead
+            VitalsResolution rollupResolution = resolutionFor(from, to, trendMaxInputPoints);
+            List<VitalsRollup> buckets = rollups(patientId, type, rollupResolution, from, to);
+            resolution = rollupResolution.name();
+            size = buckets.size();
+            timestamps = new long[size];
+            values = new double[size];
+            for (int i = 0; i < size; i++) {
+                VitalsRollup bucket = buckets.get(i);
+                timestamps[i] = toEpochMillis(bucket.getBucketStart());
+                values[i] = bucket.getSumValue() / bucket.getSampleCount();
+            }
+        }
+
+        int[] kept = LttbDownsampler.select(timestamps, values, size, points);
+        long[] keptTimestamps = new long[kept.length];
+        double[] keptValues = new double[kept.length];
+        for (int i = 0; i < kept.length; i++) {
+            keptTimestamps[i] = timestamps[kept[i]];
+            keptValues[i] = values[kept[i]];
+        }
+        return VitalsSeriesResponse.builder()
+                .patientId(patientId)
+                .vitalType(type)
+                .from(from)
+                .to(to)
+                .resolution(resolution)
+                .downsampled(kept.length < size)
+                .timestamps(keptTimestamps)
+                .values(keptValues)
+                .build();
+    }
+
+    /**
+     * Merge each series' small chunks and drop minute rollups past retention
+     */
+    @Scheduled(fixedDelayString = "${vitals.timeseries.compact-interval-ms:300000}",
+            initialDelayString = "${vitals.timeseries.compact-interval-ms:300000}")
+    public void compactChunks() {
+        int merged = 0;
+        for (Object[] series : chunkRepository.findSeriesToCompact(chunkPoints)) {
+            Long patientId = (Long) series[0];
+            VitalType type = (VitalType) series[1];
+            try {
+                Integer count = transactionTemplate.execute(status -> compactSeries(patientId, type));
+                merged += count != null ? count : 0;
+            } catch (DataAccessException | IllegalStateException e) {
+                log.warn("Skipped compacting {} chunks of patient {}: {}", type, patientId, e.getMessage());
+            }
+        }
+        Integer purged = transactionTemplate.execute(status ->
+                rollupRepository.deleteOlderThan(VitalsResolution.MINUTE, minuteRollupCutoff()));
+        if (merged > 0 || (purged != null && purged > 0)) {
+            log.debug("Vitals compaction merged {} chunks, purged {} minute rollups", merged, purged);
+        }
+    }
+
+    /**
+     * Recompute a patient's rollups from their chunks, replacing the stored rows, and
+     * report the buckets that had drifted. Minute buckets past retention are not rebuilt.
+     * Readings committing while it runs may be counted twice; run it again.
+     */
+    @Transactional
+    public RollupRebuildResponse rebuildRollups(Long patientId) {
+        LocalDateTime minuteCutoff = minuteRollupCutoff();
+        Map<RollupKey, Aggregate> expected = new HashMap<>();
+        ZoneId zone = ZoneId.systemDefault();
+        for (VitalsChunk chunk : chunkRepository.findByPatientId(patientId)) {
+            SeriesKey series = new SeriesKey(patientId, chunk.getVitalType());
+            VitalsChunkCodec.Points points = VitalsChunkCodec.decode(chunk.getData());
+            for (int i = 0; i < points.size(); i++) {
+                LocalDateTime at = LocalDateTime.ofInstant(Instant.ofEpochMilli(points.timestamps()[i]), zone);
+                for (VitalsResolution resolution : RESOLUTIONS) {
+                    LocalDateTime bucketStart = at.truncatedTo(resolution.getUnit());
+                    if (resolution == VitalsResolution.MINUTE && bucketStart.isBefore(minuteCutoff)) {
+                        continue;
+                    }
+                    expected.computeIfAbsent(new RollupKey(series, resolution, bucketStart),
+                            k -> new Aggregate()).add(points.values()[i]);
+                }
+            }
+        }
+
+        Map<RollupKey, VitalsRollup> actual = new HashMap<>();
+        for (VitalsRollup rollup : rollupRepository.findByPatientId(patientId)) {
+            actual.put(new RollupKey(new SeriesKey(patientId, rollup.getVitalType()), rollup.getResolution(),
+                    rollup.getBucketStart()), rollup);
+        }
+        List<String> drift = new ArrayList<>();
+        int driftCount = 0;
+        Set<RollupKey> keys = new HashSet<>(expected.keySet());
+        keys.addAll(actual.keySet());
+        for (RollupKey key : keys) {
+            Aggregate want = expected.get(key);
+            VitalsRollup have = actual.get(key);
+            // Minute buckets past retention are about to be purged anyway
+            boolean expired = want == null && have.getResolution() == VitalsResolution.MINUTE
+                    && have.getBucketStart().isBefore(minuteCutoff);
+            if (expired || (want != null && want.sameAs(have))) {
+                continue;
+            }
+            driftCount++;
+            if (drift.size() < MAX_REPORTED_DRIFT) {
+                drift.add(String.format("%s %s %s: expected %d samples, was %d",
+                        key.series().type(), key.resolution(), key.bucketStart(),
+                        want != null ? want.count : 0, have != null ? have.getSampleCount() : 0));
+            }
+        }
+
+        rollupRepository.deleteByPatientId(patientId);
+        List<Object[]> rows = new ArrayList<>(expected.size());
+        expected.forEach((key, a) -> rows.add(new Object[]{
+                patientId, key.series().type().name(), key.resolution().name(),
+                Timestamp.valueOf(key.bucketStart()), a.count, a.min, a.max, a.sum
+        }));
+        jdbcTemplate.batchUpdate(INSERT_ROLLUP_SQL, rows, INSERT_ROLLUP_ARG_TYPES);
+
+        if (driftCount > 0) {
+            log.warn("Vitals rollup rebuild for patient {} corrected {} drifted buckets", patientId, driftCount);
+        }
+        return RollupRebuildResponse.builder()
+                .rebuiltAt(LocalDateTime.now())
+                .rowsWritten(rows.size())
+                .driftCount(driftCount)
+                .drift(drift)
+                .build();
+    }
+
+    /**
+     * Rebuild the rollups of patients whose incremental update failed on this node
+     */
+    @Scheduled(fixedDelayString = "${vitals.timeseries.rollup-repair-interval-ms:60000}",
+            initialDelayString = "${vitals.timeseries.rollup-repair-interval-ms:60000}")
+    public void repairFailedRollups() {
+        for (Long patientId : List.copyOf(staleRollupPatients)) {
+            // Removed first: a failure while rebuilding queues it again
+            staleRollupPatients.remove(patientId);
+            try {
+                transactionTemplate.executeWithoutResult(status -> rebuildRollups(patientId));
+            } catch (DataAccessException e) {
+                staleRollupPatients.add(patientId);
+                log.warn("Could not rebuild vitals rollups of patient {}: {}", patientId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Seed chunks and rollups from the patient_vitals rows that predate the time series.
+     * Runs on one node at a time and resumes after the last patient committed; a no-op
+     * once it has completed, or while another node holds the backfill lock.
+     */
+    public void backfillIfIncomplete() {
+        if (backfillCompleted()) {
+            return;
+        }
+        if (!clusterLockService.tryAcquire(BACKFILL, backfillLease)) {
+            log.info("Vitals time series backfill is running on another node");
+            return;
+        }
+        try {
+            // Re-read under the lock: the previous holder may have moved on or finished
+            long lastPatientId = jdbcTemplate.queryForObject(READ_PROGRESS_SQL,
+                    (rs, rowNum) -> rs.getTimestamp("completed_at") != null ? -1L : rs.getLong("last_key"), BACKFILL);
+            if (lastPatientId < 0) {
+                return;
+            }
+            long patients = 0;
+            long points = 0;
+            List<Long> page;
+            while (!(page = jdbcTemplate.queryForList(BACKFILL_PATIENTS_SQL, Long.class,
+                    lastPatientId, BACKFILL_PAGE_PATIENTS)).isEmpty()) {
+                for (Long patientId : page) {
+                    if (!clusterLockService.extend(BACKFILL, backfillLease)) {
+                        throw new IllegalStateException("Vitals backfill lock lease ran out");
+                    }
+                    Integer appended = transactionTemplate.execute(status -> {
+                        int count = backfillPatient(patientId);
+                        jdbcTemplate.update(ADVANCE_PROGRESS_SQL, patientId, BACKFILL);
+                        return count;
+                    });
+                    points += appended != null ? appended : 0;
+                    patients++;
+                    lastPatientId = patientId;
+                }
+            }
+            jdbcTemplate.update(COMPLETE_PROGRESS_SQL, Timestamp.valueOf(LocalDateTime.now()), BACKFILL);
+            log.info("Vitals time series backfilled {} points for {} patients", points, patients);
+        } finally {
+            clusterLockService.release(BACKFILL);
+        }
+    }
+
+    private boolean backfillCompleted() {
+        jdbcTemplate.update(INSERT_PROGRESS_SQL, BACKFILL, BACKFILL);
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(READ_PROGRESS_SQL,
+                (rs, rowNum) -> rs.getTimestamp("completed_at") != null, BACKFILL));
+    }
+
+    /**
+     * Append the patient's readings the series does not hold yet, so a rerun appends
+     * nothing. Points are matched as a multiset of (type, time, value): readings that
+     * live writers already appended are skipped, genuine duplicates are kept.
+     *
+     * @return points appended
+     */
+    private int backfillPatient(long patientId) {
+        Integer counted = jdbcTemplate.queryForObject(BACKFILL_COUNT_SQL, Integer.class, patientId);
+        int rows = counted != null ? counted : 0;
+        VitalReadingBuffer readings = new VitalReadingBuffer(rows * TYPES.length);
+        int[] read = {0};
+        // Rows before chunks: a writer commits both together, so any row read here has its chunk visible below.
+        // Rows committed after the count are new readings their writers append; they are left to them
+        jdbcTemplate.query(BACKFILL_SQL, rs -> {
+            Timestamp recordedAt = rs.getTimestamp("recorded_at");
+            if (recordedAt == null || read[0]++ >= rows) {
+                return;
+            }
+            for (VitalType type : TYPES) {
+                double value = rs.getDouble(COLUMN_NAMES[type.ordinal()]);
+                if (!rs.wasNull()) {
+                    readings.add(readings.size(), patientId, type.ordinal(), value, recordedAt.getTime());
+                }
+            }
+        }, patientId);
+
+        Map<PointKey, Integer> present = new HashMap<>();
+        for (VitalsChunk chunk : chunkRepository.findByPatientId(patientId)) {
+            VitalsChunkCodec.Points points = VitalsChunkCodec.decode(chunk.getData());
+            for (int i = 0; i < points.size(); i++) {
+                present.merge(new PointKey(chunk.getVitalType().ordinal(), points.timestamps()[i],
+                        VitalsChunkCodec.fixedPoint(points.values()[i])), 1, Integer::sum);
+            }
+        }
+
+        VitalReadingBuffer missing = new VitalReadingBuffer(readings.size());
+        for (int i = 0; i < readings.size(); i++) {
+            PointKey key = new PointKey(readings.typeOrdinals[i], readings.epochMillis[i],
+                    VitalsChunkCodec.fixedPoint(readings.values[i]));
+            Integer left = present.get(key);
+            if (left == null) {
+                missing.add(i, patientId, readings.typeOrdinals[i], readings.values[i], readings.epochMillis[i]);
+            } else if (left == 1) {
+                present.remove(key);
+            } else {
+                present.put(key, left - 1);
+            }
+        }
+        append(missing);
+        return missing.size();
+    }
+
+    private int compactSeries(Long patientId, VitalType type) {
+        List<VitalsChunk> small = chunkRepository
+                .findByPatientIdAndVitalTypeAndPointCountLessThanOrderByFirstRecordedAtAsc(patientId, type, chunkPoints);
+        if (small.size() < 2) {
+            return 0;
+        }
+        int total = 0;
+        for (VitalsChunk chunk : small) {
+            total += chunk.getPointCount();
+        }
+        long[] timestamps = new long[total];
+        double[] values = new double[total];
+        int size = 0;
+        List<Long> ids = new ArrayList<>(small.size());
+        for (VitalsChunk chunk : small) {
+            VitalsChunkCodec.Points points = VitalsChunkCodec.decode(chunk.getData());
+            System.arraycopy(points.timestamps(), 0, timestamps, size, points.size());
+            System.arraycopy(points.values(), 0, values, size, points.size());
+            size += points.size();
+            ids.add(chunk.getId());
+        }
+
+        // Another node compacting the same series deletes these rows first; roll back rather than duplicate
+        if (chunkRepository.deleteByIdIn(ids) != ids.size()) {
+            throw new IllegalStateException("chunks were compacted concurrently");
+        }
+        List<Object[]> rows = new ArrayList<>();
+        addChunkRows(rows, new SeriesKey(patientId, type), VitalsChunkCodec.sortedByTime(timestamps, values, size));
+        jdbcTemplate.batchUpdate(INSERT_CHUNK_SQL, rows, CHUNK_ARG_TYPES);
+        return small.size();
+    }
+
+    private VitalsChunkCodec.Points rawPoints(Long patientId, VitalType type, LocalDateTime from, LocalDateTime to) {
+        long fromMillis = toEpochMillis(from);
+        long toMillis = toEpochMillis(to);
+        List<VitalsChunk> chunks = chunkRepository.findOverlapping(patientId, type, from, to);
+        int total = 0;
+        for (VitalsChunk chunk : chunks) {
+            total += chunk.getPointCount();
+        }
+        long[] timestamps = new long[total];
+        double[] values = new double[total];
+        int size = 0;
+        for (VitalsChunk chunk : chunks) {
+            VitalsChunkCodec.Points points = VitalsChunkCodec.decode(chunk.getData());
+            for (int i = 0; i < points.size(); i++) {
+                long timestamp = points.timestamps()[i];
+                if (timestamp >= fromMillis && timestamp <= toMillis) {
+                    timestamps[size] = timestamp;
+                    values[size] = points.values()[i];
+                    size++;
+                }
+            }
+        }
+        // Chunks of one series may overlap in time (late or backfilled readings)
+        return VitalsChunkCodec.sortedByTime(timestamps, values, size);
+    }
+
+    private List<VitalsRollup> rollups(Long patientId, VitalType type, VitalsResolution resolution,
+                                       LocalDateTime from, LocalDateTime to) {
+        return rollupRepository.findByPatientIdAndVitalTypeAndResolutionAndBucketStartBetweenOrderByBucketStartAsc(
+                patientId, type, resolution, from.truncatedTo(resolution.getUnit()), to);
+    }
+
+    private static void checkRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("from must be before to");
+        }
+    }
+
+    private VitalsResolution resolutionFor(LocalDateTime from, LocalDateTime to, int maxPoints) {
+        LocalDateTime minuteCutoff = minuteRollupCutoff();
+        for (VitalsResolution resolution : RESOLUTIONS) {
+            if (resolution == VitalsResolution.MINUTE && from.isBefore(minuteCutoff)) {
+                continue;
+            }
+            long buckets = resolution.getUnit().between(from.truncatedTo(resolution.getUnit()), to) + 1;
+            if (buckets <= maxPoints) {
+                return resolution;
+            }
+        }
+        return VitalsResolution.DAY;
+    }
+
+    private LocalDateTime minuteRollupCutoff() {
+        return LocalDateTime.now().minusDays(minuteRetentionDays).truncatedTo(VitalsResolution.DAY.getUnit());
+    }
+
+    private void addChunkRows(List<Object[]> rows, SeriesKey key, VitalsChunkCodec.Points points) {
+        for (int from = 0; from < points.size(); from += chunkPoints) {
+            int count = Math.min(chunkPoints, points.size() - from);
+            rows.add(new Object[]{
+                    key.patientId(), key.type().name(),
+                    new Timestamp(points.timestamps()[from]),
+                    new Timestamp(points.timestamps()[from + count - 1]),
+                    count,
+                    VitalsChunkCodec.encode(points.timestamps(), points.values(), from, count)
+            });
+        }
+    }
+
+    private void applyRollupsAfterCommit(Map<RollupKey, Aggregate> rollups) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyRollups(rollups);
+                }
+            });
+        } else {
+            applyRollups(rollups);
+        }
+    }
+
+    private void applyRollups(Map<RollupKey, Aggregate> rollups) {
+        try {
+            try {
+                requiresNew.executeWithoutResult(status -> upsertRollups(rollups));
+            } catch (DataIntegrityViolationException e) {
+                // Another writer created a bucket between our update and insert; the whole
+                // transaction rolled back, so the second attempt updates that bucket instead
+                requiresNew.executeWithoutResult(status -> upsertRollups(rollups));
+            }
+        } catch (DataAccessException e) {
+            Set<Long> patients = new HashSet<>();
+            rollups.keySet().forEach(key -> patients.add(key.series().patientId()));
+            staleRollupPatients.addAll(patients);
+            log.error("Failed to update {} vitals rollups, queued {} patients for rebuild: {}",
+                    rollups.size(), patients.size(), e.getMessage());
+        }
+    }
+
+    private void upsertRollups(Map<RollupKey, Aggregate> rollups) {
+        List<RollupKey> keys = new ArrayList<>(rollups.keySet());
+        List<Object[]> updates = new ArrayList<>(keys.size());
+        for (RollupKey key : keys) {
+            Aggregate a = rollups.get(key);
+            updates.add(new Object[]{
+                    a.count, a.min, a.max, a.sum,
+                    key.series().patientId(), key.series().type().name(), key.resolution().name(),
+                    Timestamp.valueOf(key.bucketStart())
+            });
+        }
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_ROLLUP_SQL, updates, UPDATE_ROLLUP_ARG_TYPES);
+
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                RollupKey key = keys.get(i);
+                Aggregate a = rollups.get(key);
+                inserts.add(new Object[]{
+                        key.series().patientId(), key.series().type().name(), key.resolution().name(),
+                        Timestamp.valueOf(key.bucketStart()), a.count, a.min, a.max, a.sum
+                });
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ROLLUP_SQL, inserts, INSERT_ROLLUP_ARG_TYPES);
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record SeriesKey(long patientId, VitalType type) {}
+
+    private record PointKey(int typeOrdinal, long epochMillis, long fixedPointValue) {}
+
+    private record RollupKey(SeriesKey series, VitalsResolution resolution, LocalDateTime bucketStart) {}
+
+    private static final class Series {
+        private long[] timestamps = new long[8];
+        private double[] values = new double[8];
+        private int size;
+
+        void add(long timestamp, double value) {
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            timestamps[size] = timestamp;
+            values[size] = value;
+            size++;
+        }
+    }
+
+    private static final class Aggregate {
+        private long count;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double sum;
+
+        void add(double value) {
+            count++;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+        }
+
+        boolean sameAs(VitalsRollup rollup) {
+            return rollup != null && rollup.getSampleCount() == count
+                    && rollup.getMinValue() == min && rollup.getMaxValue() == max
+                    && Math.abs(rollup.getSumValue() - sum) < 1e-6 * Math.max(1, Math.abs(sum));
+        }
+    }
+}
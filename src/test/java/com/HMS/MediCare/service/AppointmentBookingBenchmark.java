@@ -0,0 +1,124 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.request.AppointmentRequest;
+import com.HMS.MediCare.dto.request.DoctorRequest;
+import com.HMS.MediCare.dto.request.PatientRegistrationRequest;
+import com.HMS.MediCare.exception.BadRequestException;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contended booking throughput: two attempts race for every slot of every doctor,
+ * as in AppointmentBookingConcurrencyTests. The booked and rejected counters are
+ * reported per second, so "booked" is bookings/sec. Runs on the benchmark datasource
+ * (-Dbenchmark.datasource.url); each run books fresh doctors, so a reused database is fine.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class AppointmentBookingBenchmark {
+
+    private static final int DOCTORS = 8;
+    private static final int SLOTS_PER_DAY = 16; // 09:00 - 16:30 in 30-minute steps
+
+    @State(Scope.Benchmark)
+    public static class Clinic {
+
+        private ConfigurableApplicationContext context;
+        private AppointmentService appointmentService;
+        private final List<Long> doctorIds = new ArrayList<>();
+        private final List<Long> patientIds = new ArrayList<>();
+        private final AtomicLong attempts = new AtomicLong();
+
+        @Setup
+        public void setUp() {
+            context = BenchmarkApplication.start();
+            appointmentService = context.getBean(AppointmentService.class);
+            DoctorService doctorService = context.getBean(DoctorService.class);
+            PatientService patientService = context.getBean(PatientService.class);
+
+            String run = UUID.randomUUID().toString().substring(0, 8);
+            for (int i = 0; i < DOCTORS; i++) {
+                doctorIds.add(doctorService.createDoctor(DoctorRequest.builder()
+                        .name("Dr bench " + i)
+                        .email("bench-" + run + "-" + i + "@doctor.test")
+                        .password("secret123")
+                        .specialization("General")
+                        .availableFrom(LocalTime.of(9, 0))
+                        .availableTo(LocalTime.of(17, 0))
+                        .build()).getId());
+            }
+            for (int i = 0; i < 2; i++) {
+                patientIds.add(patientService.register(PatientRegistrationRequest.builder()
+                        .name("Patient bench " + i)
+                        .email("bench-" + run + "-" + i + "@patient.test")
+                        .password("secret123")
+                        .build()).getId());
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+
+        public long booked;
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            booked = 0;
+            rejected = 0;
+        }
+    }
+
+    @Benchmark
+    public void bookContendedSlot(Clinic clinic, Outcomes outcomes) {
+        long attempt = clinic.attempts.getAndIncrement();
+        long slotNumber = attempt / 2;
+        Long doctorId = clinic.doctorIds.get((int) (slotNumber % DOCTORS));
+        long slotOfDoctor = slotNumber / DOCTORS;
+        LocalDate date = LocalDate.now().plusDays(1 + slotOfDoctor / SLOTS_PER_DAY);
+        LocalTime slot = LocalTime.of(9, 0).plusMinutes(30 * (slotOfDoctor % SLOTS_PER_DAY));
+        try {
+            clinic.appointmentService.bookAppointment(clinic.patientIds.get((int) (attempt % 2)),
+                    AppointmentRequest.builder()
+                            .doctorId(doctorId)
+                            .date(date)
+                            .preferredTime(slot)
+                            .build());
+            outcomes.booked++;
+        } catch (BadRequestException e) {
+            outcomes.rejected++;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.request.AppointmentRequest;
+import com.HMS.MediCare.dto.request.DoctorRequest;
+import com.HMS.MediCare.dto.request.PatientRegistrationRequest;
+import com.HMS.MediCare.exception.BadRequestException;
+import com.HMS.MediCare.repository.AppointmentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Multi-threaded booking contention against an in-memory H2 database
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentBookingConcurrencyTests {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Test
+    void concurrentBookingsForSameSlotYieldSingleAppointment() throws Exception {
+        Long doctorId = createDoctor("same-slot");
+        List<Long> patientIds = createPatients("same-slot", THREADS);
+        LocalDate date = LocalDate.now().plusDays(7);
+        LocalTime slot = LocalTime.of(10, 0);
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Runnable> attempts = new ArrayList<>();
+        for (Long patientId : patientIds) {
+            attempts.add(() -> book(patientId, doctorId, date, slot, booked, rejected));
+        }
+        runConcurrently(attempts);
+
+        assertEquals(1, booked.get());
+        assertEquals(THREADS - 1, rejected.get());
+        assertEquals(1, appointmentRepository.findConflictingAppointments(doctorId, date, slot).size());
+    }
+
+    @Test
+    void contendedBookingsAcrossDoctorsHaveNoDoubleBookings() throws Exception {
+        int doctors = 8;
+        int slotsPerDay = 16; // 09:00 - 16:30 in 30-minute steps
+        LocalDate date = LocalDate.now().plusDays(8);
+
+        List<Long> doctorIds = new ArrayList<>();
+        for (int i = 0; i < doctors; i++) {
+            doctorIds.add(createDoctor("throughput-" + i));
+        }
+        List<Long> patientIds = createPatients("throughput", 2 * slotsPerDay);
+
+        // Two patients race for every slot of every doctor
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Runnable> attempts = new ArrayList<>();
+        for (Long doctorId : doctorIds) {
+            for (int s = 0; s < slotsPerDay; s++) {
+                LocalTime slot = LocalTime.of(9, 0).plusMinutes(30L * s);
+                Long first = patientIds.get(2 * s);
+                Long second = patientIds.get(2 * s + 1);
+                attempts.add(() -> book(first, doctorId, date, slot, booked, rejected));
+                attempts.add(() -> book(second, doctorId, date, slot, booked, rejected));
+            }
+        }
+
+        runConcurrently(attempts);
+
+        assertEquals(doctors * slotsPerDay, booked.get());
+        assertEquals(doctors * slotsPerDay, rejected.get());
+        for (Long doctorId : doctorIds) {
+            assertEquals(slotsPerDay, appointmentRepository.findBookedTimeSlots(doctorId, date).size());
+            // The index agrees with the database once every booking has committed
+            assertTrue(doctorService.getAvailableSlots(doctorId, date).getAvailableSlots().isEmpty());
+        }
+    }
+
+    private void book(Long patientId, Long doctorId, LocalDate date, LocalTime slot,
+                      AtomicInteger booked, AtomicInteger rejected) {
+        try {
+            appointmentService.bookAppointment(patientId, AppointmentRequest.builder()
+                    .doctorId(doctorId)
+                    .date(date)
+                    .preferredTime(slot)
+                    .build());
+            booked.incrementAndGet();
+        } catch (BadRequestException e) {
+            rejected.incrementAndGet();
+        }
+    }
+
+    private void runConcurrently(List<Runnable> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Runnable task : tasks) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Long createDoctor(String tag) {
+        return doctorService.createDoctor(DoctorRequest.builder()
+                .name("Dr " + tag)
+                .email(tag + "@doctor.test")
+                .password("secret123")
+                .specialization("General")
+                .availableFrom(LocalTime.of(9, 0))
+                .availableTo(LocalTime.of(17, 0))
+                .build()).getId();
+    }
+
+    private List<Long> createPatients(String tag, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(patientService.register(PatientRegistrationRequest.builder()
+                    .name("Patient " + i)
+                    .email(tag + "-" + i + "@patient.test")
+                    .password("secret123")
+                    .build()).getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,134 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.response.AppointmentResponse;
+import com.HMS.MediCare.dto.response.CursorPage;
+import com.HMS.MediCare.entity.Appointment;
+import com.HMS.MediCare.entity.Doctor;
+import com.HMS.MediCare.entity.Patient;
+import com.HMS.MediCare.repository.AppointmentRepository;
+import com.HMS.MediCare.repository.DoctorRepository;
+import com.HMS.MediCare.repository.PatientRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Asserts appointment list endpoints run a constant number of SQL statements
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+class AppointmentQueryCountTests {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Doctor doctor;
+
+    @BeforeEach
+    void seedAppointments() {
+        appointmentRepository.deleteAll();
+        doctor = doctorRepository.save(Doctor.builder()
+                .name("Dr Count")
+                .email("count-" + System.nanoTime() + "@doctor.test")
+                .password("secret123")
+                .specialization("General")
+                .build());
+
+        // Distinct patients so lazy loading would have had to fetch each one
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Patient patient = patientRepository.save(Patient.builder()
+                    .name("Patient " + i)
+                    .email("count-" + System.nanoTime() + "-" + i + "@patient.test")
+                    .password("secret123")
+                    .build());
+            appointments.add(Appointment.builder()
+                    .patient(patient)
+                    .doctor(doctor)
+                    .appointmentDate(LocalDate.now().plusDays(1 + i / 10))
+                    .timeSlot(LocalTime.of(9, 0).plusMinutes(30L * (i % 10)))
+                    .build());
+        }
+        appointmentRepository.saveAll(appointments);
+    }
+
+    @Test
+    void paginatedListingUsesConstantQueryCount() {
+        Statistics statistics = statistics();
+
+        Page<AppointmentResponse> page = appointmentService.getAllAppointmentsPaginated(
+                PageRequest.of(0, PAGE_SIZE, Sort.by("appointmentDate").descending()));
+
+        assertEquals(PAGE_SIZE, page.getNumberOfElements());
+        // One select for the page content plus one count query
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void doctorListingUsesSingleQuery() {
+        Statistics statistics = statistics();
+
+        List<AppointmentResponse> appointments = appointmentService.getDoctorAppointments(doctor.getId());
+
+        assertEquals(PAGE_SIZE, appointments.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void cursorListingWalksEveryRowOnceWithoutCountQuery() {
+        Statistics statistics = statistics();
+
+        Set<Long> seen = new HashSet<>();
+        int pages = 0;
+        String cursor = null;
+        do {
+            CursorPage<AppointmentResponse> page = appointmentService.getAllAppointmentsByCursor(cursor, 30);
+            page.getContent().forEach(a -> seen.add(a.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(PAGE_SIZE, seen.size());
+        // One select per page, no count query
+        assertEquals(pages, statistics.getPrepareStatementCount());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,205 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.response.AuditVerificationResponse;
+import com.HMS.MediCare.entity.AuditArchiveSegment;
+import com.HMS.MediCare.entity.AuditLog;
+import com.HMS.MediCare.enums.AuditAction;
+import com.HMS.MediCare.exception.BadRequestException;
+import com.HMS.MediCare.repository.AuditArchiveSegmentRepository;
+import com.HMS.MediCare.repository.AuditLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cold-tier archiving: months leave audit_logs but stay searchable and verifiable
+ */
+@SpringBootTest(properties = {
+        "audit.archive.dir=target/audit-archive-tests/${random.uuid}",
+        "audit.archive.hot-months=1"
+})
+@ActiveProfiles("test")
+class AuditArchiveServiceTests {
+
+    private static final YearMonth OLDEST = YearMonth.now().minusMonths(3);
+    private static final YearMonth OLDER = YearMonth.now().minusMonths(2);
+
+    @Autowired
+    private AuditArchiveService auditArchiveService;
+
+    @Autowired
+    private AuditChainVerifier auditChainVerifier;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private AuditArchiveSegmentRepository segmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${audit.archive.dir}")
+    private String archiveDir;
+
+    @BeforeEach
+    void seedAndArchive() {
+        if (!segmentRepository.findAll().isEmpty()) {
+            return;
+        }
+        assertEquals(0, auditLogRepository.count(), "archiving needs the old entries to be the oldest ids");
+
+        // 30 entries three months ago, 20 two months ago, 10 this month; even entries belong to user 7
+        for (int i = 0; i < 30; i++) {
+            auditLogWriter.submit(event(i, OLDEST.atDay(5).atTime(10, 0).plusMinutes(i)));
+        }
+        for (int i = 0; i < 20; i++) {
+            auditLogWriter.submit(event(i, OLDER.atDay(12).atTime(10, 0).plusMinutes(i)));
+        }
+        for (int i = 0; i < 10; i++) {
+            auditLogWriter.submit(event(i, LocalDateTime.now()));
+        }
+        assertTrue(auditLogWriter.awaitFlush(10, TimeUnit.SECONDS));
+
+        List<AuditArchiveSegment> created = auditArchiveService.archiveColdMonths();
+
+        assertEquals(2, created.size());
+        assertEquals(OLDEST.toString(), created.get(0).getMonth());
+        assertEquals(30, created.get(0).getEntryCount());
+        assertEquals(OLDER.toString(), created.get(1).getMonth());
+        assertEquals(created.get(0).getLastHash(), created.get(1).getAnchorPreviousHash());
+        assertEquals(10, auditLogRepository.count());
+    }
+
+    @Test
+    void chainStaysVerifiableAcrossArchiveAndHotTable() {
+        AuditVerificationResponse full = auditChainVerifier.verify(true);
+
+        assertTrue(full.isValid(), full.getFailureReason());
+        assertEquals(2, full.getSegmentsVerified());
+        assertEquals(60, full.getEntriesChecked());
+        assertTrue(auditChainVerifier.verify(false).isValid());
+    }
+
+    @Test
+    void archiveSearchScansOnlyMatchingSegments() {
+        List<AuditLog> userSeven = auditArchiveService.searchArchive(null, null, 7L, "Patient", null, 100);
+        assertEquals(15 + 10, userSeven.size());
+        assertTrue(userSeven.get(0).getId() > userSeven.get(userSeven.size() - 1).getId());
+
+        LocalDateTime start = OLDEST.atDay(1).atStartOfDay();
+        LocalDateTime end = OLDEST.atEndOfMonth().atTime(23, 59);
+        List<AuditLog> oldestMonth = auditArchiveService.searchArchive(start, end, null, null, AuditAction.READ, 100);
+        assertEquals(30, oldestMonth.size());
+        assertTrue(oldestMonth.stream().allMatch(a -> YearMonth.from(a.getTimestamp()).equals(OLDEST)));
+
+        assertEquals(5, auditArchiveService.searchArchive(null, null, null, null, null, 5).size());
+    }
+
+    @Test
+    void modifiedSegmentFileFailsFullVerification() throws Exception {
+        AuditArchiveSegment segment = segmentRepository.findAllByOrderByFirstIdAsc().get(0);
+        Path file = Paths.get(archiveDir).resolve(segment.getFileName());
+        byte[] original = Files.readAllBytes(file);
+        byte[] tampered = original.clone();
+        tampered[tampered.length - 1] ^= 0x01;
+        Files.write(file, tampered);
+        try {
+            AuditVerificationResponse result = auditChainVerifier.verify(true);
+
+            assertFalse(result.isValid());
+            assertEquals(segment.getFirstId(), result.getBrokenAtId());
+        } finally {
+            Files.write(file, original);
+        }
+    }
+
+    @Test
+    void modifiedSegmentFileFailsVerificationWithoutACheckpoint() throws Exception {
+        AuditArchiveSegment segment = segmentRepository.findAllByOrderByFirstIdAsc().get(1);
+        Path file = Paths.get(archiveDir).resolve(segment.getFileName());
+        byte[] original = Files.readAllBytes(file);
+        byte[] tampered = original.clone();
+        tampered[tampered.length / 2] ^= 0x01;
+        jdbcTemplate.update("DELETE FROM audit_chain_checkpoints");
+        Files.write(file, tampered);
+        try {
+            AuditVerificationResponse result = auditChainVerifier.verify(false);
+
+            assertFalse(result.isResumedFromCheckpoint());
+            assertFalse(result.isValid());
+            assertEquals(segment.getFirstId(), result.getBrokenAtId());
+            assertEquals(1, result.getSegmentsVerified());
+        } finally {
+            Files.write(file, original);
+        }
+
+        AuditVerificationResponse restored = auditChainVerifier.verify(false);
+        assertTrue(restored.isValid(), restored.getFailureReason());
+        assertEquals(2, restored.getSegmentsVerified());
+        assertEquals(60, restored.getTotalVerified());
+    }
+
+    @Test
+    void deletingTheOldestSegmentBreaksTheChain() throws Exception {
+        List<AuditArchiveSegment> segments = segmentRepository.findAllByOrderByFirstIdAsc();
+        AuditArchiveSegment oldest = segments.get(0);
+        Path file = Paths.get(archiveDir).resolve(oldest.getFileName());
+        Path aside = file.resolveSibling(oldest.getFileName() + ".removed");
+        Files.move(file, aside);
+        jdbcTemplate.execute("CREATE TABLE audit_archive_segments_removed AS SELECT * FROM audit_archive_segments WHERE id = "
+                + oldest.getId());
+        jdbcTemplate.update("DELETE FROM audit_archive_segments WHERE id = ?", oldest.getId());
+        try {
+            AuditVerificationResponse result = auditChainVerifier.verify(true);
+
+            assertFalse(result.isValid());
+            assertEquals(segments.get(1).getFirstId(), result.getBrokenAtId());
+            assertEquals(0, result.getSegmentsVerified());
+        } finally {
+            jdbcTemplate.update("INSERT INTO audit_archive_segments SELECT * FROM audit_archive_segments_removed");
+            jdbcTemplate.execute("DROP TABLE audit_archive_segments_removed");
+            Files.move(aside, file);
+        }
+        assertTrue(auditChainVerifier.verify(true).isValid());
+    }
+
+    @Test
+    void archiveLockHeldByAnotherNodeBlocksArchivingAndVerification() {
+        String holdLock = "UPDATE cluster_locks SET locked_until = ?, locked_by = ? WHERE name = ?";
+        jdbcTemplate.update(holdLock, LocalDateTime.now().plusMinutes(5), "other-node", AuditArchiveService.ARCHIVE_LOCK);
+        try {
+            assertThrows(BadRequestException.class, auditArchiveService::archiveColdMonths);
+            assertThrows(BadRequestException.class, () -> auditChainVerifier.verify(false));
+        } finally {
+            jdbcTemplate.update(holdLock, LocalDateTime.now(), null, AuditArchiveService.ARCHIVE_LOCK);
+        }
+        assertTrue(auditChainVerifier.verify(false).isValid());
+    }
+
+    private static AuditLogWriter.AuditEvent event(int i, LocalDateTime timestamp) {
+        return new AuditLogWriter.AuditEvent(AuditAction.READ, "Patient", String.valueOf(i),
+                i % 2 == 0 ? 7L : null, "archive@test", "ADMIN", "127.0.0.1",
+                "AuditArchiveServiceTests.seed", null, "SUCCESS", timestamp);
+    }
+}
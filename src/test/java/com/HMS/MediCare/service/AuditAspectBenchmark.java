@@ -0,0 +1,104 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.aspect.AuditAspect;
+import com.HMS.MediCare.aspect.AuditMetadataRegistry;
+import com.HMS.MediCare.aspect.AuditPolicy;
+import com.HMS.MediCare.config.AuditPolicyProperties;
+import com.HMS.MediCare.dto.response.PatientResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Per-call overhead of AuditAspect around a service method, and the id lookup
+ * it replaced (reflective getMethod/invoke vs cached method handle).
+ * The audit sink is a no-op stub, so only the aspect itself is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuditAspectBenchmark {
+
+    private BenchmarkTargetService direct;
+    private BenchmarkTargetService audited;
+    private AuditMetadataRegistry registry;
+    private PatientResponse result;
+
+    @Setup
+    public void setUp() {
+        AuditPolicy policy = new AuditPolicy(new AuditPolicyProperties());
+        registry = new AuditMetadataRegistry(policy);
+        // stubOnly: the mock does not record invocations, so memory stays flat
+        AuditLogService sink = mock(AuditLogService.class, withSettings().stubOnly());
+
+        direct = new BenchmarkTargetService();
+        AspectJProxyFactory factory = new AspectJProxyFactory(direct);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new AuditAspect(sink, policy, registry));
+        audited = factory.getProxy();
+
+        result = PatientResponse.builder().id(42L).name("Benchmark").build();
+    }
+
+    @Benchmark
+    public PatientResponse createDirect() {
+        return direct.createRecord(result);
+    }
+
+    @Benchmark
+    public PatientResponse createAudited() {
+        return audited.createRecord(result);
+    }
+
+    @Benchmark
+    public PatientResponse readAudited() {
+        return audited.getRecord(42L, result);
+    }
+
+    @Benchmark
+    public String idByReflection() {
+        try {
+            Method method = result.getClass().getMethod("getId");
+            Object id = method.invoke(result);
+            return id != null ? String.valueOf(id) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public String idByMethodHandle() {
+        return registry.extractId(result);
+    }
+}
+
+/**
+ * Stand-in service; lives in the service package so AuditAspect's pointcuts match it
+ */
+class BenchmarkTargetService {
+
+    public PatientResponse createRecord(PatientResponse record) {
+        return record;
+    }
+
+    public PatientResponse getRecord(Long id, PatientResponse record) {
+        return record;
+    }
+}
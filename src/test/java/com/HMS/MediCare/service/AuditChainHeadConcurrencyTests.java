@@ -0,0 +1,104 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.enums.AuditAction;
+import com.HMS.MediCare.repository.AuditLogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 64 parallel writers spread over several writer instances sharing one database,
+ * standing in for multiple application nodes appending to the same chain
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:audit-chain-head;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "audit.writer.batch-size=50"
+})
+@ActiveProfiles("test")
+class AuditChainHeadConcurrencyTests {
+
+    private static final int THREADS = 64;
+    private static final int EVENTS_PER_THREAD = 50;
+    private static final int EXTRA_NODES = 3;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private AuditChainVerifier auditChainVerifier;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void parallelWritersOnSeveralNodesKeepChainLinear() throws Exception {
+        assertTrue(auditLogWriter.awaitFlush(10, TimeUnit.SECONDS));
+        long before = auditLogRepository.count();
+
+        List<AuditLogWriter> nodes = new ArrayList<>();
+        nodes.add(auditLogWriter);
+        for (int i = 0; i < EXTRA_NODES; i++) {
+            AuditLogWriter node = new AuditLogWriter(auditLogRepository, jdbcTemplate, transactionManager, 1000, 50, 100, 5000);
+            node.start();
+            nodes.add(node);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                AuditLogWriter node = nodes.get(t % nodes.size());
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                        node.submit(event(thread + "-" + i));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            for (AuditLogWriter node : nodes) {
+                assertTrue(node.awaitFlush(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+            nodes.stream().skip(1).forEach(AuditLogWriter::stop);
+        }
+
+        assertEquals(before + THREADS * EVENTS_PER_THREAD, auditLogRepository.count());
+        // Nodes took turns on the head rather than each extending its own copy
+        assertTrue(nodes.stream().mapToLong(AuditLogWriter::getHandoffs).sum() > 0);
+        assertTrue(auditChainVerifier.verify(true).isValid());
+    }
+
+    private static AuditLogWriter.AuditEvent event(String entityId) {
+        return new AuditLogWriter.AuditEvent(AuditAction.READ, "Test", entityId, null, "SYSTEM", "SYSTEM",
+                "127.0.0.1", "AuditChainHeadConcurrencyTests.load", null, "SUCCESS", LocalDateTime.now());
+    }
+}
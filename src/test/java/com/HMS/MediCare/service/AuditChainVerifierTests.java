@@ -0,0 +1,107 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.response.AuditVerificationResponse;
+import com.HMS.MediCare.enums.AuditAction;
+import com.HMS.MediCare.repository.AuditLogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Chunked, checkpointed audit chain verification
+ */
+@SpringBootTest(properties = {
+        "audit.verify.chunk-size=500"
+})
+@ActiveProfiles("test")
+class AuditChainVerifierTests {
+
+    @Autowired
+    private AuditChainVerifier verifier;
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void resumesFromCheckpointAndDetectsTampering() {
+        writeEvents(5_000);
+        AuditVerificationResponse full = verifier.verify(true);
+        assertTrue(full.isValid());
+        assertFalse(full.isResumedFromCheckpoint());
+        assertEquals(auditLogRepository.count(), full.getEntriesChecked());
+
+        writeEvents(700);
+        AuditVerificationResponse incremental = verifier.verify(false);
+        assertTrue(incremental.isValid());
+        assertTrue(incremental.isResumedFromCheckpoint());
+        assertEquals(700, incremental.getEntriesChecked());
+        assertEquals(auditLogRepository.count(), incremental.getTotalVerified());
+
+        // Edit an entry in the middle of the chain behind the application's back
+        Long target = auditLogRepository.findMaxId().orElseThrow() - 3_000;
+        String original = jdbcTemplate.queryForObject("SELECT method FROM audit_logs WHERE id = ?", String.class, target);
+        jdbcTemplate.update("UPDATE audit_logs SET method = 'tampered' WHERE id = ?", target);
+        try {
+            AuditVerificationResponse tampered = verifier.verify(true);
+            assertFalse(tampered.isValid());
+            assertEquals(target, tampered.getBrokenAtId());
+            assertFalse(verifier.getProgress().isRunning());
+        } finally {
+            jdbcTemplate.update("UPDATE audit_logs SET method = ? WHERE id = ?", original, target);
+        }
+    }
+
+    @Test
+    void forgedCheckpointFallsBackToFullVerification() {
+        writeEvents(200);
+        assertTrue(verifier.verify(false).isValid());
+
+        jdbcTemplate.update("UPDATE audit_chain_checkpoints SET entries_verified = entries_verified + 1000");
+
+        AuditVerificationResponse result = verifier.verify(false);
+        assertTrue(result.isValid());
+        assertFalse(result.isResumedFromCheckpoint());
+        assertEquals(auditLogRepository.count(), result.getEntriesChecked());
+    }
+
+    @Test
+    void deletingTheFirstEntryBreaksTheChain() {
+        writeEvents(50);
+        Long firstId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM audit_logs", Long.class);
+        jdbcTemplate.execute("CREATE TABLE audit_logs_removed AS SELECT * FROM audit_logs WHERE id = " + firstId);
+        jdbcTemplate.update("DELETE FROM audit_logs WHERE id = ?", firstId);
+        try {
+            AuditVerificationResponse result = verifier.verify(true);
+            assertFalse(result.isValid());
+            assertEquals(jdbcTemplate.queryForObject("SELECT MIN(id) FROM audit_logs", Long.class), result.getBrokenAtId());
+        } finally {
+            jdbcTemplate.update("INSERT INTO audit_logs SELECT * FROM audit_logs_removed");
+            jdbcTemplate.execute("DROP TABLE audit_logs_removed");
+        }
+        assertTrue(verifier.verify(true).isValid());
+    }
+
+    private void writeEvents(int count) {
+        for (int i = 0; i < count; i++) {
+            auditLogService.log(AuditAction.UPDATE, "Test", String.valueOf(i), "AuditChainVerifierTests.write");
+        }
+        assertTrue(auditLogWriter.awaitFlush(30, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,201 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.entity.AuditLog;
+import com.HMS.MediCare.enums.AuditAction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Audit search correctness for every filter combination, and the index each
+ * common filter shape is planned on, checked against the SQL Hibernate actually emits.
+ * Latency lives in AuditSearchBenchmark.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AuditLogSearchTests {
+
+    private static final int ROWS = 20_000;
+    private static final String[] ENTITY_TYPES = {"Patient", "Doctor", "Appointment", "Payment", "MedicalRecord"};
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    // The query this search used before: every optional filter in one statement
+    private static final String CATCH_ALL_JPQL = "SELECT a FROM AuditLog a WHERE " +
+            "(:startDate IS NULL OR a.timestamp >= :startDate) AND " +
+            "(:endDate IS NULL OR a.timestamp <= :endDate) AND " +
+            "(:userId IS NULL OR a.userId = :userId) AND " +
+            "(:entityType IS NULL OR a.entityType = :entityType) AND " +
+            "(:action IS NULL OR a.action = :action) ORDER BY a.timestamp DESC";
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void seed() {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_logs", Integer.class);
+        if (existing != null && existing >= ROWS) {
+            return;
+        }
+        AuditAction[] actions = AuditAction.values();
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            batch.add(new Object[]{
+                    actions[i % actions.length].name(), ENTITY_TYPES[i % ENTITY_TYPES.length], String.valueOf(i),
+                    (long) (i % 500), "user" + (i % 500) + "@test", "ADMIN", "AuditLogSearchTests.seed", "SUCCESS",
+                    Timestamp.valueOf(BASE.plusMinutes(i)), "seed", "seed"
+            });
+            if (batch.size() == 1000 || i == ROWS - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO audit_logs (action, entity_type, entity_id, user_id, " +
+                        "user_email, user_role, method, outcome, timestamp, previous_hash, current_hash) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    void everyFilterCombinationMatchesCatchAllQuery() {
+        LocalDateTime start = BASE.plusDays(2);
+        LocalDateTime end = BASE.plusDays(6);
+        for (int mask = 0; mask < 32; mask++) {
+            Filters filters = Filters.of(mask, start, end);
+            Page<AuditLog> page = search(filters);
+            List<AuditLog> expected = catchAll(filters);
+
+            assertEquals(expected.size(), page.getTotalElements(), "filters " + filters);
+            assertEquals(expected.stream().limit(20).map(AuditLog::getId).toList(),
+                    page.getContent().stream().map(AuditLog::getId).toList(), "filters " + filters);
+        }
+    }
+
+    @Test
+    void filterShapesAreServedByAnIndex() {
+        LocalDateTime start = BASE.plusDays(1);
+        LocalDateTime end = BASE.plusDays(3);
+
+        assertIndexed(new Filters(start, end, 42L, null, null));
+        assertIndexed(new Filters(start, end, null, "Payment", null));
+        assertIndexed(new Filters(start, end, null, null, AuditAction.values()[1]));
+        assertIndexed(new Filters(start, end, null, null, null));
+    }
+
+    // EXPLAIN the page query Hibernate emitted for these filters, bound with the same values
+    private void assertIndexed(Filters f) {
+        List<String> statements = new ArrayList<>();
+        CAPTURED.set(statements);
+        try {
+            search(f);
+        } finally {
+            CAPTURED.remove();
+        }
+        String sql = statements.stream()
+                .filter(statement -> !statement.toLowerCase().contains("count("))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no page query captured for " + f));
+
+        // Parameters follow the specification's predicate order; the rest are the page limits
+        List<Object> args = new ArrayList<>();
+        if (f.userId() != null) {
+            args.add(f.userId());
+        }
+        if (f.entityType() != null) {
+            args.add(f.entityType());
+        }
+        if (f.action() != null) {
+            args.add(f.action().name());
+        }
+        if (f.startDate() != null) {
+            args.add(Timestamp.valueOf(f.startDate()));
+        }
+        if (f.endDate() != null) {
+            args.add(Timestamp.valueOf(f.endDate()));
+        }
+        long placeholders = sql.chars().filter(c -> c == '?').count();
+        while (args.size() < placeholders) {
+            args.add(20);
+        }
+
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, args.toArray());
+        assertNotNull(plan);
+        assertFalse(plan.contains("tableScan"), sql + "\n" + plan);
+    }
+
+    private Page<AuditLog> search(Filters f) {
+        return auditLogService.searchAuditLogs(f.startDate(), f.endDate(), f.userId(), f.entityType(), f.action(),
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "timestamp")));
+    }
+
+    private List<AuditLog> catchAll(Filters f) {
+        TypedQuery<AuditLog> query = entityManager.createQuery(CATCH_ALL_JPQL, AuditLog.class)
+                .setParameter("startDate", f.startDate())
+                .setParameter("endDate", f.endDate())
+                .setParameter("userId", f.userId())
+                .setParameter("entityType", f.entityType())
+                .setParameter("action", f.action());
+        List<AuditLog> rows = query.getResultList();
+        entityManager.clear();
+        return rows;
+    }
+
+    /**
+     * Records the SQL Hibernate prepares on threads that asked for it
+     */
+    @TestConfiguration
+    static class StatementCaptureConfig {
+
+        @Bean
+        HibernatePropertiesCustomizer statementCapture() {
+            StatementInspector inspector = sql -> {
+                List<String> statements = CAPTURED.get();
+                if (statements != null) {
+                    statements.add(sql);
+                }
+                return sql;
+            };
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+        }
+    }
+
+    private record Filters(LocalDateTime startDate, LocalDateTime endDate, Long userId,
+                           String entityType, AuditAction action) {
+        static Filters of(int mask, LocalDateTime start, LocalDateTime end) {
+            return new Filters(
+                    (mask & 1) != 0 ? start : null,
+                    (mask & 2) != 0 ? end : null,
+                    (mask & 4) != 0 ? 7L : null,
+                    (mask & 8) != 0 ? "Doctor" : null,
+                    (mask & 16) != 0 ? AuditAction.values()[1] : null);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.enums.AuditAction;
+import com.HMS.MediCare.repository.AuditLogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Asynchronous audit pipeline: ordering, batching, backpressure and retries
+ */
+@SpringBootTest(properties = {
+        "audit.writer.queue-capacity=64",
+        "audit.writer.batch-size=50"
+})
+@ActiveProfiles("test")
+class AuditLogWriterTests {
+
+    private static final int THREADS = 16;
+    private static final int EVENTS_PER_THREAD = 200;
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentProducersProduceIntactChain() throws Exception {
+        assertTrue(auditLogWriter.awaitFlush(10, TimeUnit.SECONDS));
+        long before = auditLogRepository.count();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                        auditLogService.log(AuditAction.READ, "Test", thread + "-" + i, "AuditLogWriterTests.load");
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(auditLogWriter.awaitFlush(30, TimeUnit.SECONDS));
+        assertEquals(before + THREADS * EVENTS_PER_THREAD, auditLogRepository.count());
+        // 3200 events through a 64-slot queue: producers must have waited for the writer
+        assertTrue(auditLogWriter.getBackpressureWaits() > 0);
+        assertTrue(auditLogService.verifyHashChain());
+    }
+
+    @Test
+    void successEntriesWaitForTheCallersCommit() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            auditLogService.log(AuditAction.UPDATE, "RollbackTest", "rolled-back", "AuditLogWriterTests.update");
+            auditLogService.record(AuditAction.UPDATE, "RollbackTest", "failed", "AuditLogWriterTests.update",
+                    "validation failed", "FAILURE");
+            status.setRollbackOnly();
+        });
+        transaction.executeWithoutResult(status ->
+                auditLogService.log(AuditAction.UPDATE, "RollbackTest", "committed", "AuditLogWriterTests.update"));
+
+        assertTrue(auditLogWriter.awaitFlush(10, TimeUnit.SECONDS));
+        assertTrue(auditLogRepository.findByEntityTypeAndEntityId("RollbackTest", "rolled-back").isEmpty());
+        assertEquals(1, auditLogRepository.findByEntityTypeAndEntityId("RollbackTest", "failed").size());
+        assertEquals(1, auditLogRepository.findByEntityTypeAndEntityId("RollbackTest", "committed").size());
+    }
+
+    @Test
+    void batchesFailingMoreThanOnceAreRetriedUntilWritten() {
+        assertTrue(auditLogWriter.awaitFlush(10, TimeUnit.SECONDS));
+        long before = auditLogRepository.count();
+
+        // The first four batch inserts fail, as they would while the database fails over
+        AtomicInteger failures = new AtomicInteger(4);
+        JdbcTemplate flaky = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs, int[] argTypes) {
+                if (failures.getAndDecrement() > 0) {
+                    throw new TransientDataAccessResourceException("connection reset");
+                }
+                return super.batchUpdate(sql, batchArgs, argTypes);
+            }
+        };
+        AuditLogWriter node = new AuditLogWriter(auditLogRepository, flaky, transactionManager, 8, 10, 10, 50);
+        node.start();
+        try {
+            for (int i = 0; i < 40; i++) {
+                node.submit(new AuditLogWriter.AuditEvent(AuditAction.READ, "RetryTest", String.valueOf(i), null,
+                        "SYSTEM", "SYSTEM", null, "AuditLogWriterTests.retry", null, "SUCCESS", LocalDateTime.now()));
+            }
+            assertTrue(node.awaitFlush(30, TimeUnit.SECONDS));
+        } finally {
+            node.stop();
+        }
+
+        assertTrue(failures.get() < 0);
+        // Producers blocked on the 8-slot queue while the writer retried
+        assertTrue(node.getBackpressureWaits() > 0);
+        assertEquals(before + 40, auditLogRepository.count());
+        assertTrue(auditLogService.verifyHashChain());
+    }
+}
@@ -0,0 +1,161 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.request.DoctorRequest;
+import com.HMS.MediCare.dto.request.PatientRegistrationRequest;
+import com.HMS.MediCare.entity.AuditLog;
+import com.HMS.MediCare.enums.AuditAction;
+import com.HMS.MediCare.enums.ExportFormat;
+import com.HMS.MediCare.exception.ResourceNotFoundException;
+import com.HMS.MediCare.repository.AuditLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * AuditAspect policies: coalesced reads and not-found failures, per-method and per-service overrides,
+ * exports always recorded
+ */
+@SpringBootTest(properties = {
+        "audit.policy.flush-interval-ms=3600000",
+        "audit.policy.coalesce-window-seconds=3600",
+        "audit.policy.rules.[PatientService.getAllPatients]=ALWAYS",
+        "audit.policy.rules.DoctorService=OFF"
+})
+@ActiveProfiles("test")
+class AuditPolicyTests {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private SlotOccupancyIndex slotOccupancyIndex;
+
+    @Autowired
+    private AuditChainVerifier auditChainVerifier;
+
+    @Autowired
+    private AuditCoalescer auditCoalescer;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @BeforeEach
+    void drain() {
+        flush();
+    }
+
+    @Test
+    void repeatedReadsOfOnePatientBecomeOneRow() {
+        Long patientId = patientService.register(PatientRegistrationRequest.builder()
+                .name("Polled Patient")
+                .email("polled-" + System.nanoTime() + "@patient.test")
+                .password("secret123")
+                .build()).getId();
+        flush();
+
+        for (int i = 0; i < 25; i++) {
+            patientService.getPatientById(patientId);
+        }
+        flush();
+
+        List<AuditLog> reads = auditLogRepository.findByEntityTypeAndEntityId("Patient", String.valueOf(patientId))
+                .stream().filter(a -> a.getAction() == AuditAction.READ).toList();
+        assertEquals(1, reads.size());
+        assertTrue(reads.get(0).getDetails().startsWith("Coalesced 25 events"));
+    }
+
+    @Test
+    void notFoundFailuresFromPollingAreCoalesced() {
+        for (int i = 0; i < 10; i++) {
+            assertThrows(ResourceNotFoundException.class, () -> patientService.getPatientById(987_654L));
+        }
+        flush();
+
+        List<AuditLog> failures = auditLogRepository.findByEntityTypeAndEntityId("Patient", "987654");
+        assertEquals(1, failures.size());
+        assertEquals("FAILURE", failures.get(0).getOutcome());
+        assertTrue(failures.get(0).getDetails().startsWith("Coalesced 10 events"));
+    }
+
+    @Test
+    void methodAndServiceRulesOverrideDefaults() {
+        Long doctorId = doctorService.createDoctor(DoctorRequest.builder()
+                .name("Dr Policy")
+                .email("policy-" + System.nanoTime() + "@doctor.test")
+                .password("secret123")
+                .specialization("General")
+                .availableFrom(LocalTime.of(9, 0))
+                .availableTo(LocalTime.of(17, 0))
+                .build()).getId();
+        flush();
+        long before = auditLogRepository.count();
+
+        for (int i = 0; i < 3; i++) {
+            patientService.getAllPatients();
+            doctorService.getDoctorById(doctorId);
+        }
+        flush();
+
+        // getAllPatients is ALWAYS (3 rows); DoctorService is OFF (none)
+        assertEquals(before + 3, auditLogRepository.count());
+    }
+
+    @Test
+    void infrastructureLookupsAreNotAuditedAsReads() {
+        long before = auditLogRepository.count();
+
+        slotOccupancyIndex.findAvailableSlots(1L, LocalDate.now().plusDays(1), LocalTime.of(9, 0), LocalTime.of(12, 0), 30);
+        auditChainVerifier.getProgress();
+        flush();
+
+        assertEquals(before, auditLogRepository.count());
+    }
+
+    @Test
+    void everyExportIsRecordedWithItsSize() throws Exception {
+        long before = exports().size();
+
+        long patients = exportService.exportPatients(ExportFormat.CSV, new ByteArrayOutputStream());
+        exportService.exportPatients(ExportFormat.CSV, new ByteArrayOutputStream());
+        exportService.exportAppointments(ExportFormat.NDJSON, new ByteArrayOutputStream());
+        flush();
+
+        // Not coalesced like reads: one row per export
+        List<AuditLog> exports = exports();
+        assertEquals(before + 3, exports.size());
+        AuditLog first = exports.get((int) before);
+        assertTrue(first.getMethod().contains("exportPatients"));
+        assertEquals("Exported " + patients + " records as CSV", first.getDetails());
+    }
+
+    private List<AuditLog> exports() {
+        return auditLogRepository.findAllByOrderByIdAsc().stream()
+                .filter(a -> a.getAction() == AuditAction.EXPORT).toList();
+    }
+
+    private void flush() {
+        auditCoalescer.flushAll();
+        assertTrue(auditLogWriter.awaitFlush(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,144 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.entity.AuditLog;
+import com.HMS.MediCare.enums.AuditAction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Audit search latency (sample mode, so p95 is reported) for the Specification
+ * search against the catch-all query it replaced, on two common filter shapes.
+ * The audit_logs table is topped up to -Dbenchmark.audit.rows seeded entries; point
+ * -Dbenchmark.datasource.url at PostgreSQL for the plans that matter, since H2
+ * does not show the generic-plan problem.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuditSearchBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.audit.rows", 100_000);
+    private static final String[] ENTITY_TYPES = {"Patient", "Doctor", "Appointment", "Payment", "MedicalRecord"};
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    // The query this search used before: every optional filter in one statement
+    private static final String CATCH_ALL_WHERE = " FROM AuditLog a WHERE " +
+            "(:startDate IS NULL OR a.timestamp >= :startDate) AND " +
+            "(:endDate IS NULL OR a.timestamp <= :endDate) AND " +
+            "(:userId IS NULL OR a.userId = :userId) AND " +
+            "(:entityType IS NULL OR a.entityType = :entityType) AND " +
+            "(:action IS NULL OR a.action = :action)";
+
+    private ConfigurableApplicationContext context;
+    private AuditLogService auditLogService;
+    private EntityManagerFactory entityManagerFactory;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        auditLogService = context.getBean(AuditLogService.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long catchAllByUser() {
+        return catchAll(BASE.plusDays(1), BASE.plusDays(10), 42L, null);
+    }
+
+    @Benchmark
+    public long searchByUser() {
+        return search(BASE.plusDays(1), BASE.plusDays(10), 42L, null);
+    }
+
+    @Benchmark
+    public long catchAllByEntityType() {
+        return catchAll(BASE.plusDays(1), BASE.plusDays(3), null, "Payment");
+    }
+
+    @Benchmark
+    public long searchByEntityType() {
+        return search(BASE.plusDays(1), BASE.plusDays(3), null, "Payment");
+    }
+
+    private long search(LocalDateTime start, LocalDateTime end, Long userId, String entityType) {
+        return auditLogService.searchAuditLogs(start, end, userId, entityType, null,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "timestamp"))).getTotalElements();
+    }
+
+    // Same page and count the repository ran for the old query
+    private long catchAll(LocalDateTime start, LocalDateTime end, Long userId, String entityType) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            List<AuditLog> page = bind(entityManager.createQuery("SELECT a" + CATCH_ALL_WHERE +
+                    " ORDER BY a.timestamp DESC", AuditLog.class), start, end, userId, entityType)
+                    .setMaxResults(20)
+                    .getResultList();
+            Long total = (Long) bind(entityManager.createQuery("SELECT COUNT(a)" + CATCH_ALL_WHERE),
+                    start, end, userId, entityType).getSingleResult();
+            return page.isEmpty() ? 0 : total;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static <Q extends Query> Q bind(Q query, LocalDateTime start, LocalDateTime end,
+                                            Long userId, String entityType) {
+        query.setParameter("startDate", start)
+                .setParameter("endDate", end)
+                .setParameter("userId", userId)
+                .setParameter("entityType", entityType)
+                .setParameter("action", null);
+        return query;
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_logs", Integer.class);
+        int from = existing != null ? existing : 0;
+        AuditAction[] actions = AuditAction.values();
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = from; i < ROWS; i++) {
+            batch.add(new Object[]{
+                    actions[i % actions.length].name(), ENTITY_TYPES[i % ENTITY_TYPES.length], String.valueOf(i),
+                    (long) (i % 500), "user" + (i % 500) + "@test", "ADMIN", "AuditSearchBenchmark.seed", "SUCCESS",
+                    Timestamp.valueOf(BASE.plusSeconds(i * 30L)), "seed", "seed"
+            });
+            if (batch.size() == 1000 || i == ROWS - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO audit_logs (action, entity_type, entity_id, user_id, " +
+                        "user_email, user_role, method, outcome, timestamp, previous_hash, current_hash) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.security.JwtAuthenticationFilter;
+import com.HMS.MediCare.repository.RevokedTokenRepository;
+import com.HMS.MediCare.security.JwtService;
+import com.HMS.MediCare.security.TokenDenyList;
+import com.HMS.MediCare.security.VerifiedToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Throughput of the auth hot path: token issue, token verification (cold parse
+ * and cached), a full JwtAuthenticationFilter pass, the deny-list check and
+ * BCrypt matching as done at login. Run with the benchmark profile; -prof gc adds the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthBenchmark {
+
+    private static final String PASSWORD = "secret123";
+
+    private JwtService jwtService;
+    private TokenDenyList tokenDenyList;
+    private String revokedJti;
+    private JwtAuthenticationFilter filter;
+    private BCryptPasswordEncoder passwordEncoder;
+    private String accessToken;
+    private String accessTokenJti;
+    private String passwordHash;
+
+    @Setup
+    public void setUp() {
+        // stubOnly: the store is never read on the hot path, only written on revoke
+        tokenDenyList = new TokenDenyList(mock(RevokedTokenRepository.class, withSettings().stubOnly()), 100_000, 0.001, 60_000);
+        for (int i = 0; i < 10_000; i++) {
+            tokenDenyList.revoke(UUID.randomUUID().toString(), Instant.now().plusSeconds(3600), "BENCHMARK");
+        }
+        revokedJti = UUID.randomUUID().toString();
+        tokenDenyList.revoke(revokedJti, Instant.now().plusSeconds(3600), "BENCHMARK");
+
+        jwtService = new JwtService(tokenDenyList);
+        ReflectionTestUtils.setField(jwtService, "secretKey",
+                "MediCareSecretKey2024ForJWTTokenGenerationAndValidationMinimum256Bits");
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaxEntries", 10_000);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        filter = new JwtAuthenticationFilter(jwtService);
+
+        // Same default strength AuthService uses
+        passwordEncoder = new BCryptPasswordEncoder();
+        passwordHash = passwordEncoder.encode(PASSWORD);
+        accessToken = jwtService.generateAccessToken(42L, "bench@patient.test", "PATIENT");
+        accessTokenJti = jwtService.verify(accessToken).orElseThrow().jti();
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(42L, "bench@patient.test", "PATIENT");
+    }
+
+    // Signature check and claim parsing on every call, no cache
+    @Benchmark
+    public String parseToken() {
+        return jwtService.extractUsername(accessToken);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyCachedToken() {
+        return jwtService.verify(accessToken);
+    }
+
+    // The case on every request: a token that was never revoked
+    @Benchmark
+    public boolean denyListMiss() {
+        return tokenDenyList.isRevoked(accessTokenJti);
+    }
+
+    @Benchmark
+    public boolean denyListHit() {
+        return tokenDenyList.isRevoked(revokedJti);
+    }
+
+    @Benchmark
+    public Object filterPass() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/patients/42");
+        request.addHeader("Authorization", "Bearer " + accessToken);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Benchmark
+    public boolean bcryptMatches() {
+        return passwordEncoder.matches(PASSWORD, passwordHash);
+    }
+}
@@ -0,0 +1,31 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.MediCareApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Application context for database benchmarks, on the datasource the benchmark
+ * profile passes in (-Dbenchmark.datasource.url, in-memory H2 by default).
+ * Tables are created or updated, never dropped, so a large seeded database is reused across runs.
+ */
+final class BenchmarkApplication {
+
+    static final String URL = System.getProperty("benchmark.datasource.url", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        String driver = URL.startsWith("jdbc:h2:") ? "org.h2.Driver" : "org.postgresql.Driver";
+        return new SpringApplicationBuilder(MediCareApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--spring.datasource.url=" + URL,
+                        "--spring.datasource.driver-class-name=" + driver,
+                        "--spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "sa"),
+                        "--spring.datasource.password=" + System.getProperty("benchmark.datasource.password", ""),
+                        "--spring.jpa.hibernate.ddl-auto=update");
+    }
+}
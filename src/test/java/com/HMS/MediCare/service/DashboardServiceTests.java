@@ -0,0 +1,199 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.response.DashboardStatsResponse;
+import com.HMS.MediCare.dto.response.RevenueReportResponse;
+import com.HMS.MediCare.entity.Appointment;
+import com.HMS.MediCare.entity.Doctor;
+import com.HMS.MediCare.entity.Patient;
+import com.HMS.MediCare.entity.Payment;
+import com.HMS.MediCare.enums.AppointmentStatus;
+import com.HMS.MediCare.enums.PaymentStatus;
+import com.HMS.MediCare.enums.RevenueGranularity;
+import com.HMS.MediCare.repository.AppointmentRepository;
+import com.HMS.MediCare.repository.DoctorRepository;
+import com.HMS.MediCare.repository.PatientRepository;
+import com.HMS.MediCare.repository.PaymentRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Dashboard statistics and revenue report: grouped queries and the shared snapshot
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "dashboard.stats.ttl-seconds=60"
+})
+@ActiveProfiles("test")
+class DashboardServiceTests {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private List<Appointment> appointments;
+
+    @BeforeEach
+    void seed() {
+        paymentRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        Doctor doctor = doctorRepository.save(Doctor.builder()
+                .name("Dr Dashboard")
+                .email("dashboard-" + System.nanoTime() + "@doctor.test")
+                .password("secret123")
+                .specialization("General")
+                .build());
+        Patient patient = patientRepository.save(Patient.builder()
+                .name("Dashboard Patient")
+                .email("dashboard-" + System.nanoTime() + "@patient.test")
+                .password("secret123")
+                .build());
+
+        AppointmentStatus[] statuses = {
+                AppointmentStatus.PENDING, AppointmentStatus.PENDING,
+                AppointmentStatus.CONFIRMED, AppointmentStatus.COMPLETED, AppointmentStatus.CANCELLED
+        };
+        appointments = new ArrayList<>();
+        for (int i = 0; i < statuses.length; i++) {
+            appointments.add(appointmentRepository.save(Appointment.builder()
+                    .patient(patient)
+                    .doctor(doctor)
+                    .appointmentDate(i == 0 ? LocalDate.now() : LocalDate.now().plusDays(i))
+                    .timeSlot(LocalTime.of(9, 0))
+                    .status(statuses[i])
+                    .build()));
+        }
+        // Seeded through repositories, so bring the rollups in line before reading
+        rollupService.rebuild();
+        dashboardService.evictDashboardStats();
+    }
+
+    @Test
+    void statusCountsComeFromRollups() {
+        Statistics statistics = statistics();
+
+        DashboardStatsResponse stats = dashboardService.getDashboardStats();
+
+        assertEquals(5, stats.getTotalAppointments());
+        assertEquals(2, stats.getPendingAppointments());
+        assertEquals(1, stats.getConfirmedAppointments());
+        assertEquals(1, stats.getCompletedAppointments());
+        assertEquals(1, stats.getCancelledAppointments());
+        assertEquals(1, stats.getTodayAppointments());
+        // Patients, doctors, appointment statuses, payment statuses
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void concurrentCallersShareOneComputation() throws Exception {
+        Statistics statistics = statistics();
+        int callers = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<DashboardStatsResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return dashboardService.getDashboardStats();
+                }));
+            }
+            start.countDown();
+            for (Future<DashboardStatsResponse> future : futures) {
+                assertEquals(5, future.get().getTotalAppointments());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(4, statistics.getPrepareStatementCount());
+        // Served from the snapshot until the TTL expires
+        dashboardService.getDashboardStats();
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void revenueReportReadsDailyRollupsInOneQuery() {
+        LocalDate monday = LocalDate.of(2025, 3, 3);
+        pay(appointments.get(0), "100.00", PaymentStatus.PAID, monday.atTime(9, 0));
+        pay(appointments.get(1), "50.00", PaymentStatus.PAID, monday.atTime(17, 30));
+        pay(appointments.get(2), "25.00", PaymentStatus.PAID, monday.plusDays(2).atTime(12, 0));
+        pay(appointments.get(3), "10.00", PaymentStatus.PAID, monday.plusDays(29).atTime(12, 0));
+        pay(appointments.get(4), "999.00", PaymentStatus.PENDING, monday.atTime(10, 0));
+        rollupService.rebuild();
+        Statistics statistics = statistics();
+
+        RevenueReportResponse daily = dashboardService.getRevenueReport(
+                monday, monday.plusDays(30), RevenueGranularity.DAY);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(3, daily.getDailyRevenue().size());
+        assertEquals(2, daily.getDailyRevenue().get(0).getTransactionCount());
+        assertEquals(0, new BigDecimal("150.00").compareTo(daily.getDailyRevenue().get(0).getRevenue()));
+        assertEquals(4, daily.getTotalTransactions());
+        assertEquals(0, new BigDecimal("185.00").compareTo(daily.getTotalRevenue()));
+
+        RevenueReportResponse weekly = dashboardService.getRevenueReport(
+                monday, monday.plusDays(30), RevenueGranularity.WEEK);
+        assertEquals(2, weekly.getDailyRevenue().size());
+        assertEquals(monday, weekly.getDailyRevenue().get(0).getDate());
+        assertEquals(3, weekly.getDailyRevenue().get(0).getTransactionCount());
+
+        RevenueReportResponse monthly = dashboardService.getRevenueReport(
+                monday, monday.plusDays(30), RevenueGranularity.MONTH);
+        assertEquals(2, monthly.getDailyRevenue().size());
+        assertEquals(LocalDate.of(2025, 4, 1), monthly.getDailyRevenue().get(1).getDate());
+    }
+
+    private void pay(Appointment appointment, String amount, PaymentStatus status, LocalDateTime paidAt) {
+        paymentRepository.save(Payment.builder()
+                .appointment(appointment)
+                .patient(appointment.getPatient())
+                .doctor(appointment.getDoctor())
+                .amount(new BigDecimal(amount))
+                .paymentStatus(status)
+                .paidAt(paidAt)
+                .build());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
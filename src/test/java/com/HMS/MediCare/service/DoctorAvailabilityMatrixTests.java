@@ -0,0 +1,217 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.request.AppointmentRequest;
+import com.HMS.MediCare.dto.request.DoctorRequest;
+import com.HMS.MediCare.dto.request.PatientRegistrationRequest;
+import com.HMS.MediCare.dto.response.AvailabilityMatrixResponse;
+import com.HMS.MediCare.entity.Doctor;
+import com.HMS.MediCare.exception.BadRequestException;
+import com.HMS.MediCare.repository.AppointmentRepository;
+import com.HMS.MediCare.repository.DoctorRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Availability matrix behind GET /api/doctors/slots: free-slot masks, doctor
+ * selection, request limits and the single grouped query per range
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+class DoctorAvailabilityMatrixTests {
+
+    // 09:00 - 17:00 in 30-minute slots
+    private static final long ALL_FREE = (1L << 16) - 1;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void masksClearBookedSlotsAndKeepCancelledOnesFree() {
+        Long doctorId = createDoctor("masks", "General");
+        Long patientId = createPatient("masks");
+        LocalDate date = LocalDate.now().plusDays(10);
+        book(patientId, doctorId, date, LocalTime.of(10, 0));
+        Long cancelled = book(patientId, doctorId, date, LocalTime.of(11, 0));
+        appointmentService.cancelAppointment(cancelled);
+
+        AvailabilityMatrixResponse matrix = doctorService.getAvailabilityMatrix(
+                List.of(doctorId), null, date.minusDays(1), date);
+
+        assertEquals(30, matrix.getSlotMinutes());
+        assertEquals(1, matrix.getDoctors().size());
+        // 10:00 is bit 2; the cancelled 11:00 (bit 4) is free again
+        assertArrayEquals(new long[]{ALL_FREE, ALL_FREE & ~(1L << 2)},
+                matrix.getDoctors().get(0).getFreeSlotMasks());
+    }
+
+    @Test
+    void specializationSelectsMatchingDoctors() {
+        Long first = createDoctor("cardio-1", "Matrix Cardiology");
+        Long second = createDoctor("cardio-2", "Matrix Cardiology");
+        createDoctor("derm-1", "Matrix Dermatology");
+        LocalDate date = LocalDate.now().plusDays(3);
+
+        AvailabilityMatrixResponse matrix = doctorService.getAvailabilityMatrix(
+                null, "matrix cardio", date, date.plusDays(2));
+
+        assertEquals(List.of(first, second), matrix.getDoctors().stream()
+                .map(AvailabilityMatrixResponse.DoctorAvailability::getDoctorId)
+                .sorted()
+                .toList());
+        assertEquals(3, matrix.getDoctors().get(0).getFreeSlotMasks().length);
+    }
+
+    @Test
+    void rangesOverThirtyOneDaysAreRejected() {
+        Long doctorId = createDoctor("range", "General");
+        LocalDate start = LocalDate.now().plusDays(1);
+
+        assertEquals(31, doctorService.getAvailabilityMatrix(List.of(doctorId), null, start, start.plusDays(30))
+                .getDoctors().get(0).getFreeSlotMasks().length);
+        assertThrows(BadRequestException.class,
+                () -> doctorService.getAvailabilityMatrix(List.of(doctorId), null, start, start.plusDays(31)));
+        assertThrows(BadRequestException.class,
+                () -> doctorService.getAvailabilityMatrix(List.of(doctorId), null, start, start.minusDays(1)));
+    }
+
+    @Test
+    void moreThanOneHundredDoctorsAreRejected() {
+        List<Doctor> doctors = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            doctors.add(Doctor.builder()
+                    .name("Dr crowded " + i)
+                    .email("crowded-" + i + "@doctor.test")
+                    .password("unused")
+                    .specialization("Matrix Crowded")
+                    .availableFrom(LocalTime.of(9, 0))
+                    .availableTo(LocalTime.of(17, 0))
+                    .active(true)
+                    .build());
+        }
+        doctorRepository.saveAll(doctors);
+        LocalDate date = LocalDate.now().plusDays(1);
+
+        assertThrows(BadRequestException.class,
+                () -> doctorService.getAvailabilityMatrix(null, "Matrix Crowded", date, date));
+    }
+
+    @Test
+    void rangeIsLoadedWithOneGroupedQuery() {
+        List<Long> doctorIds = List.of(
+                createDoctor("grouped-1", "General"),
+                createDoctor("grouped-2", "General"),
+                createDoctor("grouped-3", "General"));
+        LocalDate start = LocalDate.now().plusDays(40);
+        Statistics statistics = statistics();
+
+        doctorService.getAvailabilityMatrix(doctorIds, null, start, start.plusDays(6));
+
+        // The doctors, then every (doctor, day) of the range at once
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        doctorService.getAvailabilityMatrix(doctorIds, null, start, start.plusDays(6));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void rangeWarmUpSkipsDaysChangedWhileItsQueryRan() {
+        Long doctorId = createDoctor("warm-race", "General");
+        Long patientId = createPatient("warm-race");
+        LocalDate date = LocalDate.now().plusDays(9);
+        LocalTime slot = LocalTime.of(11, 0);
+        Long appointmentId = book(patientId, doctorId, date, slot);
+
+        // The appointment is cancelled and the release published right after the grouped query read it
+        AtomicReference<SlotOccupancyIndex> index = new AtomicReference<>();
+        AppointmentRepository interleaved = (AppointmentRepository) Proxy.newProxyInstance(
+                AppointmentRepository.class.getClassLoader(), new Class<?>[]{AppointmentRepository.class},
+                (proxy, method, args) -> {
+                    Object result = method.invoke(appointmentRepository, args);
+                    if (method.getName().equals("findBookedTimeSlotsForDoctors")) {
+                        jdbcTemplate.update("UPDATE appointments SET status = 'CANCELLED' WHERE id = ?", appointmentId);
+                        index.get().markReleasedAfterCommit(doctorId, date, slot);
+                    }
+                    return result;
+                });
+        index.set(new SlotOccupancyIndex(interleaved));
+        ReflectionTestUtils.setField(index.get(), "ttlSeconds", 3600L);
+
+        index.get().warmRange(List.of(doctorId), date, date);
+
+        assertFalse(index.get().isBooked(doctorId, date, slot));
+    }
+
+    private Long book(Long patientId, Long doctorId, LocalDate date, LocalTime slot) {
+        return appointmentService.bookAppointment(patientId, AppointmentRequest.builder()
+                .doctorId(doctorId)
+                .date(date)
+                .preferredTime(slot)
+                .build()).getId();
+    }
+
+    private Long createDoctor(String tag, String specialization) {
+        return doctorService.createDoctor(DoctorRequest.builder()
+                .name("Dr " + tag)
+                .email(tag + "@matrix.test")
+                .password("secret123")
+                .specialization(specialization)
+                .availableFrom(LocalTime.of(9, 0))
+                .availableTo(LocalTime.of(17, 0))
+                .build()).getId();
+    }
+
+    private Long createPatient(String tag) {
+        return patientService.register(PatientRegistrationRequest.builder()
+                .name("Patient " + tag)
+                .email(tag + "@patient.test")
+                .password("secret123")
+                .build()).getId();
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,97 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.entity.Appointment;
+import com.HMS.MediCare.entity.Doctor;
+import com.HMS.MediCare.entity.Patient;
+import com.HMS.MediCare.enums.ExportFormat;
+import com.HMS.MediCare.repository.AppointmentRepository;
+import com.HMS.MediCare.repository.DoctorRepository;
+import com.HMS.MediCare.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Streaming export formats against an in-memory H2 database
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+// Counts every row, so it needs a database no other test class has written to
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+class ExportServiceTests {
+
+    private static final int ROWS = 250;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @BeforeEach
+    void seed() {
+        appointmentRepository.deleteAll();
+        patientRepository.deleteAll();
+        Doctor doctor = doctorRepository.save(Doctor.builder()
+                .name("Dr Export")
+                .email("export-" + System.nanoTime() + "@doctor.test")
+                .password("secret123")
+                .specialization("General")
+                .build());
+        for (int i = 0; i < ROWS; i++) {
+            Patient patient = patientRepository.save(Patient.builder()
+                    .name("Patient, \"" + i + "\"")
+                    .email("export-" + i + "@patient.test")
+                    .password("secret123")
+                    .build());
+            appointmentRepository.save(Appointment.builder()
+                    .patient(patient)
+                    .doctor(doctor)
+                    .appointmentDate(LocalDate.now().plusDays(1 + i / 16))
+                    .timeSlot(LocalTime.of(9, 0).plusMinutes(30L * (i % 16)))
+                    .build());
+        }
+    }
+
+    @Test
+    void appointmentNdjsonHasOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.exportAppointments(ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(ROWS, count);
+        assertEquals(ROWS, lines.length);
+        assertTrue(lines[0].startsWith("{") && lines[0].endsWith("}"));
+    }
+
+    @Test
+    void patientCsvHasHeaderAndQuotesSpecialCharacters() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.exportPatients(ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(ROWS, count);
+        assertEquals(ROWS + 1, lines.length);
+        assertTrue(lines[0].startsWith("id,name,age"));
+        assertTrue(lines[1].contains(",\"Patient, \"\"0\"\"\","));
+    }
+}
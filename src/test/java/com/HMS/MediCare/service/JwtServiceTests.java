@@ -0,0 +1,175 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.security.JwtService;
+import com.HMS.MediCare.dto.response.AuthResponse;
+import com.HMS.MediCare.entity.RevokedToken;
+import com.HMS.MediCare.exception.BadRequestException;
+import com.HMS.MediCare.exception.UnauthorizedException;
+import com.HMS.MediCare.repository.RevokedTokenRepository;
+import com.HMS.MediCare.security.TokenDenyList;
+import com.HMS.MediCare.security.VerifiedToken;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Single-parse verification, the verified-token cache and revocation in JwtService
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class JwtServiceTests {
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private TokenDenyList tokenDenyList;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Test
+    void verifyReadsAllClaimsFromOneParse() {
+        String token = jwtService.generateAccessToken(7L, "jwt@patient.test", "PATIENT");
+
+        VerifiedToken verified = jwtService.verify(token).orElseThrow();
+
+        assertEquals(7L, verified.userId());
+        assertEquals("jwt@patient.test", verified.email());
+        assertEquals("PATIENT", verified.role());
+        assertTrue(verified.isAccessToken());
+        assertFalse(verified.isRefreshToken());
+    }
+
+    @Test
+    void repeatVerificationIsServedFromCache() {
+        String token = jwtService.generateRefreshToken(8L, "cache@patient.test", "PATIENT");
+        jwtService.verify(token).orElseThrow();
+        long hits = jwtService.getCacheHits();
+
+        VerifiedToken again = jwtService.verify(token).orElseThrow();
+
+        assertTrue(again.isRefreshToken());
+        assertEquals(hits + 1, jwtService.getCacheHits());
+    }
+
+    @Test
+    void loggedOutTokensStopVerifyingEvenWhenCached() {
+        String access = jwtService.generateAccessToken(11L, "logout@patient.test", "PATIENT");
+        String refresh = jwtService.generateRefreshToken(11L, "logout@patient.test", "PATIENT");
+        assertTrue(jwtService.verify(access).isPresent());
+
+        authService.logout(access, refresh);
+
+        assertTrue(jwtService.verify(access).isEmpty());
+        assertTrue(jwtService.verify(refresh).isEmpty());
+    }
+
+    @Test
+    void refreshRotatesAndOldRefreshTokenCannotBeReused() {
+        String refresh = jwtService.generateRefreshToken(12L, "rotate@patient.test", "PATIENT");
+
+        AuthResponse rotated = authService.refreshToken(refresh);
+
+        assertNotEquals(refresh, rotated.getRefreshToken());
+        assertTrue(jwtService.verify(rotated.getRefreshToken()).orElseThrow().isRefreshToken());
+        assertThrows(BadRequestException.class, () -> authService.refreshToken(refresh));
+    }
+
+    @Test
+    void refreshAlreadyRotatedOnAnotherNodeIsRejected() {
+        String refresh = jwtService.generateRefreshToken(14L, "race@patient.test", "PATIENT");
+        VerifiedToken token = jwtService.verify(refresh).orElseThrow();
+        // The other node rotates first; this node has not synced, so verify() still passes
+        TokenDenyList otherNode = new TokenDenyList(revokedTokenRepository, 1000, 0.001, 60_000);
+        assertTrue(otherNode.revoke(token.jti(), token.expiresAt(), "ROTATED"));
+
+        assertThrows(UnauthorizedException.class, () -> authService.refreshToken(refresh));
+        assertFalse(tokenDenyList.revoke(token.jti(), token.expiresAt(), "ROTATED"));
+    }
+
+    @Test
+    void revocationsReachOtherNodesThroughTheStore() {
+        String access = jwtService.generateAccessToken(13L, "sync@patient.test", "PATIENT");
+        VerifiedToken token = jwtService.verify(access).orElseThrow();
+        // A second node: its own deny-list over the same table
+        TokenDenyList otherNode = new TokenDenyList(revokedTokenRepository, 1000, 0.001, 60_000);
+        assertFalse(otherNode.isRevoked(token.jti()));
+
+        tokenDenyList.revoke(token.jti(), token.expiresAt(), "LOGOUT");
+        otherNode.sync();
+
+        assertTrue(otherNode.isRevoked(token.jti()));
+    }
+
+    @Test
+    void revocationCommittedBehindAnEarlierSyncIsStillPickedUp() {
+        String access = jwtService.generateAccessToken(15L, "late@patient.test", "PATIENT");
+        VerifiedToken token = jwtService.verify(access).orElseThrow();
+        TokenDenyList otherNode = new TokenDenyList(revokedTokenRepository, 1000, 0.001, 60_000);
+        otherNode.sync();
+
+        // A slow transaction: stamped before the sync above, committed after it
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(token.jti())
+                .expiresAt(LocalDateTime.ofInstant(token.expiresAt(), ZoneId.systemDefault()))
+                .revokedAt(LocalDateTime.now().minusSeconds(10))
+                .reason("LOGOUT")
+                .build());
+        otherNode.sync();
+        assertTrue(otherNode.isRevoked(token.jti()));
+
+        // Still inside the overlap, so it is read again but not added twice
+        int known = otherNode.getRevokedCount();
+        otherNode.sync();
+        assertEquals(known, otherNode.getRevokedCount());
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = jwtService.generateAccessToken(9L, "tamper@patient.test", "ADMIN");
+        char last = token.charAt(token.length() - 1);
+        String tampered = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+
+        assertTrue(jwtService.verify(tampered).isEmpty());
+        assertTrue(jwtService.verify("not-a-jwt").isEmpty());
+        assertTrue(jwtService.verify(null).isEmpty());
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        long now = System.currentTimeMillis();
+        String expired = Jwts.builder()
+                .claims(Map.of("userId", 10L, "role", "PATIENT", "type", "access"))
+                .subject("expired@patient.test")
+                .issuedAt(new Date(now - 60_000))
+                .expiration(new Date(now - 1_000))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)), Jwts.SIG.HS256)
+                .compact();
+
+        assertTrue(jwtService.verify(expired).isEmpty());
+        assertFalse(jwtService.isValidToken(expired));
+    }
+}
@@ -0,0 +1,131 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.request.AuthRequest;
+import com.HMS.MediCare.entity.Patient;
+import com.HMS.MediCare.exception.BadRequestException;
+import com.HMS.MediCare.exception.TooManyRequestsException;
+import com.HMS.MediCare.repository.PatientRepository;
+import com.HMS.MediCare.security.PasswordVerifier;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Per-email failure lockout and saturation rejection of the login BCrypt pool
+ */
+@SpringBootTest(properties = {
+        "auth.lockout.max-failures=3"
+})
+@ActiveProfiles("test")
+class LoginThrottleTests {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void repeatedFailuresLockOutEmailBeforeHashing() {
+        String email = "lockout-" + System.nanoTime() + "@patient.test";
+        patientRepository.save(Patient.builder()
+                .name("Lockout")
+                .email(email)
+                .password(new BCryptPasswordEncoder().encode("secret123"))
+                .build());
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(BadRequestException.class,
+                    () -> authService.authenticatePatient(request(email, "wrong-password")));
+        }
+
+        // Even the right password is refused until the window passes
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                () -> authService.authenticatePatient(request(email.toUpperCase(), "secret123")));
+        assertTrue(ex.getRetryAfterSeconds() > 0);
+    }
+
+    @Test
+    void unknownEmailsCountTowardsLockout() {
+        String email = "unknown-" + System.nanoTime() + "@patient.test";
+        for (int i = 0; i < 3; i++) {
+            assertThrows(BadRequestException.class,
+                    () -> authService.authenticatePatient(request(email, "anything")));
+        }
+        assertThrows(TooManyRequestsException.class,
+                () -> authService.authenticatePatient(request(email, "anything")));
+    }
+
+    @Test
+    void saturatedPoolRejectsInsteadOfQueueing() throws Exception {
+        // One hashing thread and one queue slot: the third concurrent login is turned away
+        PasswordVerifier verifier = new PasswordVerifier(1, 1, 30_000, 5, 300, 1000);
+        String slowHash = new BCryptPasswordEncoder(13).encode("secret123");
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(
+                    () -> verifier.matches("a@patient.test", "secret123", slowHash), callers);
+            waitFor(() -> verifier.getActiveVerifications() == 1);
+            CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(
+                    () -> verifier.matches("b@patient.test", "secret123", slowHash), callers);
+            waitFor(() -> verifier.getQueuedVerifications() == 1);
+
+            TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                    () -> verifier.matches("c@patient.test", "secret123", slowHash));
+
+            assertNotNull(ex.getMessage());
+            assertEquals(1, verifier.getRejectedSaturated());
+            assertTrue(running.get());
+            assertTrue(queued.get());
+        } finally {
+            callers.shutdownNow();
+            verifier.shutdown();
+        }
+    }
+
+    @Test
+    void sprayingThrowawayEmailsDoesNotResetALockout() {
+        PasswordVerifier verifier = new PasswordVerifier(1, 1, 30_000, 3, 300, 10);
+        try {
+            for (int i = 0; i < 3; i++) {
+                verifier.recordFailure("target@patient.test");
+            }
+            assertThrows(TooManyRequestsException.class, () -> verifier.checkNotLockedOut("target@patient.test"));
+
+            for (int i = 0; i < 100; i++) {
+                verifier.recordFailure("throwaway-" + i + "@patient.test");
+            }
+
+            assertThrows(TooManyRequestsException.class, () -> verifier.checkNotLockedOut("target@patient.test"));
+            assertThrows(TooManyRequestsException.class, () -> verifier.recordFailure("target@patient.test"));
+        } finally {
+            verifier.shutdown();
+        }
+    }
+
+    private static AuthRequest request(String email, String password) {
+        return new AuthRequest(email, password);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not reached in time");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.request.AppointmentRequest;
+import com.HMS.MediCare.dto.request.DoctorRequest;
+import com.HMS.MediCare.dto.request.PatientRegistrationRequest;
+import com.HMS.MediCare.dto.request.PaymentRequest;
+import com.HMS.MediCare.dto.response.AppointmentResponse;
+import com.HMS.MediCare.dto.response.PaymentResponse;
+import com.HMS.MediCare.dto.response.RollupRebuildResponse;
+import com.HMS.MediCare.entity.MetricRollup;
+import com.HMS.MediCare.enums.RollupMetric;
+import com.HMS.MediCare.repository.AppointmentRepository;
+import com.HMS.MediCare.repository.MetricRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Incremental rollup maintenance through the service write paths
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RollupServiceTests {
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private MetricRollupRepository rollupRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Test
+    void serviceTransitionsKeepRollupsInSyncWithRawData() {
+        rollupService.rebuild();
+        Long doctorId = doctorService.createDoctor(DoctorRequest.builder()
+                .name("Dr Rollup")
+                .email("rollup@doctor.test")
+                .password("secret123")
+                .specialization("General")
+                .availableFrom(LocalTime.of(9, 0))
+                .availableTo(LocalTime.of(17, 0))
+                .build()).getId();
+        Long patientId = patientService.register(PatientRegistrationRequest.builder()
+                .name("Rollup Patient")
+                .email("rollup@patient.test")
+                .password("secret123")
+                .build()).getId();
+        LocalDate date = LocalDate.now().plusDays(10);
+
+        AppointmentResponse first = book(patientId, doctorId, date, LocalTime.of(9, 0));
+        AppointmentResponse second = book(patientId, doctorId, date, LocalTime.of(9, 30));
+        appointmentService.confirmAppointment(first.getId());
+        appointmentService.completeAppointment(first.getId());
+        appointmentService.cancelAppointment(second.getId());
+
+        PaymentResponse payment = paymentService.createPayment(PaymentRequest.builder()
+                .appointmentId(first.getId())
+                .amount(new BigDecimal("80.00"))
+                .paymentMethod("CARD")
+                .build());
+        paymentService.processPayment(payment.getId(), "CARD");
+
+        assertEquals(1, rollupCount(RollupMetric.APPOINTMENTS, doctorId, "COMPLETED"));
+        assertEquals(1, rollupCount(RollupMetric.APPOINTMENTS, doctorId, "CANCELLED"));
+        assertEquals(0, rollupCount(RollupMetric.APPOINTMENTS, doctorId, "PENDING"));
+        assertEquals(1, rollupCount(RollupMetric.PAYMENTS, doctorId, "PAID"));
+        assertEquals(0, rollupCount(RollupMetric.PAYMENTS, doctorId, "PENDING"));
+
+        RollupRebuildResponse rebuild = rollupService.rebuild();
+        assertEquals(0, rebuild.getDriftCount(), () -> String.join("\n", rebuild.getDrift()));
+    }
+
+    @Test
+    void rebuildReportsAndRepairsDrift() {
+        rollupService.rebuild();
+        rollupRepository.save(MetricRollup.builder()
+                .metric(RollupMetric.APPOINTMENTS)
+                .bucketDate(LocalDate.of(2000, 1, 1))
+                .doctorId(-1L)
+                .status("PENDING")
+                .count(5)
+                .build());
+
+        RollupRebuildResponse rebuild = rollupService.rebuild();
+
+        assertEquals(1, rebuild.getDriftCount());
+        assertTrue(rebuild.getDrift().get(0).contains("doctor=-1"));
+        assertEquals(0, rollupService.rebuild().getDriftCount());
+        assertEquals(appointmentRepository.count(), rollupRepository.findAll().stream()
+                .filter(r -> r.getMetric() == RollupMetric.APPOINTMENTS)
+                .mapToLong(MetricRollup::getCount)
+                .sum());
+    }
+
+    private AppointmentResponse book(Long patientId, Long doctorId, LocalDate date, LocalTime time) {
+        return appointmentService.bookAppointment(patientId, AppointmentRequest.builder()
+                .doctorId(doctorId)
+                .date(date)
+                .preferredTime(time)
+                .build());
+    }
+
+    private long rollupCount(RollupMetric metric, Long doctorId, String status) {
+        return rollupRepository.findAll().stream()
+                .filter(r -> r.getMetric() == metric && r.getDoctorId().equals(doctorId) && r.getStatus().equals(status))
+                .mapToLong(MetricRollup::getCount)
+                .sum();
+    }
+}
@@ -0,0 +1,267 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.response.VitalsAlertEvent;
+import com.HMS.MediCare.entity.Patient;
+import com.HMS.MediCare.enums.AlertSeverity;
+import com.HMS.MediCare.enums.VitalType;
+import com.HMS.MediCare.repository.PatientRepository;
+import com.HMS.MediCare.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Vitals alert push: filtered SSE delivery, Last-Event-ID replay, drop-oldest buffering
+ * and dropping subscribers that stop reading; one sender thread, so a stuck one shows
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "vitals.alerts.stream.sender-threads=1",
+        "vitals.alerts.stream.send-timeout-ms=500",
+        "vitals.alerts.stream.heartbeat-ms=200",
+        "server.tomcat.connection-timeout=2s"
+})
+@ActiveProfiles("test")
+class VitalsAlertStreamTests {
+
+    private static final long WAIT_SECONDS = 10;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private VitalsMonitoringService vitalsMonitoringService;
+
+    @Autowired
+    private VitalsAlertBus vitalsAlertBus;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    void subscribersReceiveMatchingAlertsAndResumeFromLastEventId() throws Exception {
+        Long patientId = newPatient();
+        Map<String, String> critical;
+        try (EventStream stream = open("severity=CRITICAL&patientId=" + patientId, null)) {
+            // Heart rate 103 is a LOW alert and filtered out; 200 is CRITICAL
+            vitalsMonitoringService.recordVitalReading(patientId, VitalType.HEART_RATE, 103.0);
+            vitalsMonitoringService.recordVitalReading(patientId, VitalType.HEART_RATE, 200.0);
+
+            critical = stream.nextEvent();
+            assertNotNull(critical);
+            assertEquals("alert", critical.get("event"));
+            assertTrue(critical.get("data").contains("\"severity\":\"CRITICAL\""));
+            assertTrue(critical.get("data").contains("\"patientId\":" + patientId));
+        }
+
+        // Raised while nobody listens, then replayed after the last seen event
+        vitalsMonitoringService.recordVitalReading(patientId, VitalType.HEART_RATE, 115.0);
+        try (EventStream stream = open("patientId=" + patientId, critical.get("id"))) {
+            Map<String, String> missed = stream.nextEvent();
+            assertNotNull(missed);
+            assertTrue(missed.get("data").contains("\"severity\":\"HIGH\""));
+        }
+
+        try (EventStream stream = open("patientId=" + patientId, "unknown-stream-7")) {
+            Map<String, String> resync = stream.nextEvent();
+            assertNotNull(resync);
+            assertEquals("resync", resync.get("event"));
+        }
+    }
+
+    @Test
+    void fullSubscriberBufferDropsOldestAndReportsIt() {
+        AlertSubscription subscription = new AlertSubscription(new SseEmitter(), Set.of(AlertSeverity.HIGH),
+                null, null, 2);
+        VitalsAlertEvent low = event(1, AlertSeverity.LOW);
+        assertFalse(subscription.matches(low));
+
+        // Only the first offer asks for a drain; later ones find it already scheduled
+        assertTrue(subscription.offer(event(1, AlertSeverity.HIGH)));
+        assertFalse(subscription.offer(event(2, AlertSeverity.HIGH)));
+        subscription.offer(event(3, AlertSeverity.HIGH));
+
+        VitalsAlertEvent[] batch = new VitalsAlertEvent[subscription.capacity()];
+        AlertSubscription.Pending pending = subscription.drainTo(batch);
+        assertEquals(2, pending.count());
+        assertEquals(1, pending.dropped());
+        assertEquals(2L, batch[0].getAlertId());
+        assertEquals(3L, batch[1].getAlertId());
+        assertNull(subscription.drainTo(batch));
+        // Drain finished, so the next event schedules a new one
+        assertTrue(subscription.offer(event(4, AlertSeverity.HIGH)));
+    }
+
+    @Test
+    void subscriberThatStopsReadingIsDroppedWithoutHoldingTheSenderOrScheduler() throws Exception {
+        Long patientId = newPatient();
+        // Streams closed by the other tests are noticed by the next heartbeat
+        awaitTrue(() -> vitalsAlertBus.subscriberCount() == 0);
+
+        try (Socket stalled = new Socket()) {
+            stalled.setReceiveBufferSize(1024);
+            stalled.connect(new InetSocketAddress("localhost", port));
+            stalled.getOutputStream().write(("GET /api/vitals/alerts/stream?patientId=" + patientId + " HTTP/1.1\r\n"
+                    + "Host: localhost\r\nAccept: text/event-stream\r\n"
+                    + "Authorization: Bearer " + token() + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            awaitTrue(() -> vitalsAlertBus.subscriberCount() == 1);
+
+            // Large alerts, paced so the sender keeps up until the socket buffers fill and its write blocks
+            String filler = "x".repeat(16 * 1024);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+            for (long id = 1; vitalsAlertBus.subscriberCount() == 1 && System.nanoTime() < deadline; id++) {
+                VitalsAlertEvent alert = event(id, AlertSeverity.HIGH);
+                alert.setPatientId(patientId);
+                alert.setMessage(filler);
+                vitalsAlertBus.publishAfterCommit(List.of(alert));
+                Thread.sleep(2);
+            }
+            assertEquals(0, vitalsAlertBus.subscriberCount(), "stalled subscriber was not dropped");
+
+            // The single scheduler thread that dropped it is free for the other jobs
+            CountDownLatch schedulerRan = new CountDownLatch(1);
+            taskScheduler.schedule(schedulerRan::countDown, Instant.now());
+            assertTrue(schedulerRan.await(2, TimeUnit.SECONDS));
+
+            // The only sender thread comes back once the write times out, while the client is still connected
+            try (EventStream stream = open("patientId=" + patientId, null)) {
+                vitalsMonitoringService.recordVitalReading(patientId, VitalType.HEART_RATE, 200.0);
+                Map<String, String> delivered = stream.nextEvent();
+                assertNotNull(delivered);
+                assertEquals("alert", delivered.get("event"));
+            }
+        }
+    }
+
+    @Test
+    void abandonedDrainLetsTheNextEventScheduleOne() {
+        AlertSubscription subscription = new AlertSubscription(new SseEmitter(), Set.of(), null, null, 4);
+        assertTrue(subscription.offer(event(1, AlertSeverity.HIGH)));
+        subscription.drainTo(new VitalsAlertEvent[4]);
+
+        // The send failed mid-drain; without this every later offer would wait on a dead drain
+        subscription.abandonDrain();
+
+        assertTrue(subscription.offer(event(2, AlertSeverity.HIGH)));
+    }
+
+    private EventStream open(String query, String lastEventId) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/vitals/alerts/stream?" + query))
+                .header("Accept", "text/event-stream")
+                .header("Authorization", "Bearer " + token());
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        HttpResponse<Stream<String>> response = httpClient.sendAsync(request.build(),
+                HttpResponse.BodyHandlers.ofLines()).get(WAIT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(200, response.statusCode());
+        return new EventStream(response.body());
+    }
+
+    private String token() {
+        return jwtService.generateAccessToken(1L, "nurse@test.com", "ADMIN");
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached in time");
+            Thread.sleep(20);
+        }
+    }
+
+    private Long newPatient() {
+        return patientRepository.save(Patient.builder()
+                .name("Streamed Patient")
+                .email("stream-" + System.nanoTime() + "@patient.test")
+                .password("secret123")
+                .build()).getId();
+    }
+
+    private static VitalsAlertEvent event(long alertId, AlertSeverity severity) {
+        return VitalsAlertEvent.builder().alertId(alertId).patientId(1L).severity(severity).build();
+    }
+
+    /**
+     * Reads SSE lines on a background thread; nextEvent() skips keep-alive comments
+     */
+    private static final class EventStream implements AutoCloseable {
+        private final Stream<String> lines;
+        private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+
+        EventStream(Stream<String> lines) {
+            this.lines = lines;
+            Thread reader = new Thread(() -> {
+                try {
+                    lines.forEach(queue::add);
+                } catch (RuntimeException ignored) {
+                    // Closed by the test
+                }
+            });
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        Map<String, String> nextEvent() throws InterruptedException {
+            Map<String, String> fields = new HashMap<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+            while (System.nanoTime() < deadline) {
+                String line = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (line == null || line.startsWith(":")) {
+                    continue;
+                }
+                if (line.isEmpty()) {
+                    if (!fields.isEmpty()) {
+                        return fields;
+                    }
+                    continue;
+                }
+                int colon = line.indexOf(':');
+                fields.merge(line.substring(0, colon), line.substring(colon + 1), (a, b) -> a + "\n" + b);
+            }
+            return null;
+        }
+
+        @Override
+        public void close() {
+            lines.close();
+        }
+    }
+}
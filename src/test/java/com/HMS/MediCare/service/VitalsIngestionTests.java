@@ -0,0 +1,177 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.response.VitalsIngestResponse;
+import com.HMS.MediCare.entity.Patient;
+import com.HMS.MediCare.entity.PatientVitals;
+import com.HMS.MediCare.enums.VitalType;
+import com.HMS.MediCare.exception.BadRequestException;
+import com.HMS.MediCare.repository.PatientRepository;
+import com.HMS.MediCare.repository.PatientVitalsRepository;
+import com.HMS.MediCare.repository.VitalsAlertRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bulk device ingestion: row merging, in-memory threshold alerts, per-record rejection
+ */
+@SpringBootTest(properties = {
+        "vitals.ingest.batch-size=5"
+})
+@ActiveProfiles("test")
+class VitalsIngestionTests {
+
+    @Autowired
+    private VitalsIngestionService vitalsIngestionService;
+
+    @Autowired
+    private VitalsMonitoringService vitalsMonitoringService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientVitalsRepository patientVitalsRepository;
+
+    @Autowired
+    private VitalsAlertRepository vitalsAlertRepository;
+
+    @Autowired
+    private VitalsTimeSeriesService timeSeriesService;
+
+    @Test
+    void jsonLinesAreMergedPerTimestampAndEvaluated() {
+        Long patientId = newPatient();
+        // Custom threshold: heart rate above 90 is no longer normal for this patient
+        vitalsMonitoringService.setThreshold(patientId, VitalType.HEART_RATE, 60.0, 90.0, 40.0, 150.0);
+        String body = String.join("\n",
+                reading(patientId, "HEART_RATE", 95, "2025-03-01T08:00:00"),
+                reading(patientId, "OXYGEN_LEVEL", 97, "2025-03-01T08:00:00"),
+                reading(patientId, "TEMPERATURE", 36.6, "2025-03-01T08:00:00"),
+                reading(patientId, "HEART_RATE", 72, "2025-03-01T08:01:00"),
+                reading(patientId, "GLUCOSE_LEVEL", 260, "2025-03-01T08:01:00"),
+                reading(999_999L, "HEART_RATE", 72, "2025-03-01T08:01:00"),
+                "{\"patientId\":" + patientId + ",\"vitalType\":\"BOGUS\",\"value\":1}",
+                reading(patientId, "HEART_RATE", -5, "2025-03-01T08:02:00"));
+
+        VitalsIngestResponse response = vitalsIngestionService.ingestJsonLines(stream(body), "device-test");
+
+        assertEquals(8, response.getReceived());
+        assertEquals(5, response.getAccepted());
+        assertEquals(3, response.getRejected());
+        assertEquals(2, response.getRowsWritten());
+        assertEquals(2, response.getBatches());
+        // Heart rate 95 against the custom range, glucose 260 against the default
+        assertEquals(2, response.getAlertsGenerated());
+        assertEquals(2, vitalsAlertRepository.countByPatientIdAndAcknowledgedFalse(patientId));
+
+        List<PatientVitals> rows = patientVitalsRepository.findByPatientIdAndDateRange(patientId,
+                LocalDateTime.of(2025, 3, 1, 0, 0), LocalDateTime.of(2025, 3, 2, 0, 0));
+        assertEquals(2, rows.size());
+        PatientVitals first = rows.get(1);
+        assertEquals(95, first.getHeartRate());
+        assertEquals(97, first.getOxygenSaturation());
+        assertEquals("36.6", first.getTemperature().toPlainString());
+        assertEquals("device-test", first.getRecordedBy());
+    }
+
+    @Test
+    void duplicateReadingInABatchIsRejectedEverywhere() {
+        Long patientId = newPatient();
+        String body = String.join("\n",
+                reading(patientId, "HEART_RATE", 72, "2025-04-01T08:00:00"),
+                reading(patientId, "OXYGEN_LEVEL", 97, "2025-04-01T08:00:00"),
+                reading(patientId, "HEART_RATE", 190, "2025-04-01T08:00:00"));
+
+        VitalsIngestResponse response = vitalsIngestionService.ingestJsonLines(stream(body), "device-test");
+
+        assertEquals(2, response.getAccepted());
+        assertEquals(1, response.getRejected());
+        assertTrue(response.getErrors().get(0).startsWith("record 3: duplicate HEART_RATE"));
+        assertEquals(1, response.getRowsWritten());
+        // The rejected 190 bpm reading raises no alert and never reaches the time series
+        assertEquals(0, response.getAlertsGenerated());
+        assertEquals(0, vitalsAlertRepository.countByPatientIdAndAcknowledgedFalse(patientId));
+        LocalDateTime from = LocalDateTime.of(2025, 4, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 4, 2, 0, 0);
+        assertEquals(72, patientVitalsRepository.findByPatientIdAndDateRange(patientId, from, to).get(0).getHeartRate());
+        assertArrayEquals(new double[]{72},
+                timeSeriesService.getSeries(patientId, VitalType.HEART_RATE, from, to, 10).getValues(), 1e-9);
+    }
+
+    @Test
+    void binaryBatchIsIngested() throws IOException {
+        Long patientId = newPatient();
+        long start = System.currentTimeMillis() - 60_000;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(VitalsIngestionService.BINARY_MAGIC);
+        for (int i = 0; i < 10; i++) {
+            out.writeLong(patientId);
+            out.writeByte(VitalType.HEART_RATE.ordinal());
+            out.writeDouble(70 + i);
+            out.writeLong(start + i * 1000L);
+        }
+        out.flush();
+
+        VitalsIngestResponse response = vitalsIngestionService.ingestBinary(
+                new ByteArrayInputStream(bytes.toByteArray()), "device");
+
+        assertEquals(10, response.getAccepted());
+        assertEquals(10, response.getRowsWritten());
+        assertEquals(0, response.getAlertsGenerated());
+        assertEquals(2, response.getBatches());
+        assertEquals(10, patientVitalsRepository.countByPatientId(patientId));
+    }
+
+    @Test
+    void truncatedBinaryRecordIsReportedAfterStoringEarlierReadings() throws IOException {
+        Long patientId = newPatient();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(VitalsIngestionService.BINARY_MAGIC);
+        out.writeLong(patientId);
+        out.writeByte(VitalType.HEART_RATE.ordinal());
+        out.writeDouble(72);
+        out.writeLong(System.currentTimeMillis());
+        out.writeLong(patientId);
+        out.flush();
+
+        BadRequestException ex = assertThrows(BadRequestException.class, () -> vitalsIngestionService.ingestBinary(
+                new ByteArrayInputStream(bytes.toByteArray()), "device"));
+
+        assertTrue(ex.getMessage().contains("Truncated record 2"));
+        assertEquals(1, patientVitalsRepository.countByPatientId(patientId));
+    }
+
+    private Long newPatient() {
+        return patientRepository.save(Patient.builder()
+                .name("Device Patient")
+                .email("device-" + System.nanoTime() + "@patient.test")
+                .password("secret123")
+                .build()).getId();
+    }
+
+    private static String reading(Long patientId, String type, double value, String timestamp) {
+        return "{\"patientId\":" + patientId + ",\"vitalType\":\"" + type + "\",\"value\":" + value
+                + ",\"timestamp\":\"" + timestamp + "\"}";
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,139 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.entity.Patient;
+import com.HMS.MediCare.entity.VitalsAlert;
+import com.HMS.MediCare.entity.VitalsThreshold;
+import com.HMS.MediCare.enums.AlertSeverity;
+import com.HMS.MediCare.enums.VitalType;
+import com.HMS.MediCare.repository.PatientRepository;
+import com.HMS.MediCare.repository.VitalsThresholdRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Threshold cache: one load per patient, shared defaults, invalidation on setThreshold,
+ * loads racing an invalidation and expiry
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+class VitalsThresholdCacheTests {
+
+    @Autowired
+    private VitalsThresholdCache thresholdCache;
+
+    @Autowired
+    private VitalsMonitoringService vitalsMonitoringService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private VitalsThresholdRepository thresholdRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void thresholdsAreLoadedOncePerPatient() {
+        Long patientId = newPatient();
+        Statistics statistics = statistics();
+
+        double[] first = thresholdCache.thresholdsFor(patientId);
+        double[] second = thresholdCache.thresholdsFor(patientId);
+
+        assertSame(first, second);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        int offset = VitalsThresholdCache.offset(VitalType.HEART_RATE);
+        assertEquals(60, first[offset]);
+        assertEquals(100, first[offset + 1]);
+    }
+
+    @Test
+    void patientsWithoutCustomThresholdsShareTheDefaults() {
+        assertSame(thresholdCache.thresholdsFor(newPatient()), thresholdCache.thresholdsFor(newPatient()));
+    }
+
+    @Test
+    void setThresholdTakesEffectOnTheNextReading() {
+        Long patientId = newPatient();
+        // 95 is normal under the default heart rate range
+        assertTrue(vitalsMonitoringService.recordVitalReading(patientId, VitalType.HEART_RATE, 95.0).isEmpty());
+
+        vitalsMonitoringService.setThreshold(patientId, VitalType.HEART_RATE, 60.0, 90.0, 40.0, 150.0);
+        Optional<VitalsAlert> alert = vitalsMonitoringService.recordVitalReading(patientId, VitalType.HEART_RATE, 95.0);
+
+        assertTrue(alert.isPresent());
+        assertEquals(AlertSeverity.LOW, alert.get().getSeverity());
+        assertEquals(90.0, alert.get().getThresholdMax());
+        // Unset bounds of other types still come from the defaults
+        double[] thresholds = thresholdCache.thresholdsFor(patientId);
+        assertEquals(95, thresholds[VitalsThresholdCache.offset(VitalType.OXYGEN_LEVEL)]);
+    }
+
+    @Test
+    void warmDropsThresholdsInvalidatedWhileLoading() {
+        VitalsThresholdRepository repository = mock(VitalsThresholdRepository.class);
+        VitalsThresholdCache cache = new VitalsThresholdCache(repository, 100, 300);
+        // setThreshold commits between the read and the install: the read saw the old rows
+        when(repository.findByPatientIdIn(any())).thenAnswer(invocation -> {
+            cache.invalidateAfterCommit(7L);
+            return List.of();
+        }).thenReturn(List.of());
+
+        cache.warm(List.of(7L, 8L));
+
+        assertEquals(1, cache.size());
+        cache.thresholdsFor(7L);
+        verify(repository, times(2)).findByPatientIdIn(any());
+    }
+
+    @Test
+    void expiredEntriesPickUpChangesMadeElsewhere() {
+        Long patientId = newPatient();
+        VitalsThresholdCache cache = new VitalsThresholdCache(thresholdRepository, 100, 0);
+        int offset = VitalsThresholdCache.offset(VitalType.HEART_RATE);
+        assertEquals(100, cache.thresholdsFor(patientId)[offset + 1]);
+
+        // Written by another node, so nothing invalidates this cache
+        thresholdRepository.save(VitalsThreshold.builder()
+                .patient(patientRepository.findById(patientId).orElseThrow())
+                .vitalType(VitalType.HEART_RATE)
+                .maxValue(90.0)
+                .build());
+
+        assertEquals(90, cache.thresholdsFor(patientId)[offset + 1]);
+    }
+
+    private Long newPatient() {
+        return patientRepository.save(Patient.builder()
+                .name("Threshold Patient")
+                .email("threshold-" + System.nanoTime() + "@patient.test")
+                .password("secret123")
+                .build()).getId();
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
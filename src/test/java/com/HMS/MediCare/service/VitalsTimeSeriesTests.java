@@ -0,0 +1,312 @@
+package com.HMS.MediCare.service;
+
+import com.HMS.MediCare.dto.response.RollupRebuildResponse;
+import com.HMS.MediCare.dto.response.VitalsSeriesResponse;
+import com.HMS.MediCare.entity.Patient;
+import com.HMS.MediCare.entity.PatientVitals;
+import com.HMS.MediCare.entity.VitalsChunk;
+import com.HMS.MediCare.entity.VitalsRollup;
+import com.HMS.MediCare.enums.VitalType;
+import com.HMS.MediCare.enums.VitalsResolution;
+import com.HMS.MediCare.exception.BadRequestException;
+import com.HMS.MediCare.repository.PatientRepository;
+import com.HMS.MediCare.repository.PatientVitalsRepository;
+import com.HMS.MediCare.repository.VitalsChunkRepository;
+import com.HMS.MediCare.repository.VitalsRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Vitals time series: chunk encoding, rollups maintained on ingestion, compaction,
+ * the resolution chosen for a series query, LTTB trends and the patient_vitals backfill
+ */
+@SpringBootTest(properties = {
+        "vitals.timeseries.chunk-points=4"
+})
+@ActiveProfiles("test")
+class VitalsTimeSeriesTests {
+
+    @Autowired
+    private VitalsTimeSeriesService timeSeriesService;
+
+    @Autowired
+    private VitalsIngestionService vitalsIngestionService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private VitalsChunkRepository chunkRepository;
+
+    @Autowired
+    private VitalsRollupRepository rollupRepository;
+
+    @Autowired
+    private PatientVitalsRepository patientVitalsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void codecRoundTripsAndPacksSteadyReadings() {
+        long start = 1_740_000_000_000L;
+        long[] timestamps = {start, start + 1_000, start + 2_000, start + 2_500, start + 60_000};
+        double[] values = {36.6, 36.7, 36.7, 0, 999.9};
+        VitalsChunkCodec.Points decoded = VitalsChunkCodec.decode(VitalsChunkCodec.encode(timestamps, values, 0, 5));
+        assertEquals(5, decoded.size());
+        assertArrayEquals(timestamps, decoded.timestamps());
+        assertArrayEquals(values, decoded.values(), 1e-9);
+
+        int n = 1000;
+        long[] steady = new long[n];
+        double[] heartRate = new double[n];
+        for (int i = 0; i < n; i++) {
+            steady[i] = start + i * 1_000L;
+            heartRate[i] = 70 + (i % 3);
+        }
+        byte[] packed = VitalsChunkCodec.encode(steady, heartRate, 0, n);
+        // One byte per timestamp and one per value delta, plus the header
+        assertTrue(packed.length < 2 * n + 16, "packed to " + packed.length + " bytes");
+        assertArrayEquals(steady, VitalsChunkCodec.decode(packed).timestamps());
+    }
+
+    @Test
+    void ingestionMaintainsRollupsAndSeriesPicksResolution() {
+        Long patientId = newPatient();
+        String body = String.join("\n",
+                reading(patientId, 60, "2025-03-01T08:00:00"),
+                reading(patientId, 80, "2025-03-01T08:00:30"),
+                reading(patientId, 70, "2025-03-01T08:01:00"),
+                reading(patientId, 90, "2025-03-01T09:00:00"),
+                reading(patientId, 100, "2025-03-02T10:00:00"),
+                reading(patientId, 110, "2025-03-02T10:30:00"));
+        vitalsIngestionService.ingestJsonLines(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), "device");
+
+        // Six points split into chunks of at most four
+        assertEquals(2, chunks(patientId).size());
+        List<VitalsRollup> minute = rollupRepository
+                .findByPatientIdAndVitalTypeAndResolutionAndBucketStartBetweenOrderByBucketStartAsc(
+                        patientId, VitalType.HEART_RATE, VitalsResolution.MINUTE,
+                        LocalDateTime.of(2025, 3, 1, 8, 0), LocalDateTime.of(2025, 3, 1, 8, 0));
+        assertEquals(1, minute.size());
+        assertEquals(2, minute.get(0).getSampleCount());
+        assertEquals(60, minute.get(0).getMinValue());
+        assertEquals(80, minute.get(0).getMaxValue());
+
+        LocalDateTime from = LocalDateTime.of(2025, 3, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 3, 3, 0, 0);
+        VitalsSeriesResponse raw = timeSeriesService.getSeries(patientId, VitalType.HEART_RATE, from, to, 10);
+        assertEquals("RAW", raw.getResolution());
+        assertArrayEquals(new double[]{60, 80, 70, 90, 100, 110}, raw.getValues(), 1e-9);
+        assertNull(raw.getCounts());
+
+        // Too many points; minute rollups are past retention and 49 hours do not fit either
+        VitalsSeriesResponse daily = timeSeriesService.getSeries(patientId, VitalType.HEART_RATE, from, to, 3);
+        assertEquals("DAY", daily.getResolution());
+        assertArrayEquals(new long[]{4, 2}, daily.getCounts());
+        assertArrayEquals(new double[]{75, 105}, daily.getValues(), 1e-9);
+        assertArrayEquals(new double[]{60, 100}, daily.getMin(), 1e-9);
+        assertArrayEquals(new double[]{90, 110}, daily.getMax(), 1e-9);
+        assertEquals(millis(from), daily.getTimestamps()[0]);
+
+        VitalsSeriesResponse hourly = timeSeriesService.getSeries(patientId, VitalType.HEART_RATE,
+                LocalDateTime.of(2025, 3, 1, 8, 0), LocalDateTime.of(2025, 3, 1, 10, 0), 3);
+        assertEquals("HOUR", hourly.getResolution());
+        assertArrayEquals(new long[]{3, 1}, hourly.getCounts());
+        assertArrayEquals(new double[]{70, 90}, hourly.getValues(), 1e-9);
+    }
+
+    @Test
+    void seriesRejectsNonPositiveAndCapsLargeMaxPoints() {
+        Long patientId = newPatient();
+        LocalDateTime base = LocalDateTime.now().minusDays(2).truncatedTo(ChronoUnit.DAYS);
+        int n = 10_001;
+        VitalReadingBuffer points = new VitalReadingBuffer(n);
+        for (int i = 0; i < n; i++) {
+            points.add(i, patientId, VitalType.HEART_RATE.ordinal(), 70, millis(base.plusSeconds(i)));
+        }
+        timeSeriesService.append(points);
+
+        assertThrows(BadRequestException.class, () -> timeSeriesService.getSeries(patientId,
+                VitalType.HEART_RATE, base, base.plusDays(1), 0));
+        assertThrows(BadRequestException.class, () -> timeSeriesService.getSeries(patientId,
+                VitalType.HEART_RATE, base, base.plusDays(1), -5));
+        // Capped to 10000, which the raw points exceed
+        VitalsSeriesResponse series = timeSeriesService.getSeries(patientId, VitalType.HEART_RATE,
+                base, base.plusDays(1), Integer.MAX_VALUE);
+        assertEquals("MINUTE", series.getResolution());
+        assertEquals(n, Arrays.stream(series.getCounts()).sum());
+    }
+
+    @Test
+    void compactionMergesSmallChunksInTimeOrder() {
+        Long patientId = newPatient();
+        LocalDateTime base = LocalDateTime.of(2025, 4, 1, 12, 0);
+        timeSeriesService.appendReading(patientId, VitalType.HEART_RATE, 72, base.plusMinutes(2));
+        timeSeriesService.appendReading(patientId, VitalType.HEART_RATE, 70, base);
+        timeSeriesService.appendReading(patientId, VitalType.HEART_RATE, 71, base.plusMinutes(1));
+        assertEquals(3, chunks(patientId).size());
+
+        timeSeriesService.compactChunks();
+
+        List<VitalsChunk> compacted = chunks(patientId);
+        assertEquals(1, compacted.size());
+        assertEquals(3, compacted.get(0).getPointCount());
+        VitalsSeriesResponse series = timeSeriesService.getSeries(patientId, VitalType.HEART_RATE,
+                base, base.plusHours(1), 100);
+        assertArrayEquals(new double[]{70, 71, 72}, series.getValues(), 1e-9);
+        assertArrayEquals(new long[]{millis(base), millis(base.plusMinutes(1)), millis(base.plusMinutes(2))},
+                series.getTimestamps());
+    }
+
+    @Test
+    void lttbKeepsEndpointsAndSpikes() {
+        int n = 1000;
+        long[] timestamps = new long[n];
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            timestamps[i] = i * 1_000L;
+            values[i] = 70 + (i % 2);
+        }
+        values[437] = 160;
+        values[801] = 35;
+
+        int[] kept = LttbDownsampler.select(timestamps, values, n, 50);
+
+        assertEquals(50, kept.length);
+        assertEquals(0, kept[0]);
+        assertEquals(n - 1, kept[49]);
+        List<Integer> keptList = Arrays.stream(kept).boxed().toList();
+        assertTrue(keptList.contains(437));
+        assertTrue(keptList.contains(801));
+        for (int i = 1; i < kept.length; i++) {
+            assertTrue(kept[i] > kept[i - 1]);
+        }
+    }
+
+    @Test
+    void trendIsDownsampledFromRawPoints() {
+        Long patientId = newPatient();
+        LocalDateTime base = LocalDateTime.of(2025, 5, 1, 0, 0);
+        VitalReadingBuffer points = new VitalReadingBuffer(200);
+        for (int i = 0; i < 200; i++) {
+            points.add(i, patientId, VitalType.OXYGEN_LEVEL.ordinal(), i == 120 ? 84 : 97,
+                    millis(base.plusMinutes(i)));
+        }
+        timeSeriesService.append(points);
+
+        VitalsSeriesResponse trend = timeSeriesService.getTrend(patientId, VitalType.OXYGEN_LEVEL,
+                base, base.plusDays(1), 20);
+        assertEquals("RAW", trend.getResolution());
+        assertTrue(trend.isDownsampled());
+        assertEquals(20, trend.getTimestamps().length);
+        assertEquals(millis(base), trend.getTimestamps()[0]);
+        assertEquals(84, Arrays.stream(trend.getValues()).min().orElseThrow());
+
+        VitalsSeriesResponse full = timeSeriesService.getTrend(patientId, VitalType.OXYGEN_LEVEL,
+                base, base.plusDays(1), 500);
+        assertFalse(full.isDownsampled());
+        assertEquals(200, full.getValues().length);
+    }
+
+    @Test
+    void rollupRebuildFromChunksRepairsDrift() {
+        Long patientId = newPatient();
+        LocalDateTime base = LocalDateTime.of(2025, 6, 1, 9, 0);
+        timeSeriesService.appendReading(patientId, VitalType.HEART_RATE, 70, base);
+        timeSeriesService.appendReading(patientId, VitalType.HEART_RATE, 90, base.plusMinutes(30));
+        // A lost update on one bucket and a bucket that never got written
+        jdbcTemplate.update("UPDATE vitals_rollups SET sample_count = 1, sum_value = 70 " +
+                "WHERE patient_id = ? AND resolution = 'DAY'", patientId);
+        jdbcTemplate.update("DELETE FROM vitals_rollups WHERE patient_id = ? AND resolution = 'HOUR'", patientId);
+
+        RollupRebuildResponse rebuild = timeSeriesService.rebuildRollups(patientId);
+
+        assertEquals(2, rebuild.getDriftCount(), () -> String.join("\n", rebuild.getDrift()));
+        assertTrue(rebuild.getDrift().stream().anyMatch(line -> line.contains("DAY") && line.contains("was 1")));
+        VitalsSeriesResponse daily = timeSeriesService.getSeries(patientId, VitalType.HEART_RATE,
+                base, base.plusDays(3), 1);
+        assertArrayEquals(new long[]{2}, daily.getCounts());
+        assertArrayEquals(new double[]{80}, daily.getValues(), 1e-9);
+        assertEquals(0, timeSeriesService.rebuildRollups(patientId).getDriftCount());
+    }
+
+    @Test
+    void backfillAppendsOnlyMissingReadingsOnceAndWaitsForTheLock() {
+        Long patientId = newPatient();
+        Patient patient = patientRepository.getReferenceById(patientId);
+        PatientVitals live = patientVitalsRepository.save(PatientVitals.builder().patient(patient).heartRate(72).build());
+        // Recorded through the service, so this reading is already in the series
+        timeSeriesService.appendReading(patientId, VitalType.HEART_RATE, 72, live.getRecordedAt());
+        PatientVitals old = patientVitalsRepository.save(PatientVitals.builder().patient(patient).heartRate(72).build());
+        restartBackfill();
+
+        ClusterLockService otherNode = new ClusterLockService(jdbcTemplate);
+        assertTrue(otherNode.tryAcquire(VitalsTimeSeriesService.BACKFILL, Duration.ofMinutes(1)));
+        timeSeriesService.backfillIfIncomplete();
+        assertEquals(1, points(patientId));
+        otherNode.release(VitalsTimeSeriesService.BACKFILL);
+
+        timeSeriesService.backfillIfIncomplete();
+        assertEquals(2, points(patientId));
+        // Interrupted or rerun: nothing is appended twice, rollups included
+        restartBackfill();
+        timeSeriesService.backfillIfIncomplete();
+        assertEquals(2, points(patientId));
+        LocalDateTime day = old.getRecordedAt().truncatedTo(ChronoUnit.DAYS);
+        assertEquals(2, rollupRepository
+                .findByPatientIdAndVitalTypeAndResolutionAndBucketStartBetweenOrderByBucketStartAsc(
+                        patientId, VitalType.HEART_RATE, VitalsResolution.DAY, day, day)
+                .get(0).getSampleCount());
+    }
+
+    private void restartBackfill() {
+        jdbcTemplate.update("DELETE FROM backfill_progress WHERE name = ?", VitalsTimeSeriesService.BACKFILL);
+    }
+
+    private int points(Long patientId) {
+        return chunks(patientId).stream().mapToInt(VitalsChunk::getPointCount).sum();
+    }
+
+    private List<VitalsChunk> chunks(Long patientId) {
+        return chunkRepository.findByPatientIdAndVitalTypeAndPointCountLessThanOrderByFirstRecordedAtAsc(
+                patientId, VitalType.HEART_RATE, Integer.MAX_VALUE);
+    }
+
+    private Long newPatient() {
+        return patientRepository.save(Patient.builder()
+                .name("Monitored Patient")
+                .email("series-" + System.nanoTime() + "@patient.test")
+                .password("secret123")
+                .build()).getId();
+    }
+
+    private static String reading(Long patientId, double value, String timestamp) {
+        return "{\"patientId\":" + patientId + ",\"vitalType\":\"HEART_RATE\",\"value\":" + value
+                + ",\"timestamp\":\"" + timestamp + "\"}";
+    }
+
+    private static long millis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}